@@ -0,0 +1,88 @@
+package ip.translation;
+
+import ip.translation.benchmarks.Inputs;
+import ip.translation.core.PackedIPv4;
+import ip.translation.subnet.VlsmPlan;
+import ip.translation.subnet.VlsmPlanner;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assignment of user input to {@link InternetProtocolAddress} and derivation of
+ * the network parameters - every invocation processes {@code size} inputs.
+ * <p>
+ * The derivation suite stands for {@code addressConfiguration()}, which became
+ * redundant once the parameters are derived from {@link PackedIPv4} on demand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddressBenchmark {
+
+    @Param({"1", "1024", "65536"})
+    int size;
+
+    String[] addresses;
+    String[] masks;
+    PackedIPv4[] networks;
+    int[] hosts;
+    InternetProtocolAddress IPAddress;
+
+    @Setup
+    public void setup() {
+        addresses = Inputs.addresses(size);
+        masks = Inputs.masks(size);
+
+        int[] packed = Inputs.packedAddresses(size);
+        int[] prefixes = Inputs.prefixes(size);
+        networks = new PackedIPv4[size];
+        hosts = new int[size];
+        for(int i = 0; i < size; i++) {
+            networks[i] = PackedIPv4.of(packed[i], prefixes[i]);
+            hosts[i] = (1 << (32 - prefixes[i])) - 2;
+        }
+
+        IPAddress = new InternetProtocolAddress(true);
+        IPAddress.inputAddressAssignment("10.0.0.0", false);
+        IPAddress.inputMaskAssignment("/8", false);
+    }
+
+    @Benchmark
+    public void inputAddressAssignment(Blackhole blackhole) {
+        for(String address : addresses) {
+            IPAddress.inputAddressAssignment(address, false);
+            blackhole.consume(IPAddress.core);
+        }
+    }
+
+    @Benchmark
+    public void inputMaskAssignment(Blackhole blackhole) {
+        for(String mask : masks) {
+            IPAddress.inputMaskAssignment(mask, false);
+            blackhole.consume(IPAddress.core);
+        }
+    }
+
+    @Benchmark
+    public void derivation(Blackhole blackhole) {
+        for(PackedIPv4 network : networks) {
+            blackhole.consume(network.network());
+            blackhole.consume(network.broadcast());
+            blackhole.consume(network.firstHost());
+            blackhole.consume(network.lastHost());
+            blackhole.consume(network.usableHosts());
+        }
+    }
+
+    /** Stands for the chain of {@code followingNetworkAddressCreation()}, replaced by the planner */
+    @Benchmark
+    public VlsmPlan vlsmPlan() {
+        return VlsmPlanner.plan(PackedIPv4.pack(0, 0), hosts);
+    }
+}
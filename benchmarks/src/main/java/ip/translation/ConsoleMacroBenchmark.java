@@ -0,0 +1,200 @@
+package ip.translation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+
+/**
+ * End-to-end harness, driving {@link Console} with scripted sessions - every line
+ * of the script is read the way the user's input is, through a single
+ * {@link Scanner}: the address and the mask first, then one command per line,
+ * while confirmations consume the lines following their command.
+ * <p>
+ * The output is captured by a counting sink. Every command is timed separately,
+ * the report contains commands per second, p50/p99 latency and bytes allocated
+ * per command (measured for the calling thread).
+ * <p>
+ * Run with:
+ * <pre>java -cp benchmarks.jar ip.translation.ConsoleMacroBenchmark [subnets|queries|mixed|script file] [commands] [warmup rounds]</pre>
+ */
+public final class ConsoleMacroBenchmark {
+
+    /** Seed of every generated session */
+    private static final long SEED = 20191115L;
+    /** Sessions generated by the harness */
+    private static final String[] SESSIONS = {"subnets", "queries", "mixed"};
+    /** Commands of the main program, used by the mixed session */
+    private static final String[] COMMANDS = {"ip", "ip -b", "mask", "mask -b", "netaddress", "netaddress -b",
+            "broadcast", "broadcast -b", "hosts", "help"};
+
+    /** Allocation counter of the current thread */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Constructor
+     */
+    private ConsoleMacroBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        String session = args.length > 0 ? args[0] : "all";
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int warmups = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        String[] sessions = session.equals("all") ? SESSIONS : new String[] {session};
+        for(String name : sessions) {
+            String script = Arrays.asList(SESSIONS).contains(name)
+                    ? script(name, commands)
+                    : new String(Files.readAllBytes(Paths.get(name)), StandardCharsets.UTF_8);
+            for(int i = 0; i < warmups; i++)
+                run(new StringReader(script));
+            System.out.println(name + ": " + run(new StringReader(script)));
+        }
+    }
+
+    /**
+     * Generates the session.
+     *
+     * @param name      subnets - thousands of {@code subnet N /add} followed by the calculation,<p>
+     *                  queries - repeated {@code netaddress -b} and {@code broadcast -b},<p>
+     *                  mixed   - random commands of the main program
+     * @param commands  number of generated commands
+     * @return          lines of the script, beginning with the address and the mask
+     */
+    static String script(String name, int commands) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        StringBuilder script = new StringBuilder("10.0.0.0\n/8\n");
+        switch(name) {
+            case "subnets":
+                script.append("subnets\n");
+                for(int i = 0; i < commands; i++)
+                    script.append("subnet ").append(random.nextInt(2, 255)).append(" /add\n");
+                script.append("subnet list\nsubnet calculate -b\nhosts\nexit\ny\n");
+                break;
+            case "queries":
+                for(int i = 0; i < commands; i++)
+                    script.append(i % 2 == 0 ? "netaddress -b\n" : "broadcast -b\n");
+                break;
+            case "mixed":
+                for(int i = 0; i < commands; i++)
+                    script.append(COMMANDS[random.nextInt(COMMANDS.length)]).append('\n');
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown session: " + name);
+        }
+        return script.append("exit\ny\n").toString();
+    }
+
+    /**
+     * Plays the whole script, with the standard output redirected to the counting sink.
+     *
+     * @param source    lines of the script
+     * @return          measurements of every command
+     */
+    static Report run(Reader source) {
+        Scanner input = new Scanner(source);
+        Console console = new Console(input);
+        CountingStream sink = new CountingStream();
+        PrintStream standardOutput = System.out;
+        long thread = Thread.currentThread().getId();
+
+        long[] latencies = new long[1024];
+        long allocated = 0;
+        int commands = 0;
+        System.setOut(new PrintStream(sink, false));
+        try {
+            console.addressesRequest();
+            long overhead = THREADS.getThreadAllocatedBytes(thread);
+            overhead = THREADS.getThreadAllocatedBytes(thread) - overhead;   // Cost of the measurement itself
+
+            long started = System.nanoTime();
+            while(!console.finished() && input.hasNextLine()) {
+                long bytes = THREADS.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                console.prompt();
+                console.command(input.nextLine());
+                long end = System.nanoTime();
+                allocated += THREADS.getThreadAllocatedBytes(thread) - bytes - overhead;
+
+                if(commands == latencies.length)
+                    latencies = Arrays.copyOf(latencies, commands * 2);
+                latencies[commands++] = end - start;
+            }
+            long elapsed = System.nanoTime() - started;
+            System.out.flush();
+            return new Report(Arrays.copyOf(latencies, commands), elapsed, allocated, sink.bytes);
+        } finally {
+            System.setOut(standardOutput);
+        }
+    }
+
+    /**
+     * Measurements of a single run.
+     */
+    static final class Report {
+        /** Number of executed commands */
+        private final int commands;
+        /** Time of the whole run, in nanoseconds */
+        private final long elapsed;
+        /** Median latency of a command, in nanoseconds */
+        private final long p50;
+        /** 99th percentile of the latency, in nanoseconds */
+        private final long p99;
+        /** Bytes allocated by all the commands */
+        private final long allocated;
+        /** Bytes written to the output */
+        private final long output;
+
+        Report(long[] latencies, long elapsed, long allocated, long output) {
+            Arrays.sort(latencies);
+            this.commands = latencies.length;
+            this.elapsed = elapsed;
+            this.p50 = percentile(latencies, 50);
+            this.p99 = percentile(latencies, 99);
+            this.allocated = allocated;
+            this.output = output;
+        }
+
+        /** @return value below which given percent of the sorted latencies falls */
+        private static long percentile(long[] sorted, int percent) {
+            if(sorted.length == 0)
+                return 0;
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(sorted.length * percent / 100.0) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            long perCommand = commands == 0 ? 0 : allocated / commands;
+            double perSecond = elapsed == 0 ? 0 : commands * 1e9 / elapsed;
+            return String.format("%d commands, %.0f commands/s, p50 %.1f us, p99 %.1f us, %d B allocated/command, %d B of output",
+                    commands, perSecond, p50 / 1e3, p99 / 1e3, perCommand, output);
+        }
+    }
+
+    /**
+     * Sink of the output, counting the bytes only.
+     */
+    private static final class CountingStream extends OutputStream {
+        /** Bytes written so far */
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ip.translation;
+
+import ip.translation.benchmarks.Inputs;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions and binary operations of {@link ToNumberSystem} - every invocation
+ * processes {@code size} octets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    @Param({"1", "1024", "65536"})
+    int size;
+
+    int[] octets;
+    String[] binary;
+    String[] masks;
+
+    @Setup
+    public void setup() {
+        octets = Inputs.octets(size);
+        int[] prefixes = Inputs.prefixes(size);
+        binary = new String[size];
+        masks = new String[size];
+        for(int i = 0; i < size; i++) {
+            binary[i] = ToNumberSystem.decimalToBinary(octets[i]);
+            masks[i] = ToNumberSystem.decimalToBinary((0xFF00 >>> (prefixes[i] % 9)) & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public void decimalToBinary(Blackhole blackhole) {
+        for(int octet : octets)
+            blackhole.consume(ToNumberSystem.decimalToBinary(octet));
+    }
+
+    @Benchmark
+    public void binaryToDecimal(Blackhole blackhole) {
+        for(String octet : binary)
+            blackhole.consume(ToNumberSystem.binaryToDecimal(octet));
+    }
+
+    @Benchmark
+    public void binaryAND(Blackhole blackhole) {
+        for(int i = 0; i < size; i++)
+            blackhole.consume(ToNumberSystem.IPv4SegmentBinaryAND(binary[i], masks[i]));
+    }
+
+    @Benchmark
+    public void binaryOR(Blackhole blackhole) {
+        for(int i = 0; i < size; i++)
+            blackhole.consume(ToNumberSystem.IPv4SegmentBinaryOR(binary[i], masks[i]));
+    }
+
+    @Benchmark
+    public void binaryNOT(Blackhole blackhole) {
+        for(String octet : masks)
+            blackhole.consume(ToNumberSystem.IPv4SegmentBinaryNOT(octet));
+    }
+}
@@ -0,0 +1,108 @@
+package ip.translation.benchmarks;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmarks - the same size always produces
+ * the same data, so results of different runs can be compared.
+ */
+public final class Inputs {
+
+    /** Seed of every generated input */
+    private static final long SEED = 20191115L;
+
+    /**
+     * Constructor
+     */
+    private Inputs() {}
+
+    /**
+     * @param count     number of addresses
+     * @return          valid dotted-quad addresses
+     */
+    public static String[] addresses(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] addresses = new String[count];
+        for(int i = 0; i < count; i++)
+            addresses[i] = random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+        return addresses;
+    }
+
+    /**
+     * @param count     number of masks
+     * @return          valid masks, mixed dotted, "/n" and bare "n" forms, all within [8 - 30] scope
+     */
+    public static String[] masks(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        String[] masks = new String[count];
+        for(int i = 0; i < count; i++) {
+            int prefix = random.nextInt(8, 31);
+            int mask = -1 << (32 - prefix);
+            switch(i % 3) {
+                case 0:
+                    masks[i] = "/" + prefix;
+                    break;
+                case 1:
+                    masks[i] = Integer.toString(prefix);
+                    break;
+                default:
+                    masks[i] = (mask >>> 24) + "." + ((mask >>> 16) & 0xFF) + "." + ((mask >>> 8) & 0xFF) + "." + (mask & 0xFF);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * @param count     number of addresses
+     * @return          random 32-bit addresses
+     */
+    public static int[] packedAddresses(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 2);
+        int[] addresses = new int[count];
+        for(int i = 0; i < count; i++)
+            addresses[i] = random.nextInt();
+        return addresses;
+    }
+
+    /**
+     * @param count     number of prefix lengths
+     * @return          prefix lengths within [8 - 30] scope
+     */
+    public static int[] prefixes(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 3);
+        int[] prefixes = new int[count];
+        for(int i = 0; i < count; i++)
+            prefixes[i] = random.nextInt(8, 31);
+        return prefixes;
+    }
+
+    /**
+     * @param count     number of routes
+     * @return          networks packed along with their prefix lengths (see {@code PackedIPv4}), spread uniformly over
+     *                  the address space - half of them /24, the rest within [16 - 23] scope
+     */
+    public static long[] routes(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 5);
+        long[] routes = new long[count];
+        for(int i = 0; i < count; i++) {
+            int prefix = random.nextBoolean() ? 24 : random.nextInt(16, 24);
+            routes[i] = PackedIPv4.pack(random.nextInt() & MaskTable.mask(prefix), prefix);
+        }
+        return routes;
+    }
+
+    /**
+     * @param count     number of octets
+     * @return          values within [0 - 255] scope
+     */
+    public static int[] octets(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 4);
+        int[] octets = new int[count];
+        for(int i = 0; i < count; i++)
+            octets[i] = random.nextInt(256);
+        return octets;
+    }
+}
@@ -0,0 +1,40 @@
+package ip.translation.cidr;
+
+import ip.translation.benchmarks.Inputs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation of {@code size} routing-table-like prefixes into the minimal set -
+ * below the threshold sequentially, above it by the fork-join pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"65536", "4194304"})
+    int size;
+
+    long[] networks;
+    long[] work;
+    CidrAggregator aggregator;
+
+    @Setup
+    public void setup() {
+        networks = Inputs.routes(size);
+        work = new long[size];
+        aggregator = new CidrAggregator();
+    }
+
+    @Benchmark
+    public int aggregate() {
+        System.arraycopy(networks, 0, work, 0, size);
+        return aggregator.aggregate(work, size);
+    }
+}
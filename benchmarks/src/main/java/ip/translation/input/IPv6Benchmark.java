@@ -0,0 +1,72 @@
+package ip.translation.input;
+
+import ip.translation.core.PackedIPv6;
+import ip.translation.input.processing.ByteSequence;
+import ip.translation.input.processing.IPv6Automaton;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting of IPv6 text - every invocation processes {@code size}
+ * addresses, a quarter of them with runs of zero groups and a tenth IPv4-mapped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IPv6Benchmark {
+
+    @Param({"65536"})
+    int size;
+
+    String[] texts;
+    long[] addresses;
+    long[] results;
+    ByteSequence lines;
+    byte[] output;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(24);
+        texts = new String[size];
+        addresses = new long[2 * size];
+        results = new long[size];
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < size; i++) {
+            long high = 0x20010DB800000000L | random.nextInt();
+            long low = random.nextInt(4) == 0 ? random.nextInt(256) : random.nextLong();
+            if(random.nextInt(10) == 0) {
+                high = 0;
+                low = 0xFFFF00000000L | (random.nextInt() & 0xFFFFFFFFL);
+            }
+            texts[i] = PackedIPv6.toText(high, low);
+            text.append(texts[i]).append('\n');
+        }
+        lines = new ByteSequence(text.toString().getBytes(StandardCharsets.US_ASCII));
+        output = new byte[size * (PackedIPv6.MAX_TEXT + 1)];
+    }
+
+    @Benchmark
+    public long parseAddress() {
+        long sum = 0;
+        for(String text : texts)
+            sum += IPv6Automaton.parseAddress(text, addresses, 0) + addresses[1];
+        return sum;
+    }
+
+    @Benchmark
+    public int parseLines() {
+        return IPv6Automaton.parseLines(lines, addresses, results, 0);
+    }
+
+    @Benchmark
+    public int formatLines() {
+        return PackedIPv6.formatLines(addresses, 0, size, output, 0);
+    }
+}
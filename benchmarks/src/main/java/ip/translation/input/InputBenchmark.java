@@ -0,0 +1,52 @@
+package ip.translation.input;
+
+import ip.translation.benchmarks.Inputs;
+import ip.translation.input.control.InitialInputControl;
+import ip.translation.input.processing.AddressAutomaton;
+import ip.translation.input.processing.Segmentation;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validation of address input - every invocation processes
+ * {@code size} addresses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputBenchmark {
+
+    @Param({"1", "1024", "65536"})
+    int size;
+
+    String[] addresses;
+
+    @Setup
+    public void setup() {
+        addresses = Inputs.addresses(size);
+    }
+
+    @Benchmark
+    public void segment(Blackhole blackhole) {
+        for(String address : addresses)
+            blackhole.consume(Segmentation.segment(address));
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for(String address : addresses)
+            blackhole.consume(InitialInputControl.validate(address));
+    }
+
+    @Benchmark
+    public void parseAddress(Blackhole blackhole) {
+        for(String address : addresses)
+            blackhole.consume(AddressAutomaton.parseAddress(address));
+    }
+}
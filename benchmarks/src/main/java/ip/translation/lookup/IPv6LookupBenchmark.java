@@ -0,0 +1,74 @@
+package ip.translation.lookup;
+
+import ip.translation.core.PackedIPv6;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Longest-prefix-match lookups in an IPv6 table of {@code routes} prefixes of given
+ * stride - /32 allocations within 2000::/3, each with up to 100 more specific /40 - /64
+ * prefixes. Every invocation looks up {@code size} addresses within the allocations,
+ * one by one or as a single batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IPv6LookupBenchmark {
+
+    private static final int[] LENGTHS = {40, 44, 48, 48, 48, 48, 56, 64};
+
+    @Param({"4", "6"})
+    int stride;
+
+    @Param({"1024", "1048576"})
+    int routes;
+
+    @Param({"65536"})
+    int size;
+
+    IPv6MultibitTrie trie;
+    long[] addresses;
+    int[] results;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(25);
+        long[] highs = new long[routes];
+        trie = new IPv6MultibitTrie(stride);
+        for(int i = 0; i < routes; ) {
+            long allocation = 0x2000000000000000L | (long) random.nextInt(1 << 29) << 32;
+            highs[i] = allocation;
+            trie.insert(allocation, 0, 32, i++);
+            for(int more = random.nextInt(100); more > 0 && i < routes; more--) {
+                int prefix = LENGTHS[random.nextInt(LENGTHS.length)];
+                highs[i] = PackedIPv6.networkHigh(allocation | random.nextLong() & 0xFFFFFFFFL, prefix);
+                trie.insert(highs[i], 0, prefix, i++);
+            }
+        }
+        addresses = new long[2 * size];
+        for(int i = 0; i < size; i++) {
+            addresses[2 * i] = highs[random.nextInt(routes)] | random.nextInt(1 << 16);
+            addresses[2 * i + 1] = random.nextLong();
+        }
+        results = new int[size];
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for(int i = 0; i < addresses.length; i += 2)
+            blackhole.consume(trie.lookup(addresses[i], addresses[i + 1]));
+    }
+
+    @Benchmark
+    public int[] batchLookup() {
+        trie.lookup(addresses, results);
+        return results;
+    }
+}
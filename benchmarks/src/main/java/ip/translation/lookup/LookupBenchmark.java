@@ -0,0 +1,68 @@
+package ip.translation.lookup;
+
+import ip.translation.benchmarks.Inputs;
+import ip.translation.core.PackedIPv4;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Longest-prefix-match lookups of random addresses in a table of {@code routes}
+ * prefixes - every invocation looks up {@code size} addresses, one by one or as
+ * a single batch. The table is either the trie, the flat DIR-24-8 table or its
+ * concurrent variant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    @Param({"trie", "dir24", "concurrent"})
+    String table;
+
+    @Param({"1024", "1048576"})
+    int routes;
+
+    @Param({"65536"})
+    int size;
+
+    RouteTable lookupTable;
+    int[] addresses;
+    int[] results;
+
+    @Setup
+    public void setup() {
+        long[] networks = Inputs.routes(routes);
+        if(table.equals("concurrent")) {
+            RouteBatch batch = new RouteBatch();                // Single version, not one per route
+            for(int i = 0; i < routes; i++)
+                batch.insert(PackedIPv4.address(networks[i]), PackedIPv4.prefix(networks[i]), i);
+            ConcurrentRouteTable concurrent = new ConcurrentRouteTable();
+            concurrent.apply(batch);
+            lookupTable = concurrent;
+        } else {
+            lookupTable = table.equals("dir24") ? new Dir24Table() : new PathCompressedTrie(routes);
+            for(int i = 0; i < routes; i++)
+                lookupTable.insert(PackedIPv4.address(networks[i]), PackedIPv4.prefix(networks[i]), i);
+        }
+        addresses = Inputs.packedAddresses(size);
+        results = new int[size];
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for(int address : addresses)
+            blackhole.consume(lookupTable.lookup(address));
+    }
+
+    @Benchmark
+    public int[] batchLookup() {
+        lookupTable.lookup(addresses, results);
+        return results;
+    }
+}
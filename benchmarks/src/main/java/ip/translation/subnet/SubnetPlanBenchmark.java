@@ -0,0 +1,60 @@
+package ip.translation.subnet;
+
+import ip.translation.core.PackedIPv4;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Editing a single requirement of a plan of {@code size} subnets within 10.0.0.0/8,
+ * against recalculating the whole plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubnetPlanBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    SubnetPlan plan;
+    int[] hosts;
+    int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(22);
+        plan = new SubnetPlan(PackedIPv4.pack(0x0A000000, 8));
+        hosts = new int[size];
+        for(int i = 0; i < size; i++) {
+            hosts[i] = 1 + random.nextInt(random.nextBoolean() ? 60 : 1000);
+            plan.add(hosts[i]);
+        }
+    }
+
+    /** Adds a requirement, then removes it again */
+    @Benchmark
+    public int addAndRemove() {
+        int quantity = hosts[next++ % size];
+        return plan.remove(plan.add(quantity));
+    }
+
+    /** Resizes a requirement back and forth */
+    @Benchmark
+    public int resize() {
+        int position = next++ % size;
+        int quantity = plan.hosts(position);
+        return plan.resize(plan.resize(position, quantity * 2 + 2), quantity);
+    }
+
+    /** Recalculates the whole plan, as before every calculation */
+    @Benchmark
+    public VlsmPlan replan() {
+        return VlsmPlanner.plan(PackedIPv4.pack(0x0A000000, 8), hosts);
+    }
+}
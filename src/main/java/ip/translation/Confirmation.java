@@ -27,29 +27,34 @@ class Confirmation {
     /**
      *  Method requesting user's confirmation.
      *
+     *  @param input source of the user's answer.
+     *
      *  @return boolean true, if the task
      */
-    static boolean confirmation() {
+    static boolean confirmation(Scanner input) {
         System.out.print("\t\t>>Do you wish to proceed(Y/n): ");
         agreement = false;
-        return proceed();
+        return proceed(input);
     }
 
     /**
      *  Try catch instruction, verifying the input of the user, by manipulating the {@code boolean agreement} field.
+     *  The answer is requested again, until a valid one is provided.
+     *
+     *  @param input source of the user's answer.
      *
      *  @return true, if the permission has been granted
      */
-    private static boolean proceed() {
-        try {
-            Scanner confirmation  = new Scanner(System.in);
-            String answer = confirmation.nextLine().toUpperCase();
-            agreement = permission(answer);
-        } catch (InvalidConfirmationException confirmation) {
-            System.out.print("\t\t\t>< Invalid input (Y/n): ");
-            proceed();
+    private static boolean proceed(Scanner input) {
+        while(true) {
+            try {
+                String answer = input.nextLine().toUpperCase();
+                agreement = permission(answer);
+                return agreement;
+            } catch (InvalidConfirmationException confirmation) {
+                System.out.print("\t\t\t>< Invalid input (Y/n): ");
+            }
         }
-        return agreement;
     }
 
     /**
@@ -1,5 +1,25 @@
 package ip.translation;
 
+import ip.translation.batch.BatchProcessor;
+import ip.translation.cidr.CidrAggregator;
+import ip.translation.cidr.CidrSet;
+import ip.translation.cidr.OverlapAudit;
+import ip.translation.cidr.RangeDecomposer;
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+import ip.translation.core.PackedIPv6;
+import ip.translation.lookup.Dir24Table;
+import ip.translation.lookup.RouteLoader;
+import ip.translation.lookup.RouteSnapshot;
+import ip.translation.subnet.PackingPlan;
+import ip.translation.subnet.PackingSolver;
+import ip.translation.subnet.SubnetPlan;
+import ip.translation.subnet.VlsmPlanner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 import static ip.translation.Display.*;
 import static ip.translation.ToNumberSystem.*;
@@ -49,21 +69,6 @@ class InvalidSubNetworkQuantityException extends Exception {}
  */
 class InvalidNetworkIndexException extends Exception {}
 
-/**
- *  <h1>Descending comparator</h1>
- *  Comparator, sorts in descending order.
- *
- *  @author Piotr Lis
- *  @version 1.2, 2019-12-09
- *  @since 1.8.0
- */
-class Descending implements Comparator<Integer> {
-    @Override
-    public int compare(Integer o1, Integer o2) {
-        return o2.compareTo(o1);
-    }
-}
-
 /**
  *  <h1>Console class</h1>
  *  The class provides interface for user, triggering appropriate calculations.
@@ -74,49 +79,282 @@ class Descending implements Comparator<Integer> {
  */
 public class Console {
     public static void main(String[] args) {
-        Console console = new Console();
-        console.addressesRequest();
+        if(args.length > 0) {
+            if(args[0].equals("--snapshot"))
+                snapshotMode(args);
+            else if(args[0].equals("--aggregate"))
+                aggregationMode(args);
+            else if(args[0].equals("--ranges"))
+                rangesMode(args);
+            else if(args[0].equals("--audit"))
+                auditMode(args);
+            else if(args[0].equals("--pack"))
+                packingMode(args);
+            else batchMode(args);
+            return;
+        }
+        Console console = new Console(new Scanner(System.in));
+        console.run();
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --batch [input file] (output file) - calculates every {@code address mask} or {@code address/prefix} line of the
+     *                                      input file, writing the results to the output file or standard output<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see BatchProcessor
+     */
+    private static void batchMode(String[] args) {
+        if(!args[0].equals("--batch") || args.length < 2 || args.length > 3) {
+            System.err.println("Usage: --batch <input file> [output file]");
+            return;
+        }
+        try(BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+            Writer output = output(args, 2);
+            Writer errors = new UnclosedWriter(System.err)) {
+            BatchProcessor.Summary summary = new BatchProcessor().process(input, output, errors);
+            errors.write(">> " + summary + System.lineSeparator());
+        } catch (IOException exception) {
+            System.err.println(">< Batch processing failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --snapshot [routes file] [snapshot file] - compiles {@code address/prefix value} lines of the routes file into
+     *                                            the lookup table and writes its snapshot<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see RouteSnapshot
+     */
+    private static void snapshotMode(String[] args) {
+        if(args.length != 3) {
+            System.err.println("Usage: --snapshot <routes file> <snapshot file>");
+            return;
+        }
+        try(BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII)) {
+            Dir24Table table = new Dir24Table();
+            long routes = RouteLoader.load(input, table);
+            RouteSnapshot.write(table, Paths.get(args[2]));
+            System.err.println(">> " + routes + " routes loaded, " + table.size() + " distinct, " + table.blocks() + " blocks");
+        } catch (IOException exception) {
+            System.err.println(">< Snapshot creation failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --aggregate [input file] (output file) - collapses {@code address/prefix} or {@code address mask} lines of the
+     *                                          input file into the minimal set of networks, written to the output file
+     *                                          or standard output<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see CidrAggregator
+     */
+    private static void aggregationMode(String[] args) {
+        if(args.length < 2 || args.length > 3) {
+            System.err.println("Usage: --aggregate <input file> [output file]");
+            return;
+        }
+        try(BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+            Writer output = output(args, 2)) {
+            long networks = new CidrAggregator().aggregate(input, output);
+            System.err.println(">> " + networks + " networks aggregated");
+        } catch (IOException exception) {
+            System.err.println(">< Aggregation failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --ranges [input file] (output file) - decomposes {@code start-end} lines of the input file into aligned blocks,
+     *                                       written to the output file or standard output<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see RangeDecomposer
+     */
+    private static void rangesMode(String[] args) {
+        if(args.length < 2 || args.length > 3) {
+            System.err.println("Usage: --ranges <input file> [output file]");
+            return;
+        }
+        try(BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+            Writer output = output(args, 2)) {
+            long ranges = RangeDecomposer.decompose(input, output);
+            System.err.println(">> " + ranges + " ranges decomposed");
+        } catch (IOException exception) {
+            System.err.println(">< Decomposition failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --audit [inventory file] (report file) - reports duplicate, contained and shadowed {@code address/prefix [label]}
+     *                                          records of the inventory, to the report file or standard output<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see OverlapAudit
+     */
+    private static void auditMode(String[] args) {
+        if(args.length < 2 || args.length > 3) {
+            System.err.println("Usage: --audit <inventory file> [report file]");
+            return;
+        }
+        try(BufferedReader input = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+            Writer output = output(args, 2)) {
+            OverlapAudit.Summary summary = OverlapAudit.load(input).report(output);
+            System.err.println(">> " + summary);
+        } catch (IOException exception) {
+            System.err.println(">< Audit failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Non-interactive mode, triggered by the arguments of the program:<p>
+     * --pack [parents file] [hosts file] (output file) - assigns every number of hosts of the hosts file to one of the
+     *                                                    {@code address/prefix} parent networks of the parents file,
+     *                                                    writing the subnets to the output file or standard output<p>
+     *
+     * @param args arguments of the program.
+     *
+     * @see PackingSolver
+     */
+    private static void packingMode(String[] args) {
+        if(args.length < 3 || args.length > 4) {
+            System.err.println("Usage: --pack <parents file> <hosts file> [output file]");
+            return;
+        }
+        try(BufferedReader parents = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+            BufferedReader hosts = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.US_ASCII);
+            Writer output = output(args, 3)) {
+            PackingPlan plan = new PackingSolver().solve(PackingSolver.loadParents(parents), PackingSolver.loadHosts(hosts));
+            plan.report(output);
+            System.err.println(">> " + plan);
+        } catch (IOException | IllegalArgumentException exception) {
+            System.err.println(">< Packing failed: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Opens the output of a non-interactive mode.
+     *
+     * @param args  arguments of the program
+     * @param index index of the optional output file argument
+     * @return      writer of the output file, or of the standard output if there is no such argument - flushed, but
+     *              left open when closed
+     * @throws IOException in case the file cannot be created
+     */
+    private static Writer output(String[] args, int index) throws IOException {
+        if(args.length > index)
+            return Files.newBufferedWriter(Paths.get(args[index]), StandardCharsets.US_ASCII);
+        return new UnclosedWriter(System.out);
+    }
+
+    /**
+     * Writer of a shared stream (ex. standard output), which has to outlive the writer - closing only flushes it.
+     */
+    private static final class UnclosedWriter extends FilterWriter {
+        UnclosedWriter(OutputStream stream) {
+            super(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.US_ASCII)));
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
     }
 
     /** Boolean variable, indicating if user wishes to see full binary interpretation at every step (-b parameter). */
-    static boolean fullToBinary = false;
-    /** Boolean variable indicating if the division calculations have been made. */
-    private boolean divided = false;
-    /** Boolean variable indicating if some networks have been added or deleted after the calculation. */
-    private boolean changes = false;
+    private boolean fullToBinary = false;
+    /** Boolean variable indicating if the subnetDivision sub-program is active. */
+    private boolean subnetDivision = false;
+    /** Boolean variable indicating if the user decided to exit the program. */
+    private boolean finished = false;
     /** Default IPAddress , provided by user */
     private InternetProtocolAddress IPAddress;
+    /** Source of every line provided by the user - commands, addresses and confirmations */
+    private final Scanner input;
 
-    private Console() {
-        /*addressesRequest();
-        IPAddress = new InternetProtocolAddress(true);
-        IPAddress.inputAddressAssignment("10.26.12.31", true);
-        IPAddress.inputMaskAssignment("16", true);
-        commands();*/
+    /** Division of the root network - quantities of hosts requested by the user and their networks, kept up to date. */
+    private SubnetPlan plan;
+
+    /**
+     * Constructor
+     *
+     * @param input source of the lines provided by the user, ex. standard input or a prepared script.
+     */
+    Console(Scanner input) {
+        this.input = input;
     }
 
     /**
-     * The method requests input data from user, assigns given data to {@link InternetProtocolAddress} object and starts
-     * the program.
+     * Requests the address and then processes the commands, one per line, until the user exits the program or the
+     * input is exhausted.
      */
-    private void addressesRequest() {
-        Scanner input = new Scanner(System.in);
-        IPAddress = new InternetProtocolAddress(true);
+    void run() {
+        try {
+            addressesRequest();
+            while(!finished) {
+                prompt();
+                command(input.nextLine());
+            }
+        } catch (NoSuchElementException endOfInput) {
+            System.out.println();
+        }
+    }
+
+    /** @return true, if the user decided to exit the program. */
+    boolean finished() {
+        return finished;
+    }
+
+    /**
+     * The method requests input data from user and assigns given data to {@link InternetProtocolAddress} object. Both
+     * address and mask are requested again, until valid ones are provided. Addresses containing a colon are IPv6.
+     */
+    void addressesRequest() {
         System.out.println();
 
         System.out.print("<< Address input: ");
         String address = input.nextLine();
-        IPAddress.inputAddressAssignment(address, true);
+        IPAddress = new InternetProtocolAddress(address.indexOf(':') < 0);
+        while(!IPAddress.inputAddressAssignment(address, true)) {   // Requesting another address, until a valid one is provided
+            address = input.nextLine();
+            IPAddress = new InternetProtocolAddress(address.indexOf(':') < 0);
+        }
 
         System.out.print("<< Mask input: ");
         String mask = input.nextLine();
-        IPAddress.inputMaskAssignment(mask, true);
+        while(!IPAddress.inputMaskAssignment(mask, true))           // Requesting another mask, until a valid one is provided
+            mask = input.nextLine();
+    }
 
-        commands();
+    /** Displays the data of current mode, preceding the command. */
+    void prompt() {
+        if(subnetDivision)
+            printSubnetDivisionData();
+        else print();
     }
 
     /**
-     *  Verifies the parameter of the command.
+     * Executes a single command, within the main program or the subnetDivision sub-program, whichever is active.
+     *
+     * @param line command provided by the user.
+     */
+    void command(String line) {
+        if(subnetDivision)
+            internalDivisionCommands(line.toUpperCase());
+        else commands(line.toUpperCase());
+    }
+
+    /**
+     *  Verifies the parameter of the command - binary interpretation is available for IPv4 only.
      *
      *  @param parameter parameter extracted by {@code parameterExtraction(String)} method.
      *
@@ -126,7 +364,7 @@ public class Console {
         if(parameter.equals("")) {
             fullToBinary = false;
             return true;
-        } else if(parameter.equals("B")) {
+        } else if(parameter.equals("B") && !IPAddress.isIPv6()) {
             fullToBinary = true;
             return true;
         } else return false;
@@ -164,13 +402,12 @@ public class Console {
      * SUBNETS     -   triggers the sub-program, responsible for sub network calculation<p>
      * HOSTS       -   displays number of hosts the network is able to contain<p>
      * EXIT        -   terminates the program
+     *
+     * @param input command provided by the user, in upper case.
      */
-    private void commands() {
+    private void commands(String input) {
         try {
-            print();
             if(fullToBinary) fullToBinary = false;              // Resetting indicator
-            Scanner userInput = new Scanner(System.in);
-            String input = userInput.nextLine().toUpperCase();  // Requesting input
             String parameter = parameterExtraction(input);      // Parameter extraction
 
             if(input.equals("HELP")) {
@@ -186,18 +423,14 @@ public class Console {
             } else if(input.equals("SUBNETS")) {
                 subNetworks();
             } else if(input.equals("NEW")) {
-                if (!confirmation())
+                if (!confirmation(this.input))
                     System.out.println("\t\t>< Permission to exit the program not granted.");
                 else addressesRequest();
             } else if(input.equals("HOSTS")) {
-                println("hosts", "" + (hosts(IPAddress) - 2));
+                println("hosts", hostsToText(IPAddress));
             } else if(input.equals("IP" + " -" + parameter) || (input.equals("IP"))) {     // Displays address, provided by the user
                 if(!parameterVerification(parameter))
                     throw new InvalidParameterException();
-                for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)  // Checking if needed fields exist
-                    if(currentSegment.binaryAddressSegment == null)
-                        currentSegment.binaryAddressSegment = decimalToBinary(currentSegment.segmentValue);
-
                 if(fullToBinary) {
                     printIP(IPAddress);
                     printNoIntervalFullBinaryIP((IPAddress));
@@ -205,18 +438,14 @@ public class Console {
             } else if (input.equals("MASK" + " -" + parameter) || (input.equals("MASK"))) {     // Displays mask, provided by user
                 if(!parameterVerification(parameter))
                     throw new InvalidParameterException();
-                for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)   // Checking if needed fields exist
-                    if(currentSegment.binaryMaskSegment == null)
-                        currentSegment.binaryMaskSegment = decimalToBinary(currentSegment.maskValue);
-
                 if(fullToBinary) {
                     printSubnetMask(IPAddress);
                     printFullBinarySubnetMask((IPAddress));
                 } else printSubnetMask(IPAddress);
             } else if(input.equals("EXIT")) {
-                if (!confirmation())
+                if (!confirmation(this.input))
                     System.out.println("\t\t>< Permission to exit the program not granted.");
-                else System.exit(0);
+                else finished = true;
             }
             else throw new InvalidCommandException();
         } catch (InvalidCommandException exception) {
@@ -224,7 +453,6 @@ public class Console {
         } catch (InvalidParameterException invalidParameter) {
             System.out.println("\t>< Invalid parameter, enter a valid one.");
         }
-        commands();
     }
 
     /** Displays all the commands in current range. */
@@ -248,7 +476,6 @@ public class Console {
      *  the outcome of the calculations.
      */
     private void networkAddress() {
-        getNetworkAddress(IPAddress);
         if(!fullToBinary)
             println("networkAddress", networkAddressToText(IPAddress));
         else {
@@ -273,7 +500,6 @@ public class Console {
      *  outcome of the calculations.
      */
     private void broadcastAddress() {
-        getBroadcastAddress(IPAddress);
         if(!fullToBinary)
             println("broadcast", broadcastAddressToText(IPAddress));
         else {
@@ -299,47 +525,16 @@ public class Console {
         }
     }
 
-    /**
-     *  Modifies the fields of given {@link InternetProtocolAddress} object, by operating on it's internal
-     *  {@link InternetProtocolSegment} object list i.e creating or changing the objects of the
-     *  {@link ip.translation.InternetProtocolSegment.IPv4NetworkAddressSegment} class, wherein data is processed.
-     *
-     *  @param IPAddress is the {@link InternetProtocolAddress} object, which is meant to undergo the network address
-     *                   generation process.
-     */
-    private void getNetworkAddress(InternetProtocolAddress IPAddress) {
-        for(InternetProtocolSegment current : IPAddress.addressSegments) {
-            if(current.networkAddressSegment == null)   // Checks if creating the object is needed
-                current.getNetwork();
-            else current.networkAddressSegment.networkAddressConfiguration();
-        }
-    }
-
-    /**
-     *  Analogically to the process of {@code getNetworkAddress(IPAddress)}, the method modifies the fields
-     *  of given {@link InternetProtocolAddress} object, by operating on it's internal
-     *  {@link InternetProtocolSegment} object list i.e creating or slightly changing the objects of the
-     *  {@link ip.translation.InternetProtocolSegment.IPv4BroadcastAddressSegment} class, wherein data is processed.
-     *
-     *  @param IPAddress is the {@link InternetProtocolAddress} object, which is meant to undergo the broadcast address
-     *                   generation process.
-     */
-    private void getBroadcastAddress(InternetProtocolAddress IPAddress) {
-        for(InternetProtocolSegment current : IPAddress.addressSegments) {
-            if(current.broadcastSegment == null)
-                current.getBroadcast();
-            else current.broadcastSegment.broadcastAddressConfiguration();
-        }
-    }
-
-    /** Calls the subnetDivision subprogram. */
+    /** Calls the subnetDivision subprogram - IPv4 networks only. */
     private void subNetworks() {
-        List<InternetProtocolAddress> subNetworks = new LinkedList<>();
-        List<Integer> hostQuantity = new LinkedList<>();
-        List<Integer> bitsOfMasks = new LinkedList<>();
+        if(IPAddress.isIPv6()) {
+            System.out.println("\t>< Subnet division is available for IPv4 networks only.");
+            return;
+        }
+        plan = new SubnetPlan(IPAddress.core.packed());
         System.out.println("\t>>Entering the subnetDivision sub-program...");
 
-        internalDivisionCommands(subNetworks, hostQuantity, bitsOfMasks, 0);
+        subnetDivision = true;
     }
 
     /**
@@ -347,9 +542,10 @@ public class Console {
      * the division of networks.
      * <p>
      * SUBNET CALCULATE        - calculates the networks, able to contain host quantities, provided by user<p>
-     * SUBNET [quantity] /add  - rounds given quantity up to the power of 2 and verifies if the root network is able to
-     *                            contain given number of hosts<p>
-     * SUBNET [index] /del     - removes the quantity of given index, stored in {@code hostQuantity} (requires confirmation)<p>
+     * SUBNET [quantity] /add  - verifies if the root network is able to contain given number of hosts, along with the
+     *                            networks requested so far, each rounded up to the power of 2<p>
+     * SUBNET [index] /del     - removes the quantity of given index, stored in {@code plan} (requires confirmation)<p>
+     * SUBNET [index] /resize [quantity] - changes the quantity of given index, its network stays in place if it fits<p>
      * SUBNET LIST             - prompts all the requested networks without calculating them - to show the user what has been done
      *                            and check index of the network, if the request is to delete a particular network<p>
      * NEW              - allows user to enter different address - erases all the stored data and prompts the address creation
@@ -359,137 +555,95 @@ public class Console {
      * HELP                    - displays all the commands<p>
      * SUBNET EXIT             - exits the subnet division mode (requires confirmation)<p>
      *
-     * @param subNetworks  list of {@link InternetProtocolAddress} objects, containing the data of calculated networks.
-     * @param hostQuantity list of Integers, containing quantity of hosts, the user desired, rounded up to the number
-     *                     which can be expressed as a power of two.
-     * @param masks        list of Integers, representing the number of bits in each mask of each network.
-     * @param totalHosts   total number of hosts in each calculated network.
+     * @param input command provided by the user, in upper case.
      */
-    private void internalDivisionCommands(List<InternetProtocolAddress> subNetworks, List<Integer> hostQuantity, List<Integer> masks, int totalHosts) {
+    private void internalDivisionCommands(String input) {
         try{
-            hostQuantity.sort(new Descending());
-            Collections.sort(masks);
-
-            printSubnetDivisionData();
-            Scanner command = new Scanner(System.in);
-            String input = command.nextLine().toUpperCase();
             String parameter = parameterExtraction(input);  // Extracting the parameter for future calculations and display
 
             if(input.equals("HELP")) {   // Prompts all possible commands, along with their application
                 subNetworkDivisionHelp();
             } else if(input.equals("HOSTS")) {
-                printHostsLeft(IPAddress, totalHosts);
+                printHostsLeft(IPAddress, plan.allocatedAddresses());
+            } else if(resizeCommand(input)) {
+                String[] words = input.split(" ");
+                int index = Integer.parseInt(words[1]) - 1;
+                int hosts = Integer.parseInt(words[3]);
+                if(index < 0 || index >= plan.size())
+                    throw new InvalidNetworkIndexException();
+                if(hosts <= 0 || VlsmPlanner.prefix(hosts) < IPAddress.core.prefix())
+                    throw new InvalidSubNetworkQuantityException();
+                int previous = plan.hosts(index);
+                long replans = plan.replans();
+                int position = plan.resize(index, hosts);
+                if(position < 0)
+                    throw new InvalidSubNetworkQuantityException();
+                if(plan.replans() > replans)
+                    System.out.println("\t>> Free space fragmented - the networks have been placed anew.");
+                System.out.println("\t>> The host quantity of " + previous + " has been changed to " + hosts
+                        + ", index of the network: " + (position + 1) + ".");
             } else if(input.equals("SUBNET " + quantityExtraction(input) + " /ADD")) {
                 int hosts = quantityExtraction(input);
-                hosts = currentIntegerCorrection(hosts, masks);
-                totalHosts += hosts;    // Adding new quantity to the total of all hosts
-                if((totalHosts <= hosts(IPAddress)) && (hosts > 0)) {    // Verification if the total sum of hosts does not exceed the limit
-                    if(divided) {
-                        changes = true;
-                        divided = false;
-                    }
-                    hostQuantity.add(hosts);    // Adding corrected quantity to the list
-                    System.out.println("\t>> The host quantity of " + hosts + " has been added.");
-                } else {
-                    totalHosts -= hosts;
-                    masks.remove(masks.size() - 1);
+                if(hosts <= 0 || VlsmPlanner.prefix(hosts) < IPAddress.core.prefix())
                     throw new InvalidSubNetworkQuantityException();
-                }
+                long replans = plan.replans();
+                if(plan.add(hosts) < 0)     // Verification if the total sum of hosts does not exceed the limit
+                    throw new InvalidSubNetworkQuantityException();
+                if(plan.replans() > replans)
+                    System.out.println("\t>> Free space fragmented - the networks have been placed anew.");
+                System.out.println("\t>> The host quantity of " + hosts + " has been added.");
             } else if(input.equals("SUBNET " + quantityExtraction(input) + " /DEL")) {
                 int index = quantityExtraction(input) - 1;
-                if(hostQuantity.size() >= index) {
-                    System.out.println(">> Do you really want to delete network of index " + (index + 1) + " of host quantity equal " + hostQuantity.get(index) + "?");
-                    if(confirmation()) {      // Asking user for confirmation of the action
-                        if(divided) {
-                            changes = true;
-                            divided = false;
-                        }
+                if(index >= 0 && index < plan.size()) {
+                    System.out.println(">> Do you really want to delete network of index " + (index + 1) + " of host quantity equal " + plan.hosts(index) + "?");
+                    if(confirmation(this.input)) {      // Asking user for confirmation of the action
                         System.out.println("\t>> Deleting network: ");
                         System.out.println("\t\t> Index: " + (index + 1));
-                        System.out.println("\t\t> Host quantity: " + hostQuantity.get(index));
-                        hostQuantity.remove(index);
+                        System.out.println("\t\t> Host quantity: " + plan.remove(index));
                     } else System.out.println("\t\t>< Permission to delete network not granted.");
                 } else throw new InvalidNetworkIndexException();
             } else if(input.equals("SUBNET CALCULATE"  + " -" + parameter) || input.equals("SUBNET CALCULATE")) {
                 if(!parameterVerification(parameter))
                     throw new InvalidParameterException();
-                if (hostQuantity.isEmpty())
+                if (plan.size() == 0)
                     System.out.println("\t>< Network hasn't been divided.");
                 else {
-                    if(changes) {
-                        subNetworks = new LinkedList<>();
-                        totalHosts = 0;
-                        changes = false;
-                    }
-                    parameterVerification(parameter);
-                    InternetProtocolAddress singleNetwork =     // Copying original address, so the user will be able to perform other operations on input address
-                            new InternetProtocolAddress(IPAddress);
-
-                    if(subNetworks.isEmpty()) {
-                        for (int i = 0; i <= hostQuantity.size(); i++)  // Creating an object per every single network
-                            if(i == 0) subNetworks.add(singleNetwork);
-                            else subNetworks.add(new InternetProtocolAddress(true));
-
-                        int index = 0;
-                        for (int i = 1, j = 0; i < subNetworks.size(); i++, j++) {  // Configuration of the objects
-                            subNetworks.get(i).inputMaskAssignment(masks.get(j).toString(), false);
-                            if(i == 1)
-                                subNetworks.get(i).inputAddressAssignment(networkAddressToText(subNetworks.get(j)), false);
-                            else {
-                                subNetworks.get(i).inputAddressAssignment(subNetworks.get(j).followingNetworkAddressCreation(hostQuantity.get(index)), false);
-                                index++;
-                            }
-                        }
-                    }
-                    for(InternetProtocolAddress currentAddress : subNetworks)
-                        currentAddress.addressConfiguration();
-
-                    subNetworkPresentation(IPAddress, 0);
-                    for (int i = 1; i < subNetworks.size(); i++)
-                        subNetworkPresentation(subNetworks.get(i), i);
-                    printUnreservedScope(subNetworks, hostQuantity);
-                    printHostsLeft(subNetworks.get(0), totalHosts);
-                    divided = true;
+                    subNetworkPresentation(IPAddress, 0, fullToBinary);
+                    for(int i = 0; i < plan.size(); i++)    // Subnets in the order of their addresses
+                        subNetworkPresentation(new InternetProtocolAddress(PackedIPv4.of(plan.subnet(i))), i + 1, fullToBinary);
+                    printUnreservedScope(plan);
+                    printHostsLeft(IPAddress, plan.allocatedAddresses());
+                    printUtilization(plan);
                 }
             } else if(input.equals("SUBNET LIST")) {
-                if(!hostQuantity.isEmpty()) {
-                    System.out.println("\n\t>> The network has been divided into " + hostQuantity.size() + " networks so far:");
-                    for(int i = 0; i < hostQuantity.size(); i++) {  // Simple display of networks divided so far
+                if(plan.size() > 0) {
+                    System.out.println("\n\t>> The network has been divided into " + plan.size() + " networks so far:");
+                    for(int i = 0; i < plan.size(); i++) {  // Simple display of networks divided so far
                         int index = i + 1;
-                        System.out.println("\t\t> Network of index " + index + ": " + hostQuantity.get(i) + " hosts.");
-                        System.out.println("\t\t> Subnet Mask assigned to network " + index + ": /" + masks.get(i));
+                        System.out.println("\t\t> Network of index " + index + ": " + plan.hosts(i) + " hosts.");
+                        System.out.println("\t\t> Subnet Mask assigned to network " + index + ": /" + PackedIPv4.prefix(plan.network(i)));
                         System.out.println();
                     }
-                    printHostsLeft(IPAddress, totalHosts);
+                    printHostsLeft(IPAddress, plan.allocatedAddresses());
                 } else System.out.println("\t>< Network hasn't been divided");
             } else if(input.equals("NEW")) {
-                if(confirmation()) {
-                    subNetworks = new LinkedList<>();
-                    hostQuantity = new LinkedList<>();
-                    masks = new LinkedList<>();
-                    totalHosts = 0;
-                    divided = false;
-                    changes = false;
+                if(confirmation(this.input)) {
+                    subnetDivision = false;
                     addressesRequest();
                 } else System.out.println("\t\t>< Permission to reset address not granted.");
             } else if(input.equals("SUBNET ERASE")) {
-                if(hostQuantity.isEmpty())   // Checking if the user inserted data into the program
+                if(plan.size() == 0)   // Checking if the user inserted data into the program
                     System.out.println(">< Invalid command, there is no division registered.");
                 else {
-                    if(confirmation()) {
-                        subNetworks = new LinkedList<>();
-                        hostQuantity = new LinkedList<>();
-                        masks = new LinkedList<>();
-                        totalHosts = 0;
-                        divided = false;
-                        changes = false;
+                    if(confirmation(this.input)) {
+                        plan = new SubnetPlan(IPAddress.core.packed());
                         System.out.println("\t>> Stored data erased.");
                     } else System.out.println("\t\t>< Permission to erase data not granted.");
                 }
             } else if(input.equals("EXIT")) {
-                if(!confirmation())
+                if(!confirmation(this.input))
                     System.out.println("\t\t>< Permission to exit subDivision mode not granted.");
-                else commands();
+                else subnetDivision = false;
             } else throw new InvalidCommandException();
         } catch (InvalidCommandException command) {
             System.out.println("\t>< Invalid command, type \"help\" to check the possible tasks.");
@@ -500,7 +654,19 @@ public class Console {
         } catch (InvalidParameterException parameter) {
             System.out.println("\t>< Provided parameter of the command is invalid - provide valid parameter.");
         }
-        internalDivisionCommands(subNetworks, hostQuantity, masks, totalHosts);
+    }
+
+    /**
+     * Verifies if the command resizes a network - {@code SUBNET [index] /RESIZE [quantity]}.
+     *
+     * @param input command provided by the user, in upper case.
+     *
+     * @return true if the command consists of the words of the resize command, both numbers of digits only.
+     */
+    private static boolean resizeCommand(String input) {
+        String[] words = input.split(" ", -1);
+        return words.length == 4 && words[0].equals("SUBNET") && words[2].equals("/RESIZE")
+                && words[1].matches("[0-9]{1,9}") && words[3].matches("[0-9]{1,9}");
     }
 
     /** List of all the commands in subnetDivision sub-program. */
@@ -509,6 +675,7 @@ public class Console {
         System.out.println("\tType \"help\" to see all the possible commands in this mode.");
         System.out.println("\tType \"subnet <number of hosts> /add\" to add the subnet.");
         System.out.println("\tType \"subnet <index of network> /del\" to delete the subnet.");
+        System.out.println("\tType \"subnet <index of network> /resize <number of hosts>\" to change the number of hosts of the subnet.");
         System.out.println("\tType \"subnet calculate\" to calculate the addresses of each subnet.");
         System.out.println("\tType \"subnet new\" to terminate the sub network addition process and start it once again, upon a different address.");
         System.out.println("\tType \"subnet erase\" to terminate the sub network addition process and start it once again, upon the same address.");
@@ -545,36 +712,14 @@ public class Console {
         }
         return charListToInteger(currentHostQuantity);
     }
-
-    /**
-     *  Method returns the corrected host quantity - in the form of the power of two, along with assigning the bits of mask
-     *  to the given mask.
-     *
-     *  @param hostQuantity given host quantity, yet to be rounded up.
-     *  @param masks        given list, which contains the masks of each sub network
-     *
-     *  @return Integer, storing the number, represented by the power of two, which is able to contain input given by the user
-     */
-    private int currentIntegerCorrection(int hostQuantity, List<Integer> masks) {
-        int correctedHostQuantity;
-        for(int i = 0;; i++) {
-            correctedHostQuantity = toThePower(2, i);
-            if(hostQuantity <= correctedHostQuantity - 2) {
-                if(bitsInMask(IPAddress) <= (32 - i))
-                    masks.add(32 - i);
-                break;
-            }
-        }
-        return correctedHostQuantity;
-    }
 }
 /**
  *  <h1>Display class</h1>
- *  Class consisted of methods used to display outcomes of calculations in the {@link InternetProtocolSegment} lists,
+ *  Class consisted of methods used to display outcomes of calculations upon the {@link PackedIPv4} objects,
  *  within {@link InternetProtocolAddress} objects.
  *
  *  @author Piotr Lis
- *  @version 1.2, 2019-12-09
+ *  @version 2.0, 2019-12-09
  *  @since 1.8.0
  */
 class Display {
@@ -614,7 +759,22 @@ class Display {
      * @param  IPAddress address, which will undergo calculations.
      */
     static void printNumberOfHosts(InternetProtocolAddress IPAddress) {
-        System.out.println("\tHosts . . . . . . . . : " + (hosts(IPAddress) - 2));
+        System.out.println("\tHosts . . . . . . . . : " + hostsToText(IPAddress));
+    }
+
+    /**
+     * Provides the number of hosts given address is able to contain - every address of IPv6 network, expressed as
+     * a power of 2 if it does not fit into {@code long}.
+     *
+     * @param  IPAddress address, which will undergo calculations.
+     *
+     * @return decimal number of hosts, or a power of 2 (ex. 2^64).
+     */
+    static String hostsToText(InternetProtocolAddress IPAddress) {
+        if(!IPAddress.isIPv6())
+            return "" + IPAddress.core.usableHosts();
+        long count = IPAddress.core6.addressCount();
+        return count < 0 ? "2^" + (PackedIPv6.BITS - IPAddress.core6.prefix()) : "" + count;
     }
 
     /**
@@ -625,36 +785,36 @@ class Display {
      * @return decimal representation of network address
      */
     static String networkAddressToText(InternetProtocolAddress IPAddress) {
-        StringBuilder networkAddress = new StringBuilder();
-        for(InternetProtocolSegment current : IPAddress.addressSegments) {
-            networkAddress.append(current.networkAddressSegment.networkAddressValue);
-            period(IPAddress.addressSegments, current, networkAddress);
+        if(IPAddress.isIPv6()) {
+            PackedIPv6 network = IPAddress.core6.network();
+            return PackedIPv6.toText(network.high(), network.low());
         }
-        return networkAddress.toString();
+        return PackedIPv4.toText(IPAddress.core.network());
     }
 
     /**
-     * Provides {@code broadcastAddress()} method with regular, decimal representation of broadcast address.
+     * Provides {@code broadcastAddress()} method with regular, decimal representation of broadcast address - the last
+     * address of the network in case of IPv6, which has no broadcast address.
      *
      * @param IPAddress the address providing data.
      *
      * @return decimal representation of broadcast address.
      */
     static String broadcastAddressToText(InternetProtocolAddress IPAddress) {
-        StringBuilder broadcastAddress = new StringBuilder();
-        for(InternetProtocolSegment current : IPAddress.addressSegments) {
-            broadcastAddress.append(current.broadcastSegment.broadcastValue);
-            period(IPAddress.addressSegments, current, broadcastAddress);
+        if(IPAddress.isIPv6()) {
+            PackedIPv6 last = IPAddress.core6.lastAddress();
+            return PackedIPv6.toText(last.high(), last.low());
         }
-        return broadcastAddress.toString();
+        return PackedIPv4.toText(IPAddress.core.broadcast());
     }
 
     /**
      * Displays sub networks calculated in subnet division program.
      * @param IPAddress         address to display.
      * @param subNetworkIndex   index of currently processed network
+     * @param fullToBinary      true, if binary interpretation has to be displayed as well (-b parameter)
      */
-    static void subNetworkPresentation(InternetProtocolAddress IPAddress, int subNetworkIndex) {
+    static void subNetworkPresentation(InternetProtocolAddress IPAddress, int subNetworkIndex, boolean fullToBinary) {
         int times = 1;
         if(subNetworkIndex == 0) {
             tabulation(times);
@@ -666,7 +826,7 @@ class Display {
         }
         times++;
 
-        if(!Console.fullToBinary) {
+        if(!fullToBinary) {
             tabulation(times);
             printIP(IPAddress);
 
@@ -722,16 +882,48 @@ class Display {
     }
 
     /**
-     * Displays the scope of unreserved addresses.
+     * Displays the scope of unreserved addresses - the root network without the divided ones - along with the aligned
+     * blocks it consists of.
      *
-     * @param subNetworks list of already divided networks.
-     * @param hostQuantities quantity of hosts each of these network consists of.
+     * @param plan division of the root network.
+     *
+     * @see CidrSet
      */
-    static void printUnreservedScope(List<InternetProtocolAddress> subNetworks, List<Integer> hostQuantities) {
-        String beginning = subNetworks.get(subNetworks.size() - 1).followingNetworkAddressCreation(hostQuantities.get(hostQuantities.size() -1 ));
+    static void printUnreservedScope(SubnetPlan plan) {
+        CidrSet unreserved = CidrSet.of(plan.free());
+
         System.out.println("\t>> Unreserved addresses: ");
-        System.out.println("\t\t> Start of the scope . . . : " + beginning);
-        System.out.println("\t\t> End of the scope . . . . : " + broadcastAddressToText(subNetworks.get(0)));
+        if(unreserved.isEmpty()) {     // Every address of the root network is reserved
+            System.out.println("\t\t> None");
+            return;
+        }
+        for(int i = 0; i < unreserved.intervals(); i++) {
+            System.out.println("\t\t> Start of the scope . . . : " + PackedIPv4.toText(unreserved.start(i)));
+            System.out.println("\t\t> End of the scope . . . . : " + PackedIPv4.toText(unreserved.end(i)));
+        }
+        long[] blocks = unreserved.toCidrs();
+        StringBuilder text = new StringBuilder("\t\t> Blocks . . . . . . . . : ");
+        for(int i = 0; i < blocks.length; i++) {
+            if(i > 0)
+                text.append(", ");
+            PackedIPv4.appendText(text, PackedIPv4.address(blocks[i])).append('/').append(PackedIPv4.prefix(blocks[i]));
+        }
+        System.out.println(text);
+    }
+
+    /**
+     * Displays how much of the root network the calculated networks take and how fragmented the rest of it is.
+     *
+     * @param plan division of the root network.
+     */
+    static void printUtilization(SubnetPlan plan) {
+        long allocated = plan.allocatedAddresses();
+        System.out.printf("\tUtilization. . . . . : %.2f%% of the addresses, %.2f%% of them requested as hosts%n",
+                plan.utilization() * 100, allocated == 0 ? 0 : 100.0 * plan.requestedHosts() / allocated);
+        long largest = plan.largestFree();
+        if(largest >= 0)
+            System.out.printf("\tFragmentation. . . . : %.2f%% of the free addresses outside of the largest free block, %s/%d%n",
+                    plan.fragmentation() * 100, PackedIPv4.toText(PackedIPv4.address(largest)), PackedIPv4.prefix(largest));
     }
 
     /**
@@ -740,9 +932,9 @@ class Display {
      * @param IPAddress address to be displayed.
      * @param totalHosts total quantity of hosts all the divided networks are able to contain.
      */
-    static void printHostsLeft(InternetProtocolAddress IPAddress, int totalHosts) {
-        int hosts = hosts(IPAddress);
-        int hostsLeft = hosts - totalHosts;
+    static void printHostsLeft(InternetProtocolAddress IPAddress, long totalHosts) {
+        long hosts = hosts(IPAddress);
+        long hostsLeft = hosts - totalHosts;
         System.out.println("\tHosts left. . . . . . : " + hostsLeft + " out of " + hosts);
         System.out.println("\tHosts assigned. . . . : " + (hosts - hostsLeft));
         System.out.println();
@@ -753,36 +945,22 @@ class Display {
      *
      * @param  IPAddress   address, which contains data, that will be displayed.
      *
-     * @return quantity of hosts the address consists of.
+     * @return quantity of addresses the network consists of.
      */
-    static int hosts(InternetProtocolAddress IPAddress) {
-        int powerIndex = 32 - bitsInMask(IPAddress);
-        return toThePower(2, powerIndex);
+    static long hosts(InternetProtocolAddress IPAddress) {
+        return IPAddress.core.addressCount();
     }
 
     /**
-     * Calculates and displays IPv4 addresses of first and last host of the network.
+     * Displays IPv4 addresses of first and last host of the network.
      *
      * @param  IPAddress       address, which contains data, that will be displayed - to assure versatility.
      * @param  networkIndex    index of currently processed network.
      * @param  tabulation      indicator if the tabulation should take place or not (purely visual aspect).
      */
     static void firstAndLastHost(InternetProtocolAddress IPAddress, int networkIndex, boolean tabulation) {
-        StringBuilder firstHostAddress = new StringBuilder();
-        StringBuilder lastHostAddress = new StringBuilder();
-
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            if(IPAddress.addressSegments.indexOf(currentSegment) == 3) {
-                firstHostAddress.append(currentSegment.networkAddressSegment.networkAddressValue + 1);
-                lastHostAddress.append(currentSegment.broadcastSegment.broadcastValue - 1);
-            } else {
-                firstHostAddress.append(currentSegment.networkAddressSegment.networkAddressValue);
-                period(IPAddress.addressSegments, currentSegment, firstHostAddress);
-                lastHostAddress.append(currentSegment.broadcastSegment.broadcastValue);
-                period(IPAddress.addressSegments, currentSegment, lastHostAddress);
-            }
-        }
-        printFirstAndLastHost(firstHostAddress.toString(), lastHostAddress.toString(), networkIndex, tabulation);
+        printFirstAndLastHost(PackedIPv4.toText(IPAddress.core.firstHost()),
+                PackedIPv4.toText(IPAddress.core.lastHost()), networkIndex, tabulation);
     }
 
     /**
@@ -803,194 +981,153 @@ class Display {
     }
 
     /**
-     * Iterates through segments and creates the string - the IP address.
+     * Displays the IP address along with the prefix length.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printIP(InternetProtocolAddress IPAddress) {
-        StringBuilder givenIPAddress = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            givenIPAddress.append(currentSegment.segmentValue);
-            period(IPAddress.addressSegments, currentSegment, givenIPAddress);
+        if(IPAddress.isIPv6()) {
+            StringBuilder text = PackedIPv6.appendText(new StringBuilder("\tIPv6 Address  . . . . : "),
+                    IPAddress.core6.high(), IPAddress.core6.low());
+            if(IPAddress.zone != null)
+                text.append('%').append(IPAddress.zone);
+            System.out.println(text.append('/').append(IPAddress.core6.prefix()));
+            return;
         }
-        System.out.println("\tIPv4 Address  . . . . : " + givenIPAddress.toString() + "/" + bitsInMask(IPAddress));
+        System.out.println("\tIPv4 Address  . . . . : " + PackedIPv4.toText(IPAddress.core.address()) + "/" + bitsInMask(IPAddress));
     }
 
     /**
-     * Iterates through segments and creates the string - the subnet mask address.
+     * Displays the subnet mask address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printSubnetMask(InternetProtocolAddress IPAddress) {
-        StringBuilder subnetMask = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            subnetMask.append(currentSegment.maskValue);
-            period(IPAddress.addressSegments, currentSegment, subnetMask);
+        if(IPAddress.isIPv6()) {
+            PackedIPv6 mask = IPAddress.core6.mask();
+            System.out.println("\tSubnet Mask . . . . . : " + PackedIPv6.toText(mask.high(), mask.low()));
+            return;
         }
-        System.out.println("\tSubnet Mask . . . . . : " + subnetMask.toString());
+        System.out.println("\tSubnet Mask . . . . . : " + MaskTable.dotted(IPAddress.core.prefix()));
     }
 
     /**
-     * Iterates through segments and creates the string - the negated subnet mask address.
+     * Displays the negated subnet mask address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printNOTSubnetMask(InternetProtocolAddress IPAddress) {
-        StringBuilder subnetMaskNOT = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            subnetMaskNOT.append(currentSegment.broadcastSegment.notMaskValue);
-            period(IPAddress.addressSegments, currentSegment, subnetMaskNOT);
-        }
-        System.out.println("\tNOT(Subnet Mask). . . : " + subnetMaskNOT.toString());
+        System.out.println("\tNOT(Subnet Mask). . . : " + PackedIPv4.toText(IPAddress.core.wildcard()));
     }
 
     /**
-     * Iterates through segments and creates the string - the network address.
+     * Displays the network address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printNetworkAddress(InternetProtocolAddress IPAddress) {
-        StringBuilder networkAddress = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            networkAddress.append(currentSegment.networkAddressSegment.networkAddressValue);
-            period(IPAddress.addressSegments, currentSegment, networkAddress);
-        }
-        System.out.println("\tNetwork Address . . . : " + networkAddress.toString());
+        System.out.println("\tNetwork Address . . . : " + networkAddressToText(IPAddress));
     }
 
     /**
-     * Iterates through segments and creates the string - the broadcast address.
+     * Displays the broadcast address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printBroadcast(InternetProtocolAddress IPAddress) {
-        StringBuilder broadcastAddress = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            broadcastAddress.append(currentSegment.broadcastSegment.broadcastValue);
-            period(IPAddress.addressSegments, currentSegment, broadcastAddress);
-        }
-        System.out.println("\tBroadcast Address . . : " + broadcastAddress.toString());
+        System.out.println("\tBroadcast Address . . : " + broadcastAddressToText(IPAddress));
     }
 
     /**
-     * Iterates through segments and creates the string - the binary IP address.
+     * Displays the binary IP address, separating network and host part.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printFullBinaryIP(InternetProtocolAddress IPAddress) {
-        StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)
-            binaryRepresentation.append(currentSegment.binaryAddressSegment);
-        System.out.println("\tIPv4 Address  . . . . : " + binaryStringCreation(IPAddress, binaryRepresentation));
+        System.out.println("\tIPv4 Address  . . . . : " + binaryStringCreation(IPAddress, IPAddress.core.address()));
     }
 
     /**
-     * Iterates through segments and creates the string - the binary IP address.
+     * Displays the binary IP address, separating only the octets.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printNoIntervalFullBinaryIP(InternetProtocolAddress IPAddress) {
         StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            binaryRepresentation.append(currentSegment.binaryAddressSegment);
+        for(int i = 0; i < 4; i++) {
+            binaryRepresentation.append(decimalToBinary(PackedIPv4.octet(IPAddress.core.address(), i)));
             binaryRepresentation.append("  ");
         }
         System.out.println("\tIPv4 Address  . . . . : " + binaryRepresentation.toString());
     }
 
     /**
-     * Iterates through segments and creates the string - the binary subnet mask address.
+     * Displays the binary subnet mask address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printFullBinarySubnetMask(InternetProtocolAddress IPAddress) {
-        StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)
-            binaryRepresentation.append(currentSegment.binaryMaskSegment);
-        System.out.println("\tSubnet Mask . . . . . : " + binaryStringCreation(IPAddress, binaryRepresentation));
+        System.out.println("\tSubnet Mask . . . . . : " + binaryStringCreation(IPAddress, IPAddress.core.mask()));
     }
 
     /**
-     * Iterates through segments and creates the string - the binary negated subnet mask address.
+     * Displays the binary negated subnet mask address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printFullBinaryNOTSubnetMask(InternetProtocolAddress IPAddress) {
-        StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)
-            binaryRepresentation.append(currentSegment.broadcastSegment.binaryNOTMaskSegment);
-        System.out.println("\tNOT(Subnet Mask). . . : " + binaryStringCreation(IPAddress, binaryRepresentation));
+        System.out.println("\tNOT(Subnet Mask). . . : " + binaryStringCreation(IPAddress, IPAddress.core.wildcard()));
     }
 
     /**
-     * Iterates through segments and creates the string - the binary network address.
+     * Displays the binary network address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printFullBinaryNetworkAddress(InternetProtocolAddress IPAddress) {
-        StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)
-            binaryRepresentation.append(currentSegment.networkAddressSegment.binaryNetworkAddressSegment);
-        System.out.println("\tNetwork Address . . . : " + binaryStringCreation(IPAddress, binaryRepresentation));
+        System.out.println("\tNetwork Address . . . : " + binaryStringCreation(IPAddress, IPAddress.core.network()));
     }
 
     /**
-     * Iterates through segments and creates the string - the binary broadcast address.
+     * Displays the binary broadcast address.
      *
      * @param  IPAddress address, which contains data, that will be displayed.
      */
     static void printFullBinaryBroadcast(InternetProtocolAddress IPAddress) {
-        StringBuilder binaryRepresentation = new StringBuilder();
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments)
-            binaryRepresentation.append(currentSegment.broadcastSegment.binaryBroadcastAddressSegment);
-        System.out.println("\tBroadcast Address . . : " + binaryStringCreation(IPAddress, binaryRepresentation));
+        System.out.println("\tBroadcast Address . . : " + binaryStringCreation(IPAddress, IPAddress.core.broadcast()));
     }
 
     /**
-     * Method modifies the StringBuilder object, containing 32-bit binary mask equivalent, by dividing it into 4 octets
-     * and separating address into two parts - first, indicating network and the second, indicating hosts.
+     * Method creates 32-bit binary equivalent of given value, divided into 4 octets and separated into two parts -
+     * first, indicating network and the second, indicating hosts. The only place, where binary text is built.
      *
-     * @param  IPAddress   {@link InternetProtocolAddress} object, which will undergo calculations.
-     * @param  binary      {@link StringBuilder} object, containing 32-bit string of 1 and 0 - binary equivalent of IPv4 address.
-     * @return String, result of {@code StringBuilder.toString()} after modifications.
+     * @param  IPAddress   {@link InternetProtocolAddress} object, providing the length of the prefix.
+     * @param  value       32-bit value, meant to be displayed (address, mask, network address etc.).
+     * @return String, containing 32 ones and zeroes along with separators.
      */
-    private static String binaryStringCreation(InternetProtocolAddress IPAddress, StringBuilder binary) {
+    private static String binaryStringCreation(InternetProtocolAddress IPAddress, int value) {
         int maskBits = bitsInMask(IPAddress);
 
-        int timesAppended = 0;      // Counts how many segments have been already displayed and separated
-        boolean separatorPlaced = false;    // true, if the | separator has been appended
-        for(int i = 0; i < IPAddress.validBits; i++) {
-            if((i + 1) == maskBits) {   // In case separator is required
-                binary.insert((i + 1) + (timesAppended * 2), "| ");
-                separatorPlaced = true;
-                continue;
-            }
-            if((i + 1) % 8 == 0) {  // In case the octets need to be separated
-                binary.insert((i + 1) + (timesAppended * 2) + (separatorPlaced ? 2 : 0), "  ");
-                timesAppended++;
-            }
+        StringBuilder binary = new StringBuilder(IPAddress.validBits + 12);
+        for(int i = 0; i < 4; i++) {
+            String octet = decimalToBinary(PackedIPv4.octet(value, i));
+            int separator = maskBits - 8 * i;   // Position of the network/host separator inside the octet
+            if(separator > 0 && separator < 8)  // In case separator is required inside the octet
+                binary.append(octet, 0, separator).append("| ").append(octet, separator, 8).append("  ");
+            else binary.append(octet).append(separator == 8 ? "| " : "  ");
         }
         return binary.toString();
     }
 
     /**
-     * Translates the standard mask expression into short one - the number if ones in the binary version of one.
+     * Returns the short mask expression - the number of ones in the binary version of one.
      *
      * @param IPAddress the address upon which the calculation is supposed to take place
      *
      * @return  the bits inside the mask (ex. 255.255.255.0 - 24).
      */
     static int bitsInMask(InternetProtocolAddress IPAddress) {
-        int maskBits = 0;
-        for(InternetProtocolSegment currentSegment : IPAddress.addressSegments) {
-            if(currentSegment.binaryMaskSegment == null)
-                currentSegment.binaryMaskSegment = decimalToBinary(currentSegment.maskValue);
-
-            char[] mask = currentSegment.binaryMaskSegment.toCharArray();
-            for(char current : mask)
-                if(current == '1') maskBits++;
-        }
-        return maskBits;
+        return IPAddress.isIPv6() ? IPAddress.core6.prefix() : IPAddress.core.prefix();
     }
 
     /** Simple tabulation before the output. */
@@ -998,18 +1135,4 @@ class Display {
         for(int i = 1; i <= times; i++)
             System.out.print("\t");
     }
-
-    /**
-     * The method adds a period in appropriate place, in the process of address creation, thanks to checking the index
-     * of the current segment - the dot belongs after every segment with exception of the fourth one.
-     *
-     * @param addressSegments   Full list of segments, meant to determine the index of currently processed segment.
-     * @param currentSegment    InternetProtocolSegment object, which allows to get index of the currently processed segment
-     *                          inside the function.
-     * @param address           {@code String Builder}, which contains already stored address segments.
-     */
-    private static void period(List<InternetProtocolSegment> addressSegments, InternetProtocolSegment currentSegment, StringBuilder address) {
-        if(addressSegments.indexOf(currentSegment) != addressSegments.size() - 1)
-            address.append(".");
-    }
 }
\ No newline at end of file
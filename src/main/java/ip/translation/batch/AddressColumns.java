@@ -0,0 +1,75 @@
+package ip.translation.batch;
+
+import ip.translation.core.PackedIPv4;
+
+/**
+ * Bulk of parsed addresses, stored as primitive columns - one {@code int} address
+ * and one {@code byte} prefix length per record.
+ *
+ * Created by {@link MappedAddressReader}, records are kept in input order.
+ */
+public final class AddressColumns {
+
+    /** 32-bit addresses */
+    private final int[] addresses;
+    /** Prefix lengths, 32 for records without a prefix */
+    private final byte[] prefixes;
+    /** Number of rejected lines */
+    private final long invalid;
+
+    /**
+     * Constructor
+     *
+     * @param addresses     32-bit addresses
+     * @param prefixes      prefix lengths, of the same size as addresses
+     * @param invalid       number of rejected lines
+     */
+    AddressColumns(int[] addresses, byte[] prefixes, long invalid) {
+        this.addresses = addresses;
+        this.prefixes = prefixes;
+        this.invalid = invalid;
+    }
+
+    /** @return number of records */
+    public int size() {
+        return addresses.length;
+    }
+
+    /** @return number of rejected lines */
+    public long invalid() {
+        return invalid;
+    }
+
+    /** @return 32-bit address of the record */
+    public int address(int index) {
+        return addresses[index];
+    }
+
+    /** @return prefix length of the record */
+    public int prefix(int index) {
+        return prefixes[index];
+    }
+
+    /** @return record packed the way {@link PackedIPv4} does */
+    public long packed(int index) {
+        return PackedIPv4.pack(addresses[index], prefixes[index]);
+    }
+
+    /**
+     * Direct access to the column, meant for bulk processing - the array is not copied.
+     *
+     * @return  32-bit addresses
+     */
+    public int[] addresses() {
+        return addresses;
+    }
+
+    /**
+     * Direct access to the column, meant for bulk processing - the array is not copied.
+     *
+     * @return  prefix lengths
+     */
+    public byte[] prefixes() {
+        return prefixes;
+    }
+}
@@ -0,0 +1,216 @@
+package ip.translation.batch;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Processes files of {@code address mask} or {@code address/prefix} lines, computing
+ * network, broadcast, host range and host count of each of them.
+ *
+ * Lines are read in chunks, every chunk is calculated by one of the worker threads.
+ * Results are written strictly in input order - only a limited number of chunks is
+ * in flight at once, so the memory usage does not depend on the size of the input.
+ * <p>
+ * Every valid line produces a tab separated line of output:
+ * <pre>address/prefix  network  broadcast  first host-last host  hosts</pre>
+ * Invalid lines are reported along with their number and the reason of rejection.
+ * Blank lines are skipped.
+ */
+public final class BatchProcessor {
+
+    /** Default number of lines calculated by a single task */
+    public static final int DEFAULT_CHUNK_LINES = 8192;
+
+    /** Number of worker threads */
+    private final int threads;
+    /** Number of lines calculated by a single task */
+    private final int chunkLines;
+
+    /**
+     * Constructor, using every available core.
+     */
+    public BatchProcessor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_LINES);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param threads       number of worker threads
+     * @param chunkLines    number of lines calculated by a single task
+     */
+    public BatchProcessor(int threads, int chunkLines) {
+        if(threads < 1 || chunkLines < 1)
+            throw new IllegalArgumentException("Threads and chunk size have to be positive");
+        this.threads = threads;
+        this.chunkLines = chunkLines;
+    }
+
+    /**
+     * Reads every line of the input, calculates them in parallel and writes the results in input order.
+     *
+     * @param input     source of the lines
+     * @param output    receives the results of valid lines
+     * @param errors    receives the reports of invalid lines
+     * @return          summary of the processed input
+     * @throws IOException in case reading or writing failed
+     */
+    public Summary process(BufferedReader input, Writer output, Writer errors) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        int window = threads * 2;           // Chunks calculated or waiting at once
+        long lines = 0;
+        long invalid = 0;
+
+        try {
+            boolean finished = false;
+            while(!finished) {
+                String[] chunk = new String[chunkLines];
+                int size = 0;
+                while(size < chunkLines && (chunk[size] = input.readLine()) != null)
+                    size++;
+                finished = size < chunkLines;
+
+                if(size > 0) {
+                    final long firstLine = lines + 1;
+                    final int chunkSize = size;
+                    inFlight.add(workers.submit(() -> calculate(chunk, chunkSize, firstLine)));
+                    lines += size;
+                }
+                while(!inFlight.isEmpty() && (inFlight.size() >= window || finished))
+                    invalid += write(await(inFlight.poll()), output, errors);   // Writing the oldest chunk, preserving the order
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        output.flush();
+        errors.flush();
+        return new Summary(lines, invalid);
+    }
+
+    /**
+     * Calculates a single chunk of lines. Called by the worker threads.
+     *
+     * @param lines         lines of the chunk
+     * @param size          number of lines in the chunk
+     * @param firstLine     number of the first line in the whole input
+     * @return              formatted results of the chunk
+     */
+    static Chunk calculate(String[] lines, int size, long firstLine) {
+        StringBuilder output = new StringBuilder(size * 80);
+        StringBuilder errors = new StringBuilder();
+        int invalid = 0;
+
+        for(int i = 0; i < size; i++) {
+            String line = lines[i];
+            long network = AddressAutomaton.parseNetwork(line);
+            if(network == AddressAutomaton.EMPTY)
+                continue;
+            if(!AddressAutomaton.isValid(network)) {
+                invalid++;
+                errors.append("line ").append(firstLine + i).append(": \"").append(line).append("\" - ")
+                        .append(AddressAutomaton.describe(network)).append('\n');
+                continue;
+            }
+            appendResult(output, network);
+        }
+        return new Chunk(output.toString(), errors.toString(), invalid);
+    }
+
+    /**
+     * Appends the tab separated parameters of the network.
+     *
+     * @param output    receives the result
+     * @param network   packed address and prefix
+     */
+    static void appendResult(StringBuilder output, long network) {
+        PackedIPv4.appendText(output, PackedIPv4.address(network)).append('/').append(PackedIPv4.prefix(network)).append('\t');
+        PackedIPv4.appendText(output, PackedIPv4.network(network)).append('\t');
+        PackedIPv4.appendText(output, PackedIPv4.broadcast(network)).append('\t');
+        PackedIPv4.appendText(output, PackedIPv4.firstHost(network)).append('-');
+        PackedIPv4.appendText(output, PackedIPv4.lastHost(network)).append('\t');
+        output.append(PackedIPv4.usableHosts(network)).append('\n');
+    }
+
+    /**
+     * Waits for the chunk to be calculated.
+     */
+    private static Chunk await(Future<Chunk> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch processing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch processing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes already calculated chunk.
+     *
+     * @return number of invalid lines in the chunk
+     */
+    private static int write(Chunk chunk, Writer output, Writer errors) throws IOException {
+        output.write(chunk.output);
+        errors.write(chunk.errors);
+        return chunk.invalid;
+    }
+
+    /**
+     * Formatted results of a single chunk.
+     */
+    static final class Chunk {
+        /** Results of valid lines */
+        final String output;
+        /** Reports of invalid lines */
+        final String errors;
+        /** Number of invalid lines */
+        final int invalid;
+
+        Chunk(String output, String errors, int invalid) {
+            this.output = output;
+            this.errors = errors;
+            this.invalid = invalid;
+        }
+    }
+
+    /**
+     * Summary of the processed input.
+     */
+    public static final class Summary {
+        /** Number of lines read, including blank ones */
+        private final long lines;
+        /** Number of rejected lines */
+        private final long invalid;
+
+        Summary(long lines, long invalid) {
+            this.lines = lines;
+            this.invalid = invalid;
+        }
+
+        /** @return number of lines read, including blank ones */
+        public long lines() {
+            return lines;
+        }
+
+        /** @return number of rejected lines */
+        public long invalid() {
+            return invalid;
+        }
+
+        @Override
+        public String toString() {
+            return lines + " lines processed, " + invalid + " invalid";
+        }
+    }
+}
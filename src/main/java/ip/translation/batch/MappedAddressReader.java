@@ -0,0 +1,196 @@
+package ip.translation.batch;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+import ip.translation.input.processing.ByteSequence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk ingest of address files, parsing {@code address}, {@code address/prefix} or
+ * {@code address mask} lines straight from the memory-mapped file into
+ * {@link AddressColumns}.
+ *
+ * The file is split into chunks aligned to line boundaries, every chunk is mapped
+ * and parsed by one of the worker threads through {@link AddressAutomaton}, without
+ * creating a String for any line. Blank lines are skipped, invalid lines are
+ * counted.
+ */
+public final class MappedAddressReader {
+
+    /** Default size of a single chunk */
+    public static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+    /** The shortest valid record - "0.0.0.0" followed by newline */
+    private static final int SHORTEST_RECORD = 8;
+    /** Lines longer than that are not searched for while aligning the chunks */
+    private static final int LONGEST_LINE = 1 << 16;
+
+    /** Number of worker threads */
+    private final int threads;
+    /** Size of a single chunk */
+    private final int chunkBytes;
+
+    /**
+     * Constructor, using every available core.
+     */
+    public MappedAddressReader() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param threads       number of worker threads
+     * @param chunkBytes    size of a single chunk
+     */
+    public MappedAddressReader(int threads, int chunkBytes) {
+        if(threads < 1 || chunkBytes < 1)
+            throw new IllegalArgumentException("Threads and chunk size have to be positive");
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Maps and parses the whole file.
+     *
+     * @param file  newline separated records
+     * @return      parsed records, in file order
+     * @throws IOException in case the file cannot be read or has more records than an array can hold
+     */
+    public AddressColumns read(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = boundaries(channel);
+            ExecutorService workers = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<AddressColumns>> chunks = new ArrayList<>();
+                for(int i = 0; i + 1 < boundaries.length; i++) {
+                    long from = boundaries[i];
+                    long to = boundaries[i + 1];
+                    chunks.add(workers.submit(() -> parse(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from))));
+                }
+                return merge(chunks);
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parses every line of a single mapped chunk.
+     *
+     * @param chunk     mapped bytes, starting at the beginning of a line
+     * @return          parsed records of the chunk, arrays trimmed to their size
+     */
+    static AddressColumns parse(MappedByteBuffer chunk) {
+        int length = chunk.limit();
+        int[] addresses = new int[length / SHORTEST_RECORD + 1];
+        byte[] prefixes = new byte[addresses.length];
+        ByteSequence bytes = new ByteSequence(chunk);
+        int size = 0;
+        long invalid = 0;
+
+        for(int start = 0; start < length; ) {
+            int end = start;
+            while(end < length && chunk.get(end) != '\n')
+                end++;
+
+            long record = AddressAutomaton.parseNetwork(bytes, start, end);
+            if(AddressAutomaton.isValid(record)) {
+                addresses[size] = PackedIPv4.address(record);
+                prefixes[size] = (byte) PackedIPv4.prefix(record);
+                size++;
+            } else if(record != AddressAutomaton.EMPTY)
+                invalid++;
+            start = end + 1;
+        }
+        return new AddressColumns(Arrays.copyOf(addresses, size), Arrays.copyOf(prefixes, size), invalid);
+    }
+
+    /**
+     * Splits the file into chunks of roughly {@code chunkBytes}, moving every boundary past the next newline, so no
+     * line is divided between two chunks.
+     *
+     * @return offsets of the chunks, starting with 0 and finishing with the size of the file
+     */
+    private long[] boundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        long previous = 0;
+        while(size - previous > chunkBytes) {
+            long nominal = previous + chunkBytes;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, nominal, Math.min(LONGEST_LINE, size - nominal));
+            int newline = 0;
+            while(newline < window.limit() && window.get(newline) != '\n')
+                newline++;
+            if(newline == window.limit()) {
+                if(nominal + newline < size)
+                    throw new IOException("Line longer than " + LONGEST_LINE + " bytes at offset " + nominal);
+                break;                                          // The last line, not terminated by a newline
+            }
+
+            previous = nominal + newline + 1;
+            if(previous < size)
+                boundaries.add(previous);
+        }
+        boundaries.add(size);
+
+        long[] result = new long[boundaries.size()];
+        for(int i = 0; i < result.length; i++)
+            result[i] = boundaries.get(i);
+        return result;
+    }
+
+    /**
+     * Joins parsed chunks into single columns, preserving the order.
+     */
+    private static AddressColumns merge(List<Future<AddressColumns>> chunks) throws IOException {
+        List<AddressColumns> parsed = new ArrayList<>(chunks.size());
+        long total = 0;
+        long invalid = 0;
+        for(Future<AddressColumns> chunk : chunks) {
+            AddressColumns columns = await(chunk);
+            parsed.add(columns);
+            total += columns.size();
+            invalid += columns.invalid();
+        }
+        if(total > Integer.MAX_VALUE - 8)
+            throw new IOException("Too many records for a single column: " + total);
+
+        int[] addresses = new int[(int) total];
+        byte[] prefixes = new byte[(int) total];
+        int offset = 0;
+        for(AddressColumns columns : parsed) {
+            System.arraycopy(columns.addresses(), 0, addresses, offset, columns.size());
+            System.arraycopy(columns.prefixes(), 0, prefixes, offset, columns.size());
+            offset += columns.size();
+        }
+        return new AddressColumns(addresses, prefixes, invalid);
+    }
+
+    /**
+     * Waits for the chunk to be parsed.
+     */
+    private static AddressColumns await(Future<AddressColumns> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package ip.translation.cidr;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Collapses lists of networks into the minimal equivalent set of CIDR prefixes -
+ * covering exactly the same addresses, with duplicates and covered prefixes removed
+ * and adjacent siblings merged into their parent (ex. 10.0.0.0/25 and 10.0.0.128/25
+ * into 10.0.0.0/24).
+ *
+ * The networks are sorted by address, then by prefix length, and reduced in a single
+ * pass - every network is either covered by the last kept one, or merged with it as
+ * long as both are siblings, or kept. Large inputs are sorted and reduced in parallel,
+ * by the fork-join pool: every range is reduced on its own, then joined with its
+ * neighbour, which only revisits the networks around the boundary.
+ */
+public final class CidrAggregator {
+
+    /** Default number of networks below which a range is reduced sequentially */
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    /** Number of bits the prefix length takes in a sort key */
+    private static final int PREFIX_BITS = 6;
+
+    /** Number of networks below which a range is reduced sequentially */
+    private final int threshold;
+
+    /**
+     * Constructor, using the default threshold.
+     */
+    public CidrAggregator() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param threshold number of networks below which a range is reduced sequentially
+     */
+    public CidrAggregator(int threshold) {
+        if(threshold < 1)
+            throw new IllegalArgumentException("Threshold has to be positive");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Aggregates the networks, leaving the given array untouched.
+     *
+     * @param networks  networks packed along with their prefix lengths (see {@link PackedIPv4}), host bits are ignored
+     * @return          minimal set of networks covering the same addresses, ordered by address
+     */
+    public long[] aggregate(long[] networks) {
+        long[] copy = networks.clone();
+        return Arrays.copyOf(copy, aggregate(copy, copy.length));
+    }
+
+    /**
+     * Aggregates the networks in place.
+     *
+     * @param networks  networks packed along with their prefix lengths (see {@link PackedIPv4}), host bits are ignored;
+     *                  receives the outcome at its beginning
+     * @param length    number of networks at the beginning of the array
+     * @return          number of networks of the minimal set, ordered by address
+     */
+    public int aggregate(long[] networks, int length) {
+        for(int i = 0; i < length; i++)
+            networks[i] = key(networks[i]);
+        if(length <= threshold)
+            Arrays.sort(networks, 0, length);
+        else Arrays.parallelSort(networks, 0, length);
+
+        int count = length <= threshold
+                ? reduce(networks, 0, length)
+                : ForkJoinPool.commonPool().invoke(new Reduction(networks, 0, length));
+        for(int i = 0; i < count; i++)
+            networks[i] = PackedIPv4.pack(network(networks[i]), prefix(networks[i]));
+        return count;
+    }
+
+    /**
+     * Aggregates every {@code address/prefix} or {@code address mask} line of the input, writing the outcome one
+     * {@code network/prefix} line per network. Address without a prefix stands for a single host (/32). Blank lines
+     * are skipped.
+     *
+     * @param input     source of the lines
+     * @param output    receives the aggregated networks
+     * @return          number of the networks read
+     * @throws IOException in case reading or writing failed, or a line is invalid - the message names the line and
+     *                     the reason
+     */
+    public long aggregate(BufferedReader input, Writer output) throws IOException {
+        long[] networks = new long[1024];
+        int length = 0;
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            if(line.isBlank())
+                continue;
+            long network = AddressAutomaton.parseNetwork(line, 0, line.length());
+            if(!AddressAutomaton.isValid(network))
+                throw new IOException("line " + number + ": \"" + line + "\" - " + AddressAutomaton.describe(network));
+            if(length == networks.length)
+                networks = Arrays.copyOf(networks, length * 2);
+            networks[length++] = network;
+        }
+
+        int count = aggregate(networks, length);
+        StringBuilder builder = new StringBuilder(32);
+        for(int i = 0; i < count; i++) {
+            builder.setLength(0);
+            PackedIPv4.appendText(builder, PackedIPv4.address(networks[i]))
+                    .append('/').append(PackedIPv4.prefix(networks[i])).append(System.lineSeparator());
+            output.append(builder);
+        }
+        output.flush();
+        return length;
+    }
+
+    /**
+     * Reduces sorted keys of the range, placing the outcome at its beginning.
+     *
+     * @return  number of the reduced keys
+     */
+    private static int reduce(long[] keys, int from, int to) {
+        int top = from;
+        for(int i = from; i < to; i++)
+            top = push(keys, from, top, keys[i]);
+        return top - from;
+    }
+
+    /**
+     * Joins two reduced, neighbouring ranges - the keys of the right one follow the keys of the left one, placing the
+     * outcome right after the left keys.
+     *
+     * @return  number of the joined keys
+     */
+    private static int concatenate(long[] keys, int from, int leftCount, int right, int rightCount) {
+        int top = from + leftCount;
+        int end = right + rightCount;
+        for(int i = right; i < end; i++) {
+            long key = keys[i];
+            int pushed = push(keys, from, top, key);
+            if(pushed == top + 1 && keys[top] == key) {     // Neither covered nor merged, the rest is reduced already
+                System.arraycopy(keys, i + 1, keys, pushed, end - i - 1);
+                return pushed - from + end - i - 1;
+            }
+            top = pushed;
+        }
+        return top - from;
+    }
+
+    /**
+     * Appends the key to the reduced keys {@code [from, top)} - unless the last of them covers it - merging it with
+     * the preceding siblings.
+     *
+     * @return  the following top
+     */
+    private static int push(long[] keys, int from, int top, long key) {
+        if(top > from && key >>> PREFIX_BITS <= end(keys[top - 1]))
+            return top;
+        while(top > from && siblings(keys[top - 1], key)) {
+            key = keys[top - 1] - 1;                    // Prefix length decremented, the network of the lower sibling
+            top--;
+        }
+        keys[top] = key;
+        return top + 1;
+    }
+
+    /** @return sort key of the packed network - unsigned network address followed by the prefix length */
+    private static long key(long packed) {
+        return (PackedIPv4.network(packed) & 0xFFFFFFFFL) << PREFIX_BITS | PackedIPv4.prefix(packed);
+    }
+
+    /** @return network address of the sort key */
+    private static int network(long key) {
+        return (int) (key >>> PREFIX_BITS);
+    }
+
+    /** @return prefix length of the sort key */
+    private static int prefix(long key) {
+        return (int) key & ((1 << PREFIX_BITS) - 1);
+    }
+
+    /** @return the last address of the sort key, unsigned */
+    private static long end(long key) {
+        return (key >>> PREFIX_BITS) + (1L << (PackedIPv4.BITS - prefix(key))) - 1;
+    }
+
+    /** @return true, if both keys are halves of the same network - the lower one first */
+    private static boolean siblings(long lower, long upper) {
+        int prefix = prefix(lower);
+        return prefix > 0 && prefix == prefix(upper)
+                && (lower >>> PREFIX_BITS ^ upper >>> PREFIX_BITS) == 1L << (PackedIPv4.BITS - prefix);
+    }
+
+    /**
+     * Reduces the range, splitting it in halves until they are small enough.
+     */
+    private final class Reduction extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int from;
+        private final int to;
+
+        Reduction(long[] keys, int from, int to) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if(to - from <= threshold)
+                return reduce(keys, from, to);
+            int middle = (from + to) >>> 1;
+            Reduction left = new Reduction(keys, from, middle);
+            left.fork();
+            int rightCount = new Reduction(keys, middle, to).compute();
+            int leftCount = left.join();
+            return concatenate(keys, from, leftCount, middle, rightCount);
+        }
+    }
+}
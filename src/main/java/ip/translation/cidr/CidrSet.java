@@ -0,0 +1,233 @@
+package ip.translation.cidr;
+
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of IPv4 addresses, kept as sorted, non-overlapping and non-adjacent
+ * intervals in a single primitive array - {@code [start, end)} pairs of unsigned
+ * addresses, widened to {@code long} so the end of 255.255.255.255 fits.
+ *
+ * Union, intersection and difference merge the intervals of both sets in a single
+ * pass, in time linear in their number - no matter how many prefixes the sets were
+ * built of. Complement is taken within a parent network, ex. the network an address
+ * of the console represents.
+ */
+public final class CidrSet {
+
+    /** Set without any address */
+    private static final CidrSet EMPTY = new CidrSet(new long[0]);
+
+    /** Truth table of the union, indexed by {@code inFirst * 2 + inSecond} */
+    private static final int UNION = 0b1110;
+    /** Truth table of the intersection */
+    private static final int INTERSECTION = 0b1000;
+    /** Truth table of the difference */
+    private static final int DIFFERENCE = 0b0100;
+
+    /** Boundaries of the intervals - start, then end (exclusive) of every interval, ordered by address */
+    private final long[] bounds;
+
+    /**
+     * Constructor
+     *
+     * @param bounds    boundaries of the intervals, normalized already
+     */
+    private CidrSet(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /** @return set without any address */
+    public static CidrSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates the set of every address of the networks. Networks may overlap, repeat and come in any order.
+     *
+     * @param networks  networks packed along with their prefix lengths (see {@link PackedIPv4}), host bits are ignored
+     * @return          set of the addresses
+     */
+    public static CidrSet of(long... networks) {
+        long[] aggregated = new CidrAggregator().aggregate(networks);
+        long[] bounds = new long[aggregated.length * 2];
+        int length = 0;
+        for(long network : aggregated) {
+            long start = PackedIPv4.address(network) & 0xFFFFFFFFL;
+            long end = start + PackedIPv4.addressCount(network);
+            if(length > 0 && bounds[length - 1] == start)      // Adjacent to the previous interval
+                bounds[length - 1] = end;
+            else {
+                bounds[length++] = start;
+                bounds[length++] = end;
+            }
+        }
+        return new CidrSet(Arrays.copyOf(bounds, length));
+    }
+
+    /**
+     * Creates the set of every address of the inclusive range.
+     *
+     * @param start     the first address of the range
+     * @param end       the last address of the range, not lower than the first one (unsigned)
+     * @return          set of the addresses
+     */
+    public static CidrSet range(int start, int end) {
+        if(Integer.compareUnsigned(start, end) > 0)
+            throw new IllegalArgumentException("The first address of the range follows the last one");
+        return new CidrSet(new long[] {start & 0xFFFFFFFFL, (end & 0xFFFFFFFFL) + 1});
+    }
+
+    /**
+     * @param other     another set
+     * @return          addresses of either of the sets
+     */
+    public CidrSet union(CidrSet other) {
+        return combine(other, UNION);
+    }
+
+    /**
+     * @param other     another set
+     * @return          addresses of both sets
+     */
+    public CidrSet intersection(CidrSet other) {
+        return combine(other, INTERSECTION);
+    }
+
+    /**
+     * @param other     another set
+     * @return          addresses of this set, absent in the other one
+     */
+    public CidrSet difference(CidrSet other) {
+        return combine(other, DIFFERENCE);
+    }
+
+    /**
+     * @param parent    network packed along with its prefix length, host bits are ignored
+     * @return          addresses of the parent network, absent in this set
+     */
+    public CidrSet complement(long parent) {
+        return of(parent).difference(this);
+    }
+
+    /** @return true, if the set contains no address */
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    /** @return number of addresses within the set */
+    public long addressCount() {
+        long count = 0;
+        for(int i = 0; i < bounds.length; i += 2)
+            count += bounds[i + 1] - bounds[i];
+        return count;
+    }
+
+    /** @return number of the disjoint intervals the set consists of */
+    public int intervals() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * @param index     index of the interval, within [0 - intervals) scope
+     * @return          the first address of the interval
+     */
+    public int start(int index) {
+        return (int) bounds[index * 2];
+    }
+
+    /**
+     * @param index     index of the interval, within [0 - intervals) scope
+     * @return          the last address of the interval
+     */
+    public int end(int index) {
+        return (int) (bounds[index * 2 + 1] - 1);
+    }
+
+    /**
+     * Verifies if the address belongs to the set, in logarithmic time.
+     *
+     * @param address   32-bit address
+     * @return          true, if one of the intervals contains the address
+     */
+    public boolean contains(int address) {
+        int index = Arrays.binarySearch(bounds, address & 0xFFFFFFFFL);
+        return index >= 0 ? index % 2 == 0 : (-index - 1) % 2 == 1;     // Exactly a start, or between a start and an end
+    }
+
+    /** @return boundaries of the intervals - start, then end (exclusive) of every interval; shared, not to be modified */
+    long[] bounds() {
+        return bounds;
+    }
+
+    /**
+     * Expresses the set as the minimal list of aligned blocks.
+     *
+     * @return  blocks packed along with their prefix lengths (see {@link PackedIPv4}), ordered by address
+     */
+    public long[] toCidrs() {
+        long[] blocks = new long[Math.max(16, intervals() * 2)];
+        int count = 0;
+        for(int i = 0; i < intervals(); i++) {
+            if(blocks.length - count < RangeDecomposer.MAX_BLOCKS)
+                blocks = Arrays.copyOf(blocks, blocks.length * 2 + RangeDecomposer.MAX_BLOCKS);
+            count += RangeDecomposer.decompose(start(i), end(i), blocks, count);
+        }
+        return Arrays.copyOf(blocks, count);
+    }
+
+    /**
+     * Merges the boundaries of both sets, keeping the addresses for which the truth table holds.
+     */
+    private CidrSet combine(CidrSet other, int table) {
+        long[] first = bounds;
+        long[] second = other.bounds;
+        long[] result = new long[first.length + second.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        boolean inFirst = false;
+        boolean inSecond = false;
+        boolean inside = false;
+        while(i < first.length || j < second.length) {
+            long position = Math.min(i < first.length ? first[i] : Long.MAX_VALUE,
+                    j < second.length ? second[j] : Long.MAX_VALUE);
+            if(i < first.length && first[i] == position) {
+                inFirst = !inFirst;
+                i++;
+            }
+            if(j < second.length && second[j] == position) {
+                inSecond = !inSecond;
+                j++;
+            }
+            boolean next = (table >>> ((inFirst ? 2 : 0) + (inSecond ? 1 : 0)) & 1) == 1;
+            if(next != inside) {                        // Boundary of the outcome
+                result[length++] = position;
+                inside = next;
+            }
+        }
+        return length == 0 ? EMPTY : new CidrSet(Arrays.copyOf(result, length));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CidrSet && Arrays.equals(((CidrSet) other).bounds, bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for(long block : toCidrs()) {
+            if(builder.length() > 1)
+                builder.append(", ");
+            PackedIPv4.appendText(builder, PackedIPv4.address(block)).append('/').append(PackedIPv4.prefix(block));
+        }
+        return builder.append(']').toString();
+    }
+}
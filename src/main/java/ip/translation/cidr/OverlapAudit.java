@@ -0,0 +1,282 @@
+package ip.translation.cidr;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Finds conflicts within an inventory of subnets - records holding a network and an
+ * optional label. Two CIDR networks either are disjoint or one of them contains the
+ * other, so every conflict is one of:
+ * <pre>
+ * duplicate  the same network recorded again, paired with its first record
+ * contained  a network within another one, paired with every distinct network containing it
+ * shadowed   a network whose every address belongs to the networks within it
+ * </pre>
+ * The records are sorted by address, then by prefix length, and swept once - a stack
+ * holds the networks containing the current one, at most 33 of them - so the audit
+ * takes O(n log n) time, plus the time of reporting the conflicts. Records are kept
+ * in primitive arrays, labels in a single shared buffer.
+ */
+public final class OverlapAudit {
+
+    /** Maximal number of records */
+    public static final int MAX_RECORDS = 1 << 26;
+
+    /** Number of bits the index of the record takes in a sort key */
+    private static final int INDEX_BITS = 26;
+    /** Number of bits the prefix length takes in a sort key */
+    private static final int PREFIX_BITS = 6;
+
+    /**
+     * Kind of the conflict.
+     */
+    public enum Conflict {
+        DUPLICATE, CONTAINED, SHADOWED
+    }
+
+    /**
+     * Receives the conflicts, in the order of the addresses of the records.
+     */
+    public interface Listener {
+        /**
+         * @param conflict  kind of the conflict
+         * @param outer     index of the containing record, the first one of duplicates, or the shadowed one
+         * @param inner     index of the contained record or of the duplicate, -1 for shadowed records
+         * @throws IOException in case reporting the conflict failed
+         */
+        void conflict(Conflict conflict, int outer, int inner) throws IOException;
+    }
+
+    /** Networks of the records, packed along with their prefix lengths */
+    private long[] networks = new long[1024];
+    /** End of the label of every record within the buffer - the label starts where the previous one ends */
+    private int[] labelEnds = new int[1024];
+    /** Labels of all the records, one after another */
+    private char[] labels = new char[4096];
+    /** Number of records */
+    private int size;
+
+    /**
+     * Reads every {@code address/prefix [label]} line of the input. Address without a prefix stands for a single host
+     * (/32). Blank lines are skipped.
+     *
+     * @param input     source of the lines
+     * @return          audit of the records
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    public static OverlapAudit load(BufferedReader input) throws IOException {
+        OverlapAudit audit = new OverlapAudit();
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            int from = 0;
+            while(from < line.length() && Character.isWhitespace(line.charAt(from)))
+                from++;
+            if(from == line.length())
+                continue;
+            int to = from;
+            while(to < line.length() && !Character.isWhitespace(line.charAt(to)))
+                to++;
+
+            long network = AddressAutomaton.parseNetwork(line, from, to);
+            if(!AddressAutomaton.isValid(network))
+                throw new IOException("line " + number + ": \"" + line + "\" - " + AddressAutomaton.describe(network));
+            if(audit.size == MAX_RECORDS)
+                throw new IOException("line " + number + ": \"" + line + "\" - Inventory exceeds " + MAX_RECORDS + " records.");
+            audit.add(network, line.substring(to).trim());
+        }
+        return audit;
+    }
+
+    /**
+     * Adds the record.
+     *
+     * @param network   network packed along with its prefix length (see {@link PackedIPv4}), host bits are ignored
+     * @param label     label of the record, empty if there is none
+     * @return          index of the record
+     */
+    public int add(long network, String label) {
+        if(size == MAX_RECORDS)
+            throw new IllegalStateException("Inventory exceeds " + MAX_RECORDS + " records");
+        if(size == networks.length) {
+            networks = Arrays.copyOf(networks, size * 2);
+            labelEnds = Arrays.copyOf(labelEnds, size * 2);
+        }
+        int start = size == 0 ? 0 : labelEnds[size - 1];
+        if(start + label.length() > labels.length)
+            labels = Arrays.copyOf(labels, Math.max(labels.length * 2, start + label.length()));
+        label.getChars(0, label.length(), labels, start);
+
+        networks[size] = PackedIPv4.pack(PackedIPv4.network(network), PackedIPv4.prefix(network));
+        labelEnds[size] = start + label.length();
+        return size++;
+    }
+
+    /** @return number of records */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index     index of the record
+     * @return          network of the record, packed along with its prefix length
+     */
+    public long network(int index) {
+        return networks[index];
+    }
+
+    /**
+     * @param index     index of the record
+     * @return          label of the record, empty if there is none
+     */
+    public String label(int index) {
+        int start = index == 0 ? 0 : labelEnds[index - 1];
+        return new String(labels, start, labelEnds[index] - start);
+    }
+
+    /**
+     * Sweeps the records, passing every conflict to the listener.
+     *
+     * @param listener  receives the conflicts
+     * @return          numbers of the conflicts
+     * @throws IOException in case the listener failed
+     */
+    public Summary audit(Listener listener) throws IOException {
+        long[] order = new long[size];
+        for(int i = 0; i < size; i++)      // Sign bit flipped, so the signed order is the order of unsigned addresses
+            order[i] = (((PackedIPv4.address(networks[i]) & 0xFFFFFFFFL) << PREFIX_BITS | PackedIPv4.prefix(networks[i]))
+                    << INDEX_BITS | i) ^ Long.MIN_VALUE;
+        Arrays.parallelSort(order);
+
+        int[] stack = new int[PackedIPv4.BITS + 1];
+        long[] ends = new long[PackedIPv4.BITS + 1];
+        long[] covered = new long[PackedIPv4.BITS + 1];
+        int depth = 0;
+        long duplicates = 0;
+        long contained = 0;
+        long shadowed = 0;
+        for(long key : order) {
+            int index = (int) key & (MAX_RECORDS - 1);
+            long start = PackedIPv4.address(networks[index]) & 0xFFFFFFFFL;
+            long end = start + PackedIPv4.addressCount(networks[index]);
+            while(depth > 0 && ends[depth - 1] <= start) {      // Networks ending before the current one
+                depth--;
+                if(shadowed(stack[depth], covered[depth])) {
+                    listener.conflict(Conflict.SHADOWED, stack[depth], -1);
+                    shadowed++;
+                }
+            }
+
+            if(depth > 0 && networks[stack[depth - 1]] == networks[index]) {
+                listener.conflict(Conflict.DUPLICATE, stack[depth - 1], index);
+                duplicates++;
+                continue;
+            }
+            for(int i = 0; i < depth; i++)
+                listener.conflict(Conflict.CONTAINED, stack[i], index);
+            contained += depth;
+            if(depth > 0)
+                covered[depth - 1] += end - start;        // Children of a network never overlap each other
+
+            stack[depth] = index;
+            ends[depth] = end;
+            covered[depth++] = 0;
+        }
+        while(depth > 0) {
+            depth--;
+            if(shadowed(stack[depth], covered[depth])) {
+                listener.conflict(Conflict.SHADOWED, stack[depth], -1);
+                shadowed++;
+            }
+        }
+        return new Summary(size, duplicates, contained, shadowed);
+    }
+
+    /**
+     * Sweeps the records, writing one tab separated line per conflict - its kind, then the records:
+     * <pre>contained  10.0.0.0/16 label  10.0.1.0/24 label</pre>
+     *
+     * @param output    receives the report
+     * @return          numbers of the conflicts
+     * @throws IOException in case writing failed
+     */
+    public Summary report(Writer output) throws IOException {
+        StringBuilder builder = new StringBuilder(128);
+        String separator = System.lineSeparator();
+        Summary summary = audit((conflict, outer, inner) -> {
+            builder.setLength(0);
+            builder.append(conflict.name().toLowerCase()).append('\t');
+            appendRecord(builder, outer);
+            if(inner >= 0)
+                appendRecord(builder.append('\t'), inner);
+            output.append(builder.append(separator));
+        });
+        output.flush();
+        return summary;
+    }
+
+    private void appendRecord(StringBuilder builder, int index) {
+        PackedIPv4.appendText(builder, PackedIPv4.address(networks[index])).append('/').append(PackedIPv4.prefix(networks[index]));
+        int start = index == 0 ? 0 : labelEnds[index - 1];
+        if(labelEnds[index] > start)
+            builder.append(' ').append(labels, start, labelEnds[index] - start);
+    }
+
+    /** @return true, if the networks within the record cover all of its addresses */
+    private boolean shadowed(int index, long covered) {
+        return covered == PackedIPv4.addressCount(networks[index]);
+    }
+
+    /**
+     * Numbers of the records and of the conflicts.
+     */
+    public static final class Summary {
+        /** Number of audited records */
+        private final long records;
+        /** Number of duplicate records */
+        private final long duplicates;
+        /** Number of pairs of containing and contained networks */
+        private final long contained;
+        /** Number of shadowed records */
+        private final long shadowed;
+
+        Summary(long records, long duplicates, long contained, long shadowed) {
+            this.records = records;
+            this.duplicates = duplicates;
+            this.contained = contained;
+            this.shadowed = shadowed;
+        }
+
+        /** @return number of audited records */
+        public long records() {
+            return records;
+        }
+
+        /** @return number of duplicate records */
+        public long duplicates() {
+            return duplicates;
+        }
+
+        /** @return number of pairs of containing and contained networks */
+        public long contained() {
+            return contained;
+        }
+
+        /** @return number of shadowed records */
+        public long shadowed() {
+            return shadowed;
+        }
+
+        @Override
+        public String toString() {
+            return records + " records audited, " + duplicates + " duplicates, " + contained + " contained, "
+                    + shadowed + " shadowed";
+        }
+    }
+}
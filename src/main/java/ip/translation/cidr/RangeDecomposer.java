@@ -0,0 +1,130 @@
+package ip.translation.cidr;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Utility class, turning inclusive address ranges into the minimal list of aligned
+ * CIDR blocks (ex. 10.0.0.1 - 10.0.0.6 into 10.0.0.1/32, 10.0.0.2/31, 10.0.0.4/31,
+ * 10.0.0.6/32).
+ *
+ * Every block is the largest one starting at the current address - limited by its
+ * alignment and by the remaining length of the range - so the range is decomposed
+ * in a single pass, without allocating anything but the outcome.
+ */
+public final class RangeDecomposer {
+
+    /** Maximal number of blocks a single range decomposes into */
+    public static final int MAX_BLOCKS = 2 * (PackedIPv4.BITS - 1);
+
+    /**
+     * Constructor
+     */
+    private RangeDecomposer() {}
+
+    /**
+     * Decomposes the range.
+     *
+     * @param start     the first address of the range
+     * @param end       the last address of the range, not lower than the first one (unsigned)
+     * @return          blocks packed along with their prefix lengths (see {@link PackedIPv4}), ordered by address
+     */
+    public static long[] decompose(int start, int end) {
+        long[] blocks = new long[MAX_BLOCKS];
+        return Arrays.copyOf(blocks, decompose(start, end, blocks, 0));
+    }
+
+    /**
+     * Decomposes the range into given array.
+     *
+     * @param start     the first address of the range
+     * @param end       the last address of the range, not lower than the first one (unsigned)
+     * @param blocks    receives the blocks packed along with their prefix lengths, ordered by address - at most
+     *                  {@code MAX_BLOCKS} of them
+     * @param offset    index of the first block within the array
+     * @return          number of the blocks
+     */
+    public static int decompose(int start, int end, long[] blocks, int offset) {
+        long current = start & 0xFFFFFFFFL;
+        long last = end & 0xFFFFFFFFL;
+        if(current > last)
+            throw new IllegalArgumentException("The first address of the range follows the last one");
+
+        int count = 0;
+        while(current <= last) {
+            int size = current == 0 ? PackedIPv4.BITS : Long.numberOfTrailingZeros(current);   // Bounded by the alignment
+            size = Math.min(size, 63 - Long.numberOfLeadingZeros(last - current + 1));      // Bounded by the remaining length
+            blocks[offset + count++] = PackedIPv4.pack((int) current, PackedIPv4.BITS - size);
+            current += 1L << size;
+        }
+        return count;
+    }
+
+    /**
+     * Decomposes every {@code start-end} or {@code start end} line of the input (ex. {@code 10.0.0.1 - 10.0.0.6}),
+     * writing its blocks one {@code network/prefix} line per block, in input order. Blank lines are skipped. Nothing
+     * but a single range is held in memory, regardless of the size of the input.
+     *
+     * @param input     source of the lines
+     * @param output    receives the blocks
+     * @return          number of the decomposed ranges
+     * @throws IOException in case reading or writing failed, or a line is invalid - the message names the line and
+     *                     the reason
+     */
+    public static long decompose(BufferedReader input, Writer output) throws IOException {
+        long[] blocks = new long[MAX_BLOCKS];
+        StringBuilder builder = new StringBuilder(MAX_BLOCKS * 20);
+        String separator = System.lineSeparator();
+        long ranges = 0;
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            if(line.isBlank())
+                continue;
+            int split = split(line);
+            long start = split < 0 ? AddressAutomaton.EMPTY : AddressAutomaton.parseAddress(line, 0, split);
+            long end = split < 0 ? AddressAutomaton.EMPTY : AddressAutomaton.parseAddress(line, split + 1, line.length());
+            String reason = null;
+            if(split < 0)
+                reason = "Range has to consist of the first and the last address.";
+            else if(!AddressAutomaton.isValid(start) || !AddressAutomaton.isValid(end))
+                reason = AddressAutomaton.describe(AddressAutomaton.isValid(start) ? end : start);
+            else if(Integer.compareUnsigned(PackedIPv4.address(start), PackedIPv4.address(end)) > 0)
+                reason = "The first address of the range follows the last one.";
+            if(reason != null)
+                throw new IOException("line " + number + ": \"" + line + "\" - " + reason);
+
+            int count = decompose(PackedIPv4.address(start), PackedIPv4.address(end), blocks, 0);
+            builder.setLength(0);
+            for(int i = 0; i < count; i++)
+                PackedIPv4.appendText(builder, PackedIPv4.address(blocks[i]))
+                        .append('/').append(PackedIPv4.prefix(blocks[i])).append(separator);
+            output.append(builder);
+            ranges++;
+        }
+        output.flush();
+        return ranges;
+    }
+
+    /**
+     * @return index of the dash separating the addresses, or of the whitespace following the first one; -1 if there
+     *         is none
+     */
+    private static int split(String line) {
+        int dash = line.indexOf('-');
+        if(dash >= 0)
+            return dash;
+        int from = 0;
+        while(from < line.length() && Character.isWhitespace(line.charAt(from)))
+            from++;
+        while(from < line.length() && !Character.isWhitespace(line.charAt(from)))
+            from++;
+        return from < line.length() ? from : -1;
+    }
+}
@@ -0,0 +1,260 @@
+package ip.translation.cidr;
+
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Immutable interval index over stored subnets, answering containment and overlap
+ * queries - subnets containing an address, subnets within a network, subnets
+ * overlapping a range - and searching the nearest free blocks around an address.
+ *
+ * Subnets are kept as primitive columns - network and broadcast address of each,
+ * sorted by network address, then by prefix length. An implicit tree over buckets
+ * of 64 positions holds the maximal broadcast address below each node, so a query
+ * skips every subtree without a match and descends a separate path to each match:
+ * O(min(n, k log n)) for k matches. Free blocks are searched within the union of
+ * the subnets, a {@link CidrSet}.
+ * <p>
+ * Large results are paged - every query fills the given array with positions of
+ * the matches, in index order, starting at the cursor. A full page may be followed
+ * by another one, starting at the cursor {@code page[count - 1] + 1}; a page with
+ * fewer matches is the last one. Safe for concurrent queries.
+ */
+public final class SubnetIndex {
+
+    /** Maximal number of subnets */
+    public static final int MAX_SUBNETS = 1 << 26;
+
+    /** Number of positions summarized by a leaf of the tree */
+    private static final int BUCKET = 64;
+    /** Number of bits the index of the subnet takes in a sort key */
+    private static final int INDEX_BITS = 26;
+    /** Number of bits the prefix length takes in a sort key */
+    private static final int PREFIX_BITS = 6;
+
+    /** Subnets, packed along with their prefix lengths, in index order */
+    private final long[] networks;
+    /** Index of every subnet within the array the index was built of */
+    private final int[] ids;
+    /** Network address of every subnet, unsigned */
+    private final long[] starts;
+    /** Broadcast address of every subnet, unsigned */
+    private final long[] ends;
+    /** Maximal broadcast address below every node - root at 1, children of node i at 2i and 2i + 1 */
+    private final long[] maxEnds;
+    /** Number of leaves of the tree, power of two */
+    private final int leaves;
+    /** Addresses of all the subnets */
+    private final CidrSet occupied;
+
+    /**
+     * Constructor
+     *
+     * @param networks  subnets, sorted already
+     * @param ids       index of every subnet within the array the index was built of
+     */
+    private SubnetIndex(long[] networks, int[] ids) {
+        this.networks = networks;
+        this.ids = ids;
+        starts = new long[networks.length];
+        ends = new long[networks.length];
+        for(int i = 0; i < networks.length; i++) {
+            starts[i] = PackedIPv4.network(networks[i]) & 0xFFFFFFFFL;
+            ends[i] = PackedIPv4.broadcast(networks[i]) & 0xFFFFFFFFL;
+        }
+
+        int buckets = (networks.length + BUCKET - 1) / BUCKET;
+        leaves = Integer.highestOneBit(Math.max(1, buckets * 2 - 1));
+        maxEnds = new long[leaves * 2];
+        Arrays.fill(maxEnds, -1);
+        for(int i = 0; i < networks.length; i++)
+            maxEnds[leaves + i / BUCKET] = Math.max(maxEnds[leaves + i / BUCKET], ends[i]);
+        for(int node = leaves - 1; node > 0; node--)
+            maxEnds[node] = Math.max(maxEnds[node * 2], maxEnds[node * 2 + 1]);
+        occupied = CidrSet.of(networks);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param networks  subnets packed along with their prefix lengths (see {@link PackedIPv4}), host bits are ignored;
+     *                  they may overlap and repeat
+     * @return          index of the subnets
+     */
+    public static SubnetIndex of(long... networks) {
+        if(networks.length > MAX_SUBNETS)
+            throw new IllegalArgumentException("Index exceeds " + MAX_SUBNETS + " subnets");
+        long[] order = new long[networks.length];
+        for(int i = 0; i < networks.length; i++)     // Sign bit flipped, so the signed order is the order of unsigned addresses
+            order[i] = (((PackedIPv4.network(networks[i]) & 0xFFFFFFFFL) << PREFIX_BITS | PackedIPv4.prefix(networks[i]))
+                    << INDEX_BITS | i) ^ Long.MIN_VALUE;
+        Arrays.parallelSort(order);
+
+        long[] sorted = new long[networks.length];
+        int[] ids = new int[networks.length];
+        for(int i = 0; i < order.length; i++) {
+            ids[i] = (int) order[i] & (MAX_SUBNETS - 1);
+            sorted[i] = PackedIPv4.pack(PackedIPv4.network(networks[ids[i]]), PackedIPv4.prefix(networks[ids[i]]));
+        }
+        return new SubnetIndex(sorted, ids);
+    }
+
+    /** @return number of subnets */
+    public int size() {
+        return networks.length;
+    }
+
+    /**
+     * @param position  position of the subnet within the index
+     * @return          subnet packed along with its prefix length, host bits cleared
+     */
+    public long network(int position) {
+        return networks[position];
+    }
+
+    /**
+     * @param position  position of the subnet within the index
+     * @return          index of the subnet within the array the index was built of
+     */
+    public int id(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Finds the subnets containing the address.
+     *
+     * @param address   32-bit address
+     * @param cursor    position the page starts at, 0 for the first page
+     * @param page      receives the positions of the matches
+     * @return          number of the matches within the page
+     */
+    public int containing(int address, int cursor, int[] page) {
+        return overlapping(address, address, cursor, page);
+    }
+
+    /**
+     * Finds the subnets sharing at least a single address with the inclusive range.
+     *
+     * @param start     the first address of the range
+     * @param end       the last address of the range, not lower than the first one (unsigned)
+     * @param cursor    position the page starts at, 0 for the first page
+     * @param page      receives the positions of the matches
+     * @return          number of the matches within the page
+     */
+    public int overlapping(int start, int end, int cursor, int[] page) {
+        if(Integer.compareUnsigned(start, end) > 0)
+            throw new IllegalArgumentException("The first address of the range follows the last one");
+        int to = upperBound(end & 0xFFFFFFFFL);         // Subnets starting within or before the range
+        return collect(1, 0, leaves, cursor, to, start & 0xFFFFFFFFL, page, 0);
+    }
+
+    /**
+     * Finds the subnets within the network, including the network itself.
+     *
+     * @param network   network packed along with its prefix length, host bits are ignored
+     * @param cursor    position the page starts at, 0 for the first page
+     * @param page      receives the positions of the matches
+     * @return          number of the matches within the page
+     */
+    public int within(long network, int cursor, int[] page) {
+        long end = PackedIPv4.broadcast(network) & 0xFFFFFFFFL;
+        int to = upperBound(end);
+        int count = 0;
+        for(int i = Math.max(cursor, upperBound((PackedIPv4.network(network) & 0xFFFFFFFFL) - 1)); i < to && count < page.length; i++)
+            if(ends[i] <= end)      // Only networks containing the given one end beyond it
+                page[count++] = i;
+        return count;
+    }
+
+    /**
+     * Finds the nearest free block - sharing no address with any subnet - at or after the address.
+     *
+     * @param address   32-bit address, the search starts at the first block beginning at or after it
+     * @param prefix    prefix length of the block, within [0 - 32] scope
+     * @return          the block packed along with its prefix length, -1 if there is none
+     */
+    public long nextFree(int address, int prefix) {
+        long size = PackedIPv4.addressCount(PackedIPv4.pack(0, prefix));
+        long candidate = ((address & 0xFFFFFFFFL) + size - 1) & -size;
+        long[] bounds = occupied.bounds();
+        int interval = firstEnding(bounds, candidate);
+        while(candidate + size <= 1L << PackedIPv4.BITS) {
+            while(interval * 2 < bounds.length && bounds[interval * 2 + 1] <= candidate)
+                interval++;
+            if(interval * 2 == bounds.length || bounds[interval * 2] >= candidate + size)
+                return PackedIPv4.pack((int) candidate, prefix);
+            candidate = (bounds[interval * 2 + 1] + size - 1) & -size;      // The first aligned block after the interval
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the nearest free block - sharing no address with any subnet - at or before the address.
+     *
+     * @param address   32-bit address, the search starts at the block containing it
+     * @param prefix    prefix length of the block, within [0 - 32] scope
+     * @return          the block packed along with its prefix length, -1 if there is none
+     */
+    public long previousFree(int address, int prefix) {
+        long size = PackedIPv4.addressCount(PackedIPv4.pack(0, prefix));
+        long candidate = (address & 0xFFFFFFFFL) & -size;
+        long[] bounds = occupied.bounds();
+        int interval = Math.min(firstEnding(bounds, candidate + size), bounds.length / 2 - 1);    // Overlapping the block or preceding it
+        while(candidate >= 0) {
+            while(interval >= 0 && bounds[interval * 2] >= candidate + size)
+                interval--;
+            if(interval < 0 || bounds[interval * 2 + 1] <= candidate)
+                return PackedIPv4.pack((int) candidate, prefix);
+            candidate = (bounds[interval * 2] & -size) - size;              // The last aligned block before the interval
+        }
+        return -1;
+    }
+
+    /**
+     * Collects positions within {@code [from, to)} ending at or after the threshold, in order, visiting only the
+     * subtrees holding any.
+     *
+     * @return  number of the positions within the page
+     */
+    private int collect(int node, int nodeFrom, int nodeTo, int from, int to, long threshold, int[] page, int count) {
+        if(count == page.length || maxEnds[node] < threshold || nodeTo * BUCKET <= from || nodeFrom * BUCKET >= to)
+            return count;
+        if(node >= leaves) {
+            int end = Math.min(nodeTo * BUCKET, to);
+            for(int i = Math.max(nodeFrom * BUCKET, from); i < end && count < page.length; i++)
+                if(ends[i] >= threshold)
+                    page[count++] = i;
+            return count;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        count = collect(node * 2, nodeFrom, middle, from, to, threshold, page, count);
+        return collect(node * 2 + 1, middle, nodeTo, from, to, threshold, page, count);
+    }
+
+    /** @return the first position of the subnet starting after the address */
+    private int upperBound(long address) {
+        int low = 0;
+        int high = starts.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(starts[middle] <= address)
+                low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /** @return index of the first interval ending after the address, the number of the intervals if there is none */
+    private static int firstEnding(long[] bounds, long address) {
+        int low = 0;
+        int high = bounds.length / 2;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(bounds[middle * 2 + 1] <= address)
+                low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
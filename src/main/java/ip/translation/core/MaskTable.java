@@ -0,0 +1,86 @@
+package ip.translation.core;
+
+/**
+ * <h1>MaskTable class</h1>
+ * Canonical table of all 33 IPv4 prefix lengths - for every length it stores the subnet mask, the wildcard (negated
+ * mask), the number of addresses assignable to hosts and the dotted-decimal text of the mask.
+ * <p>
+ * The table is built once, when the class is loaded, every caller shares it, so none of the values is ever derived
+ * again. Dotted masks are resolved back to their prefix length in constant time, rejecting non-contiguous masks.
+ */
+public final class MaskTable {
+    /** Returned by {@code prefixOf(int)} in case given mask is not contiguous */
+    public static final int NOT_CONTIGUOUS = -1;
+
+    /** Subnet masks, indexed by prefix length */
+    private static final int[] MASKS = new int[PackedIPv4.BITS + 1];
+    /** Negated subnet masks, indexed by prefix length */
+    private static final int[] WILDCARDS = new int[PackedIPv4.BITS + 1];
+    /** Number of addresses assignable to hosts, indexed by prefix length */
+    private static final long[] USABLE_HOSTS = new long[PackedIPv4.BITS + 1];
+    /** Dotted-decimal text of subnet masks, indexed by prefix length */
+    private static final String[] DOTTED = new String[PackedIPv4.BITS + 1];
+
+    static {
+        for(int prefix = 0; prefix <= PackedIPv4.BITS; prefix++) {
+            int mask = prefix == 0 ? 0 : -1 << (PackedIPv4.BITS - prefix);
+            long addresses = 1L << (PackedIPv4.BITS - prefix);
+
+            MASKS[prefix] = mask;
+            WILDCARDS[prefix] = ~mask;
+            USABLE_HOSTS[prefix] = addresses <= 2 ? addresses : addresses - 2;    // /31 and /32 have no network and broadcast address
+            DOTTED[prefix] = PackedIPv4.toText(mask);
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    private MaskTable() {}
+
+    /**
+     * @param prefix    prefix length within [0 - 32] scope
+     * @return          subnet mask (ex. 24 - 0xFFFFFF00)
+     */
+    public static int mask(int prefix) {
+        return MASKS[prefix];
+    }
+
+    /**
+     * @param prefix    prefix length within [0 - 32] scope
+     * @return          negated subnet mask (ex. 24 - 0x000000FF)
+     */
+    public static int wildcard(int prefix) {
+        return WILDCARDS[prefix];
+    }
+
+    /**
+     * @param prefix    prefix length within [0 - 32] scope
+     * @return          number of addresses assignable to hosts (ex. 24 - 254)
+     */
+    public static long usableHosts(int prefix) {
+        return USABLE_HOSTS[prefix];
+    }
+
+    /**
+     * @param prefix    prefix length within [0 - 32] scope
+     * @return          subnet mask expressed as text (ex. 24 - 255.255.255.0)
+     */
+    public static String dotted(int prefix) {
+        return DOTTED[prefix];
+    }
+
+    /**
+     * Resolves the subnet mask to the length of its prefix. The mask is contiguous only if its negation, increased
+     * by one, is a power of two - the ones have to form a single block at the beginning of the mask.
+     *
+     * @param mask  32-bit subnet mask (ex. 0xFFFFFF00)
+     * @return      prefix length, {@code NOT_CONTIGUOUS} if the ones are not contiguous (ex. 255.0.255.0)
+     */
+    public static int prefixOf(int mask) {
+        int wildcard = ~mask;
+        if((wildcard & (wildcard + 1)) != 0)
+            return NOT_CONTIGUOUS;
+        return Integer.bitCount(mask);
+    }
+}
@@ -0,0 +1,265 @@
+package ip.translation.core;
+
+/**
+ * <h1>PackedIPv4 class</h1>
+ * Immutable IPv4 address along with the length of its prefix, packed into a single {@code long} - the lower 32 bits
+ * hold the address, the bits above them hold the prefix length.
+ * <p>
+ * Every derived value (mask, wildcard, network, broadcast, first and last host, host count) is a single bitwise
+ * operation upon the packed value or a lookup in the {@link MaskTable}, so nothing besides the object itself is ever
+ * allocated. Bulk code is able to skip the object as well - the static methods operate directly on the packed
+ * {@code long}.
+ */
+public final class PackedIPv4 implements Comparable<PackedIPv4> {
+    /** Number of bits each IPv4 address consists of */
+    public static final int BITS = 32;
+
+    /** Address in the lower 32 bits, prefix length above them */
+    private final long packed;
+
+    /**
+     * Constructor
+     *
+     * @param packed value created by {@code pack(int, int)}
+     */
+    private PackedIPv4(long packed) {
+        this.packed = packed;
+    }
+
+    /**
+     * Creates the object out of given address and prefix length.
+     *
+     * @param address   32-bit address (ex. 192.168.1.1 - 0xC0A80101)
+     * @param prefix    number of bits in the mask, within [0 - 32] scope
+     * @return          immutable address
+     */
+    public static PackedIPv4 of(int address, int prefix) {
+        return new PackedIPv4(pack(address, prefix));
+    }
+
+    /**
+     * Wraps the value created by {@code pack(int, int)}.
+     *
+     * @param packed    packed address and prefix
+     * @return          immutable address
+     */
+    public static PackedIPv4 of(long packed) {
+        pack(address(packed), prefix(packed));     // Verifying the prefix
+        return new PackedIPv4(packed);
+    }
+
+    /**
+     * Packs given address and prefix length into a single {@code long}.
+     *
+     * @param address   32-bit address
+     * @param prefix    number of bits in the mask, within [0 - 32] scope
+     * @return          packed value
+     */
+    public static long pack(int address, int prefix) {
+        if(prefix < 0 || prefix > BITS)
+            throw new IllegalArgumentException("Prefix length out of range: " + prefix);
+        return ((long) prefix << BITS) | (address & 0xFFFFFFFFL);
+    }
+
+    /** @return address stored in the packed value */
+    public static int address(long packed) {
+        return (int) packed;
+    }
+
+    /** @return prefix length stored in the packed value */
+    public static int prefix(long packed) {
+        return (int) (packed >>> BITS);
+    }
+
+    /** @return subnet mask of the packed value */
+    public static int mask(long packed) {
+        return MaskTable.mask(prefix(packed));
+    }
+
+    /** @return negated subnet mask of the packed value */
+    public static int wildcard(long packed) {
+        return MaskTable.wildcard(prefix(packed));
+    }
+
+    /** @return network address of the packed value */
+    public static int network(long packed) {
+        return address(packed) & mask(packed);
+    }
+
+    /** @return broadcast address of the packed value */
+    public static int broadcast(long packed) {
+        return address(packed) | wildcard(packed);
+    }
+
+    /**
+     * The first address assignable to a host - the one following the network address. Networks /31 and /32 have no
+     * network address to skip, so the first address of the block is returned.
+     *
+     * @return first host of the packed value
+     */
+    public static int firstHost(long packed) {
+        return prefix(packed) >= BITS - 1 ? network(packed) : network(packed) + 1;
+    }
+
+    /**
+     * The last address assignable to a host - the one preceding the broadcast address. Networks /31 and /32 have no
+     * broadcast address to skip, so the last address of the block is returned.
+     *
+     * @return last host of the packed value
+     */
+    public static int lastHost(long packed) {
+        return prefix(packed) >= BITS - 1 ? broadcast(packed) : broadcast(packed) - 1;
+    }
+
+    /** @return number of all the addresses in the network, including network and broadcast address */
+    public static long addressCount(long packed) {
+        return 1L << (BITS - prefix(packed));
+    }
+
+    /** @return number of addresses assignable to hosts */
+    public static long usableHosts(long packed) {
+        return MaskTable.usableHosts(prefix(packed));
+    }
+
+    /**
+     * Converts 32-bit address into its dotted-decimal form.
+     *
+     * @param address   32-bit address
+     * @return          address expressed as text (ex. 192.168.1.1)
+     */
+    public static String toText(int address) {
+        return appendText(new StringBuilder(15), address).toString();
+    }
+
+    /**
+     * Appends the dotted-decimal form of the address, without creating intermediate Strings.
+     *
+     * @param builder   receives the text
+     * @param address   32-bit address
+     * @return          given builder
+     */
+    public static StringBuilder appendText(StringBuilder builder, int address) {
+        return builder
+                .append(address >>> 24).append('.')
+                .append((address >>> 16) & 0xFF).append('.')
+                .append((address >>> 8) & 0xFF).append('.')
+                .append(address & 0xFF);
+    }
+
+    /**
+     * Returns a single octet of the address.
+     *
+     * @param address   32-bit address
+     * @param index     index of the octet, 0 being the most significant one
+     * @return          value within [0 - 255] scope
+     */
+    public static int octet(int address, int index) {
+        return (address >>> (24 - 8 * index)) & 0xFF;
+    }
+
+    /** @return packed address and prefix */
+    public long packed() {
+        return packed;
+    }
+
+    /** @return 32-bit address */
+    public int address() {
+        return address(packed);
+    }
+
+    /** @return prefix length */
+    public int prefix() {
+        return prefix(packed);
+    }
+
+    /** @return subnet mask */
+    public int mask() {
+        return mask(packed);
+    }
+
+    /** @return negated subnet mask */
+    public int wildcard() {
+        return wildcard(packed);
+    }
+
+    /** @return network address */
+    public int network() {
+        return network(packed);
+    }
+
+    /** @return broadcast address */
+    public int broadcast() {
+        return broadcast(packed);
+    }
+
+    /** @return first host */
+    public int firstHost() {
+        return firstHost(packed);
+    }
+
+    /** @return last host */
+    public int lastHost() {
+        return lastHost(packed);
+    }
+
+    /** @return number of all addresses in the network */
+    public long addressCount() {
+        return addressCount(packed);
+    }
+
+    /** @return number of addresses assignable to hosts */
+    public long usableHosts() {
+        return usableHosts(packed);
+    }
+
+    /**
+     * Creates a copy of the object with a different address.
+     *
+     * @param address   new 32-bit address
+     * @return          address with the same prefix length
+     */
+    public PackedIPv4 withAddress(int address) {
+        return of(address, prefix());
+    }
+
+    /**
+     * Creates a copy of the object with a different prefix length.
+     *
+     * @param prefix    new prefix length
+     * @return          address with the same 32-bit address
+     */
+    public PackedIPv4 withPrefix(int prefix) {
+        return of(address(), prefix);
+    }
+
+    /**
+     * Verifies if given address belongs to the network.
+     *
+     * @param address   32-bit address
+     * @return          true, if the address lies between network and broadcast address
+     */
+    public boolean contains(int address) {
+        return (address & mask()) == network();
+    }
+
+    @Override
+    public int compareTo(PackedIPv4 other) {
+        int byAddress = Integer.compareUnsigned(address(), other.address());
+        return byAddress != 0 ? byAddress : Integer.compare(prefix(), other.prefix());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PackedIPv4 && ((PackedIPv4) other).packed == packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(packed);
+    }
+
+    @Override
+    public String toString() {
+        return toText(address()) + "/" + prefix();
+    }
+}
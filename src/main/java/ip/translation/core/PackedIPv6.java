@@ -0,0 +1,414 @@
+package ip.translation.core;
+
+/**
+ * <h1>PackedIPv6 class</h1>
+ * Immutable IPv6 address along with the length of its prefix, held in two {@code long}s - the upper and the lower 64
+ * bits of the address - and an {@code int}.
+ * <p>
+ * Masks, network and last address, containment, increments and comparison are bitwise operations and unsigned
+ * comparisons upon the two halves, carrying from the lower half into the upper one where needed - neither
+ * {@code BigInteger} nor any text is involved. Bulk code is able to skip the object as well - the static methods
+ * operate directly on the halves of the address.
+ */
+public final class PackedIPv6 implements Comparable<PackedIPv6> {
+    /** Number of bits each IPv6 address consists of */
+    public static final int BITS = 128;
+    /** Number of bits of each half of the address */
+    public static final int HALF = 64;
+    /** The longest textual form of an address (ex. 2001:db8:1234:5678:9abc:def0:1234:5678) */
+    public static final int MAX_TEXT = 39;
+    /** Number of 16-bit groups of the textual form */
+    private static final int GROUPS = 8;
+    /** Lower-case hexadecimal digits */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /** Beginning of every IPv4-mapped address */
+    private static final byte[] MAPPED = {':', ':', 'f', 'f', 'f', 'f', ':'};
+
+    /** The upper 64 bits of the address */
+    private final long high;
+    /** The lower 64 bits of the address */
+    private final long low;
+    /** Prefix length */
+    private final int prefix;
+
+    /**
+     * Constructor
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @param prefix    verified prefix length
+     */
+    private PackedIPv6(long high, long low, int prefix) {
+        this.high = high;
+        this.low = low;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates the object out of given address and prefix length.
+     *
+     * @param high      the upper 64 bits of the address (ex. 2001:db8:: - 0x20010DB800000000L)
+     * @param low       the lower 64 bits of the address
+     * @param prefix    number of bits in the mask, within [0 - 128] scope
+     * @return          immutable address
+     */
+    public static PackedIPv6 of(long high, long low, int prefix) {
+        return new PackedIPv6(high, low, checkPrefix(prefix));
+    }
+
+    /**
+     * Verifies the prefix length.
+     *
+     * @param prefix    number of bits in the mask
+     * @return          given prefix length, if it lies within [0 - 128] scope
+     */
+    public static int checkPrefix(int prefix) {
+        if(prefix < 0 || prefix > BITS)
+            throw new IllegalArgumentException("Prefix length out of range: " + prefix);
+        return prefix;
+    }
+
+    /** @return the upper 64 bits of the mask of given prefix length */
+    public static long maskHigh(int prefix) {
+        return prefix == 0 ? 0 : prefix >= HALF ? -1L : -1L << (HALF - prefix);
+    }
+
+    /** @return the lower 64 bits of the mask of given prefix length */
+    public static long maskLow(int prefix) {
+        return prefix <= HALF ? 0 : -1L << (BITS - prefix);
+    }
+
+    /** @return the upper 64 bits of the network address */
+    public static long networkHigh(long high, int prefix) {
+        return high & maskHigh(prefix);
+    }
+
+    /** @return the lower 64 bits of the network address */
+    public static long networkLow(long low, int prefix) {
+        return low & maskLow(prefix);
+    }
+
+    /** @return the upper 64 bits of the last address of the network */
+    public static long lastHigh(long high, int prefix) {
+        return high | ~maskHigh(prefix);
+    }
+
+    /** @return the lower 64 bits of the last address of the network */
+    public static long lastLow(long low, int prefix) {
+        return low | ~maskLow(prefix);
+    }
+
+    /**
+     * Verifies if given address belongs to the network.
+     *
+     * @param networkHigh   the upper 64 bits of any address of the network
+     * @param networkLow    the lower 64 bits of any address of the network
+     * @param prefix        prefix length of the network
+     * @param high          the upper 64 bits of the verified address
+     * @param low           the lower 64 bits of the verified address
+     * @return              true, if both addresses share the first {@code prefix} bits
+     */
+    public static boolean contains(long networkHigh, long networkLow, int prefix, long high, long low) {
+        return ((networkHigh ^ high) & maskHigh(prefix)) == 0 && ((networkLow ^ low) & maskLow(prefix)) == 0;
+    }
+
+    /**
+     * Compares two addresses as unsigned 128-bit numbers.
+     *
+     * @return  negative, zero or positive value, as the first address is lower, equal or greater than the second one
+     */
+    public static int compare(long high, long low, long otherHigh, long otherLow) {
+        int byHigh = Long.compareUnsigned(high, otherHigh);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, otherLow);
+    }
+
+    /**
+     * Number of leading bits two addresses share - the length of the longest prefix containing both of them.
+     *
+     * @return  value within [0 - 128] scope
+     */
+    public static int commonPrefix(long high, long low, long otherHigh, long otherLow) {
+        return high != otherHigh ? Long.numberOfLeadingZeros(high ^ otherHigh)
+                : HALF + Long.numberOfLeadingZeros(low ^ otherLow);
+    }
+
+    /**
+     * The upper half of the sum of the address and an unsigned 64-bit value - the lower half is simply
+     * {@code low + value}. The address wraps around after ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff.
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @param value     unsigned value added to the address
+     * @return          the upper 64 bits of the sum, incremented if the lower half overflows
+     */
+    public static long addHigh(long high, long low, long value) {
+        return Long.compareUnsigned(low + value, low) < 0 ? high + 1 : high;
+    }
+
+    /**
+     * Number of addresses of the network, if it fits into a signed {@code long} - networks /65 and wider do not.
+     *
+     * @param prefix    prefix length
+     * @return          number of addresses, -1 if it is 2^63 or more
+     */
+    public static long addressCount(int prefix) {
+        return prefix > HALF + 1 ? 1L << (BITS - prefix) : -1;
+    }
+
+    /**
+     * Converts the address into its canonical textual form (RFC 5952) - lower-case hexadecimal groups, leading zeros
+     * omitted, the longest run of two or more zero groups replaced by "::" (the first one of equally long runs),
+     * IPv4-mapped addresses ending with the dotted quad (ex. 2001:db8::1, ::ffff:192.0.2.1).
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @return          address expressed as text
+     */
+    public static String toText(long high, long low) {
+        return appendText(new StringBuilder(MAX_TEXT), high, low).toString();
+    }
+
+    /**
+     * Appends the canonical textual form of the address, without creating intermediate Strings.
+     *
+     * @param builder   receives the text
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @return          given builder
+     */
+    public static StringBuilder appendText(StringBuilder builder, long high, long low) {
+        if(isMapped(high, low)) {
+            builder.append("::ffff:");
+            return PackedIPv4.appendText(builder, (int) low);
+        }
+        int run = zeroRun(high, low);
+        int runStart = run >>> 4;
+        int runEnd = runStart + (run & 0xF);
+        for(int i = 0; i < GROUPS; i++) {
+            if(i == runStart && runEnd > runStart) {
+                builder.append("::");
+                i = runEnd - 1;
+                continue;
+            }
+            if(i > 0 && i != runEnd)
+                builder.append(':');
+            int group = group(high, low, i);
+            for(int shift = 4 * (digits(group) - 1); shift >= 0; shift -= 4)
+                builder.append(HEX[(group >>> shift) & 0xF]);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes the canonical textual form of the address as ASCII bytes, allocating nothing.
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @param output    receives the text, has to hold {@code MAX_TEXT} bytes after offset
+     * @param offset    index of the first byte of the text
+     * @return          index after the last byte of the text
+     */
+    public static int format(long high, long low, byte[] output, int offset) {
+        if(isMapped(high, low)) {
+            for(int i = 0; i < MAPPED.length; i++)
+                output[offset++] = MAPPED[i];
+            for(int i = 0; i < 4; i++) {
+                if(i > 0)
+                    output[offset++] = '.';
+                int octet = PackedIPv4.octet((int) low, i);
+                if(octet >= 100)
+                    output[offset++] = (byte) ('0' + octet / 100);
+                if(octet >= 10)
+                    output[offset++] = (byte) ('0' + octet / 10 % 10);
+                output[offset++] = (byte) ('0' + octet % 10);
+            }
+            return offset;
+        }
+        int run = zeroRun(high, low);
+        int runStart = run >>> 4;
+        int runEnd = runStart + (run & 0xF);
+        for(int i = 0; i < GROUPS; i++) {
+            if(i == runStart && runEnd > runStart) {
+                output[offset++] = ':';
+                output[offset++] = ':';
+                i = runEnd - 1;
+                continue;
+            }
+            if(i > 0 && i != runEnd)
+                output[offset++] = ':';
+            int group = group(high, low, i);
+            for(int shift = 4 * (digits(group) - 1); shift >= 0; shift -= 4)
+                output[offset++] = (byte) HEX[(group >>> shift) & 0xF];
+        }
+        return offset;
+    }
+
+    /**
+     * Bulk version of {@code format}, writing every address followed by a newline.
+     *
+     * @param addresses upper and lower 64 bits of consecutive addresses
+     * @param from      index of the first address - its upper half lies at {@code 2 * from}
+     * @param count     number of addresses
+     * @param output    receives the text, has to hold {@code count * (MAX_TEXT + 1)} bytes after offset
+     * @param offset    index of the first byte of the text
+     * @return          index after the last byte of the text
+     */
+    public static int formatLines(long[] addresses, int from, int count, byte[] output, int offset) {
+        for(int i = from; i < from + count; i++) {
+            offset = format(addresses[2 * i], addresses[2 * i + 1], output, offset);
+            output[offset++] = '\n';
+        }
+        return offset;
+    }
+
+    /**
+     * Returns a single 16-bit group of the address.
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @param index     index of the group, 0 being the most significant one
+     * @return          value within [0 - 0xFFFF] scope
+     */
+    public static int group(long high, long low, int index) {
+        long half = index < GROUPS / 2 ? high : low;
+        return (int) (half >>> (48 - 16 * (index & 3))) & 0xFFFF;
+    }
+
+    /** @return true, if the address is an IPv4-mapped one (::ffff:0:0/96) */
+    private static boolean isMapped(long high, long low) {
+        return high == 0 && low >>> 32 == 0xFFFF;
+    }
+
+    /**
+     * Finds the longest run of two or more zero groups, the first one of equally long runs.
+     *
+     * @return  index of the first group of the run times 16 plus its length, 0 if there is no such run
+     */
+    private static int zeroRun(long high, long low) {
+        int best = 0;
+        int bestStart = 0;
+        int length = 0;
+        for(int i = 0; i < GROUPS; i++) {
+            if(group(high, low, i) != 0) {
+                length = 0;
+                continue;
+            }
+            if(++length > best) {
+                best = length;
+                bestStart = i - length + 1;
+            }
+        }
+        return best < 2 ? 0 : bestStart << 4 | best;
+    }
+
+    /** @return number of hexadecimal digits of the group, leading zeros omitted */
+    private static int digits(int group) {
+        return group == 0 ? 1 : (35 - Integer.numberOfLeadingZeros(group)) >> 2;
+    }
+
+    /** @return the upper 64 bits of the address */
+    public long high() {
+        return high;
+    }
+
+    /** @return the lower 64 bits of the address */
+    public long low() {
+        return low;
+    }
+
+    /** @return prefix length */
+    public int prefix() {
+        return prefix;
+    }
+
+    /** @return network address, with the same prefix length */
+    public PackedIPv6 network() {
+        return new PackedIPv6(networkHigh(high, prefix), networkLow(low, prefix), prefix);
+    }
+
+    /** @return the last address of the network - IPv6 has no broadcast address, with the same prefix length */
+    public PackedIPv6 lastAddress() {
+        return new PackedIPv6(lastHigh(high, prefix), lastLow(low, prefix), prefix);
+    }
+
+    /** @return subnet mask, as an address with prefix length 128 */
+    public PackedIPv6 mask() {
+        return new PackedIPv6(maskHigh(prefix), maskLow(prefix), BITS);
+    }
+
+    /** @return number of all addresses in the network, -1 if it does not fit into a signed {@code long} */
+    public long addressCount() {
+        return addressCount(prefix);
+    }
+
+    /** @return the following address, with the same prefix length */
+    public PackedIPv6 next() {
+        return new PackedIPv6(addHigh(high, low, 1), low + 1, prefix);
+    }
+
+    /**
+     * Creates a copy of the object with a different address.
+     *
+     * @param high      the upper 64 bits of the new address
+     * @param low       the lower 64 bits of the new address
+     * @return          address with the same prefix length
+     */
+    public PackedIPv6 withAddress(long high, long low) {
+        return new PackedIPv6(high, low, prefix);
+    }
+
+    /**
+     * Creates a copy of the object with a different prefix length.
+     *
+     * @param prefix    new prefix length
+     * @return          address with the same 128-bit address
+     */
+    public PackedIPv6 withPrefix(int prefix) {
+        return of(high, low, prefix);
+    }
+
+    /**
+     * Verifies if given address belongs to the network.
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @return          true, if the address lies between network and the last address
+     */
+    public boolean contains(long high, long low) {
+        return contains(this.high, this.low, prefix, high, low);
+    }
+
+    /**
+     * Verifies if the whole given network lies within this one.
+     *
+     * @param other     another network
+     * @return          true, if the prefix of the other network is not shorter and its address belongs to this one
+     */
+    public boolean contains(PackedIPv6 other) {
+        return other.prefix >= prefix && contains(other.high, other.low);
+    }
+
+    @Override
+    public int compareTo(PackedIPv6 other) {
+        int byAddress = compare(high, low, other.high, other.low);
+        return byAddress != 0 ? byAddress : Integer.compare(prefix, other.prefix);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof PackedIPv6))
+            return false;
+        PackedIPv6 address = (PackedIPv6) other;
+        return address.high == high && address.low == low && address.prefix == prefix;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(high) * 31 + Long.hashCode(low)) * 31 + prefix;
+    }
+
+    @Override
+    public String toString() {
+        return appendText(new StringBuilder(43), high, low).append('/').append(prefix).toString();
+    }
+}
@@ -0,0 +1,257 @@
+package ip.translation.dataset;
+
+import ip.translation.core.PackedIPv4;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeded generator of synthetic datasets, meant for benchmarks and load tests.
+ *
+ * Rows are generated in blocks of {@code BLOCK_ROWS}, every block draws from its
+ * own random generator derived from the seed and the index of the block - the
+ * output depends on the seed and the number of rows only, not on the number of
+ * threads. Blocks are formatted by the worker threads and streamed in order,
+ * only a limited number of them is held in memory at once, so datasets larger
+ * than the memory can be written.
+ * <p>
+ * Text datasets use the formats accepted by {@code Console} and {@code InputModule},
+ * one record per line. Binary datasets consist of big-endian records, without any
+ * header - packed addresses (see {@link PackedIPv4}) take 8 bytes, host quantities
+ * and route values take 4.
+ */
+public final class DatasetGenerator {
+
+    /** Number of rows generated by a single task */
+    public static final int BLOCK_ROWS = 1 << 16;
+    /** Default part of malformed lines in the {@code MALFORMED} dataset */
+    public static final double DEFAULT_INVALID_RATE = 0.1;
+
+    /**
+     * Available datasets.
+     */
+    public enum Kind {
+        /** Skewed addresses - text: {@code a.b.c.d}, binary: packed address with prefix 32 */
+        ADDRESSES,
+        /** Networks of a routing-like prefix distribution - text: {@code a.b.c.d/p}, binary: packed network */
+        PREFIXES,
+        /** Prefixes along with a value - text: {@code a.b.c.d/p value}, binary: packed network followed by the value */
+        ROUTES,
+        /** Host requirements of the subnets - text: decimal quantity, binary: the quantity */
+        HOSTS,
+        /** Valid lines in every accepted form mixed with malformed ones - text only */
+        MALFORMED
+    }
+
+    /** Seed of the dataset */
+    private final long seed;
+    /** Number of worker threads */
+    private final int threads;
+    /** Part of malformed lines in the {@code MALFORMED} dataset */
+    private final double invalidRate;
+    /** Shapes of the data, derived from the seed */
+    private final Distributions distributions;
+
+    /**
+     * Constructor, using every available core.
+     *
+     * @param seed  seed of the dataset
+     */
+    public DatasetGenerator(long seed) {
+        this(seed, Runtime.getRuntime().availableProcessors(), DEFAULT_INVALID_RATE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param seed          seed of the dataset
+     * @param threads       number of worker threads
+     * @param invalidRate   part of malformed lines in the {@code MALFORMED} dataset, within [0 - 1] scope
+     */
+    public DatasetGenerator(long seed, int threads, double invalidRate) {
+        if(threads < 1)
+            throw new IllegalArgumentException("Number of threads has to be positive");
+        if(!(invalidRate >= 0 && invalidRate <= 1))
+            throw new IllegalArgumentException("Invalid rate has to be within [0 - 1] scope");
+        this.seed = seed;
+        this.threads = threads;
+        this.invalidRate = invalidRate;
+        this.distributions = new Distributions(seed);
+    }
+
+    /**
+     * Generates the dataset and streams it into the output.
+     *
+     * @param kind      dataset to generate
+     * @param rows      number of records
+     * @param binary    true for binary records, false for text lines
+     * @param output    receives the records, flushed but not closed
+     * @return          number of bytes written
+     * @throws IOException in case writing failed
+     */
+    public long write(Kind kind, long rows, boolean binary, OutputStream output) throws IOException {
+        if(rows < 0)
+            throw new IllegalArgumentException("Number of rows cannot be negative");
+        if(binary && kind == Kind.MALFORMED)
+            throw new IllegalArgumentException("Malformed lines have no binary form");
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<RecordBuffer>> inFlight = new ArrayDeque<>();
+        int window = threads * 2;           // Blocks generated or waiting at once
+        long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        long written = 0;
+
+        try {
+            for(long block = 0; block < blocks; block++) {
+                final long index = block;
+                final int size = (int) Math.min(BLOCK_ROWS, rows - block * BLOCK_ROWS);
+                inFlight.add(workers.submit(() -> block(kind, index, size, binary)));
+                while(!inFlight.isEmpty() && (inFlight.size() >= window || block == blocks - 1)) {
+                    RecordBuffer records = await(inFlight.poll());     // Writing the oldest block, preserving the order
+                    output.write(records.bytes(), 0, records.size());
+                    written += records.size();
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        output.flush();
+        return written;
+    }
+
+    /**
+     * Generates a single block. Called by the worker threads.
+     *
+     * @param kind      dataset to generate
+     * @param index     index of the block within the dataset
+     * @param rows      number of records in the block
+     * @param binary    true for binary records, false for text lines
+     * @return          formatted records
+     */
+    RecordBuffer block(Kind kind, long index, int rows, boolean binary) {
+        SplittableRandom random = new SplittableRandom(seed + (index + 1) * 0x9E3779B97F4A7C15L);
+        RecordBuffer output = new RecordBuffer(rows * (binary ? 12 : 24));
+
+        for(int i = 0; i < rows; i++) {
+            switch(kind) {
+                case ADDRESSES: {
+                    int address = distributions.address(random);
+                    if(binary)
+                        output.putLong(PackedIPv4.pack(address, PackedIPv4.BITS));
+                    else output.appendAddress(address).append('\n');
+                    break;
+                }
+                case PREFIXES:
+                case ROUTES: {
+                    int prefix = distributions.prefix(random);
+                    int network = distributions.network(random, prefix);
+                    int value = random.nextInt(1 << 16);
+                    if(binary) {
+                        output.putLong(PackedIPv4.pack(network, prefix));
+                        if(kind == Kind.ROUTES)
+                            output.putInt(value);
+                    } else {
+                        output.appendAddress(network).append('/').append(prefix);
+                        if(kind == Kind.ROUTES)
+                            output.append(' ').append(value);
+                        output.append('\n');
+                    }
+                    break;
+                }
+                case HOSTS: {
+                    int hosts = distributions.hosts(random);
+                    if(binary)
+                        output.putInt(hosts);
+                    else output.append(hosts).append('\n');
+                    break;
+                }
+                default:
+                    if(random.nextDouble() < invalidRate)
+                        distributions.appendMalformed(random, output);
+                    else distributions.appendValid(random, output);
+                    output.append('\n');
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Waits for the block to be generated.
+     */
+    private static RecordBuffer await(Future<RecordBuffer> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Command line tool:<p>
+     * [addresses|prefixes|routes|hosts|malformed] [rows] (output file) (--binary) (--seed n) (--threads n) (--invalid rate)<p>
+     * Without the output file, the dataset is written to the standard output.
+     *
+     * @param args arguments of the program.
+     */
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.err.println("Usage: <addresses|prefixes|routes|hosts|malformed> <rows> [output file]"
+                    + " [--binary] [--seed n] [--threads n] [--invalid rate]");
+            return;
+        }
+        try {
+            Kind kind = Kind.valueOf(args[0].toUpperCase());
+            long rows = Long.parseLong(args[1]);
+            String file = null;
+            boolean binary = false;
+            long seed = 0;
+            int threads = Runtime.getRuntime().availableProcessors();
+            double invalidRate = DEFAULT_INVALID_RATE;
+
+            for(int i = 2; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--binary":
+                        binary = true;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--invalid":
+                        invalidRate = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        file = args[i];
+                }
+            }
+
+            DatasetGenerator generator = new DatasetGenerator(seed, threads, invalidRate);
+            long start = System.nanoTime();
+            long bytes;
+            if(file == null)
+                bytes = generator.write(kind, rows, binary, System.out);
+            else try(OutputStream output = new BufferedOutputStream(new FileOutputStream(file), 1 << 20)) {
+                bytes = generator.write(kind, rows, binary, output);
+            }
+            System.err.println(">> " + rows + " rows, " + bytes + " bytes written in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException exception) {
+            System.err.println(">< Invalid arguments: " + exception.getMessage());
+        } catch (IOException exception) {
+            System.err.println(">< Generation failed: " + exception.getMessage());
+        }
+    }
+}
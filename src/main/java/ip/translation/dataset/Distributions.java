@@ -0,0 +1,143 @@
+package ip.translation.dataset;
+
+import ip.translation.core.MaskTable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shapes of the generated data. Every method draws from the random generator it
+ * is given, so the same generator state always produces the same record.
+ */
+final class Distributions {
+
+    /** Number of densely populated /20 blocks */
+    private static final int HOT_BLOCKS = 4096;
+    /** Part of the addresses drawn from the hot blocks, the rest is spread over the whole space */
+    private static final double HOT_SHARE = 0.8;
+
+    /**
+     * Share of every prefix length in ten thousands, starting with /8 - shaped like a global routing table,
+     * dominated by /24, followed by /22, /23 and the aggregates between /16 and /21.
+     */
+    private static final int[] PREFIX_WEIGHTS = {
+            5, 3, 5, 10, 25, 50, 80, 120,           // /8 - /15
+            250, 150, 250, 400, 500, 500, 1000, 800, // /16 - /23
+            5700,                                    // /24
+            15, 15, 10, 10, 30, 30, 5, 37            // /25 - /32
+    };
+    /** The shortest generated prefix */
+    private static final int SHORTEST_PREFIX = 8;
+
+    /** Kinds of malformed lines */
+    private static final int MALFORMED_KINDS = 7;
+
+    /** Bases of the hot blocks, the first ones are the most popular */
+    private final int[] hotBlocks = new int[HOT_BLOCKS];
+    /** Cumulative {@code PREFIX_WEIGHTS} */
+    private final int[] prefixThresholds = new int[PREFIX_WEIGHTS.length];
+
+    /**
+     * Constructor
+     *
+     * @param seed  seed of the dataset, determining the hot blocks
+     */
+    Distributions(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for(int i = 0; i < HOT_BLOCKS; i++)
+            hotBlocks[i] = random.nextInt() & 0xFFFFF000;
+        int total = 0;
+        for(int i = 0; i < PREFIX_WEIGHTS.length; i++)
+            prefixThresholds[i] = total += PREFIX_WEIGHTS[i];
+    }
+
+    /**
+     * Skewed address - most of them belong to a few thousand /20 blocks, whose popularity decreases steeply
+     * with their index.
+     */
+    int address(SplittableRandom random) {
+        if(random.nextDouble() >= HOT_SHARE)
+            return random.nextInt();
+        double u = random.nextDouble();
+        return hotBlocks[(int) (HOT_BLOCKS * u * u * u)] | random.nextInt(1 << 12);
+    }
+
+    /**
+     * Prefix length, distributed like in a routing table.
+     */
+    int prefix(SplittableRandom random) {
+        int draw = random.nextInt(prefixThresholds[prefixThresholds.length - 1]);
+        int index = 0;
+        while(draw >= prefixThresholds[index])
+            index++;
+        return SHORTEST_PREFIX + index;
+    }
+
+    /**
+     * Network address of a skewed address and routing-like prefix length.
+     */
+    int network(SplittableRandom random, int prefix) {
+        return address(random) & MaskTable.mask(prefix);
+    }
+
+    /**
+     * Host requirement of a subnet - mostly small networks, with the quantity roughly halving along with every
+     * doubling of the size, up to 65535 hosts.
+     */
+    int hosts(SplittableRandom random) {
+        double u = random.nextDouble();
+        int bits = 1 + (int) (16 * u * u);
+        return Math.max(1, (1 << (bits - 1)) + random.nextInt(1 << (bits - 1)) - 1);
+    }
+
+    /**
+     * Appends valid network line in one of the accepted forms - address alone, {@code address/prefix} or
+     * {@code address mask}.
+     */
+    void appendValid(SplittableRandom random, RecordBuffer output) {
+        int prefix = prefix(random);
+        int address = address(random);
+        switch(random.nextInt(3)) {
+            case 0:
+                output.appendAddress(address);
+                break;
+            case 1:
+                output.appendAddress(address).append('/').append(prefix);
+                break;
+            default:
+                output.appendAddress(address).append(' ').appendAddress(MaskTable.mask(prefix));
+        }
+    }
+
+    /**
+     * Appends line rejected by the validators, each kind of mistake is equally likely.
+     */
+    void appendMalformed(SplittableRandom random, RecordBuffer output) {
+        int address = address(random);
+        switch(random.nextInt(MALFORMED_KINDS)) {
+            case 0:     // Unexpected character
+                output.append(address >>> 24).append('.').append((char) ('a' + random.nextInt(26)))
+                        .append('.').append((address >>> 8) & 0xFF).append('.').append(address & 0xFF);
+                break;
+            case 1:     // Segment greater than 255
+                output.append(256 + random.nextInt(744)).append('.').append((address >>> 16) & 0xFF)
+                        .append('.').append((address >>> 8) & 0xFF).append('.').append(address & 0xFF);
+                break;
+            case 2:     // Segment longer than 3 digits
+                output.append(1000 + random.nextInt(9000)).append('.').append((address >>> 16) & 0xFF)
+                        .append('.').append((address >>> 8) & 0xFF).append('.').append(address & 0xFF);
+                break;
+            case 3:     // Three segments
+                output.append(address >>> 24).append('.').append((address >>> 16) & 0xFF)
+                        .append('.').append((address >>> 8) & 0xFF);
+                break;
+            case 4:     // Prefix length out of scope
+                output.appendAddress(address).append('/').append(33 + random.nextInt(67));
+                break;
+            case 5:     // Ones of the mask not contiguous
+                output.appendAddress(address).append(' ').appendAddress((MaskTable.mask(prefix(random)) ^ (1 << random.nextInt(8, 32))) | 1);
+                break;
+            default:    // Empty segment
+                output.append(address >>> 24).append("..").append((address >>> 8) & 0xFF).append('.').append(address & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ip.translation.dataset;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer receiving the records of a single block, formatting text
+ * straight into bytes - no String is created for any record.
+ */
+final class RecordBuffer {
+
+    /** Formatted bytes */
+    private byte[] bytes;
+    /** Number of bytes written so far */
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param capacity  initial capacity in bytes
+     */
+    RecordBuffer(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    /** @return number of bytes written so far */
+    int size() {
+        return size;
+    }
+
+    /** @return underlying array, valid up to {@code size()} */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    RecordBuffer append(char character) {
+        ensure(1);
+        bytes[size++] = (byte) character;
+        return this;
+    }
+
+    RecordBuffer append(String text) {
+        ensure(text.length());
+        for(int i = 0; i < text.length(); i++)
+            bytes[size++] = (byte) text.charAt(i);
+        return this;
+    }
+
+    /**
+     * Appends non-negative number in decimal notation.
+     */
+    RecordBuffer append(long value) {
+        ensure(20);
+        int digits = 1;
+        for(long rest = value / 10; rest > 0; rest /= 10)
+            digits++;
+        for(int i = size + digits - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /**
+     * Appends the address in dotted-quad notation.
+     */
+    RecordBuffer appendAddress(int address) {
+        append(address >>> 24).append('.');
+        append((address >>> 16) & 0xFF).append('.');
+        append((address >>> 8) & 0xFF).append('.');
+        return append(address & 0xFF);
+    }
+
+    /**
+     * Appends the value in big-endian order.
+     */
+    RecordBuffer putInt(int value) {
+        ensure(4);
+        for(int shift = 24; shift >= 0; shift -= 8)
+            bytes[size++] = (byte) (value >>> shift);
+        return this;
+    }
+
+    /**
+     * Appends the value in big-endian order.
+     */
+    RecordBuffer putLong(long value) {
+        ensure(8);
+        for(int shift = 56; shift >= 0; shift -= 8)
+            bytes[size++] = (byte) (value >>> shift);
+        return this;
+    }
+
+    private void ensure(int additional) {
+        if(size + additional > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+    }
+}
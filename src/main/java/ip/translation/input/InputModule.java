@@ -1,8 +1,8 @@
 package ip.translation.input;
 
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
 import ip.translation.input.processing.Segmentation;
-import ip.translation.input.control.PreciseInputControl;
-import ip.translation.input.control.InitialInputControl;
 
 import java.util.LinkedList;
 import java.util.Scanner;
@@ -27,27 +27,24 @@ public final class InputModule {
      * @return Integer list of segments
      */
     public static LinkedList<Integer> read() {
-        LinkedList<Integer> segments = null;
-
-        while (true) {
-
-            String input = readInput();
-
-            if(InitialInputControl.validate(input))
-                segments = Segmentation.segment(input);
-                if (PreciseInputControl.validate(segments))
-                    break;
-        }
+        LinkedList<Integer> segments = new LinkedList<>();
+        Segmentation.segment(readAddress(), segments);
         return segments;
     }
 
     /**
-     * Convenience method, which gets user input via scanner.
+     * Method receives input from the user until it forms a valid address,
+     * validating and parsing it in a single pass.
      *
-     * @return user input
+     * @return 32-bit address
      */
-    private static String readInput() {
+    public static int readAddress() {
         Scanner sc = new Scanner(System.in);
-        return sc.nextLine();
+        while (true) {
+            long result = AddressAutomaton.parseAddress(sc.nextLine());
+            if (AddressAutomaton.isValid(result))
+                return PackedIPv4.address(result);
+            System.out.println(AddressAutomaton.describe(result));
+        }
     }
 }
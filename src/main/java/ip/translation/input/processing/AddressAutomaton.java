@@ -0,0 +1,339 @@
+package ip.translation.input.processing;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+/**
+ * Utility class, validating and parsing user input in a single pass.
+ *
+ * Hand-written state machine, which reads dotted-quad addresses, dotted masks
+ * and CIDR suffixes ("/24" or "24") character by character. Neither regular
+ * expressions nor exceptions nor boxed values are involved - the result is a
+ * single {@code long}: packed address and prefix (see {@link PackedIPv4}) if the
+ * input is valid, or one of the negative error codes if it is not.
+ *
+ * Works upon any {@link CharSequence}, byte ranges are read through
+ * {@link ByteSequence}.
+ */
+public final class AddressAutomaton {
+
+    /** Input contains something else than digits, dots, slash and whitespace */
+    public static final long UNEXPECTED_CHARACTER = -1;
+    /** Segment is empty or longer than 3 digits */
+    public static final long SEGMENT_LENGTH = -2;
+    /** Segment is greater than 255 */
+    public static final long SEGMENT_VALUE = -3;
+    /** Address does not consist of exactly 4 segments */
+    public static final long SEGMENT_COUNT = -4;
+    /** Prefix length is missing or greater than 32 */
+    public static final long PREFIX_VALUE = -5;
+    /** Ones in the dotted mask are not contiguous */
+    public static final long MASK_NOT_CONTIGUOUS = -6;
+    /** Input contains nothing but whitespace */
+    public static final long EMPTY = -7;
+
+    /** Only a dotted-quad address */
+    private static final int ADDRESS = 0;
+    /** Only a mask - dotted, "/24" or "24" */
+    private static final int MASK = 1;
+    /** Address, optionally followed by "/24" or by whitespace and a mask */
+    private static final int NETWORK = 2;
+
+    /** Expecting the first digit of a segment */
+    private static final int SEGMENT_START = 0;
+    /** Reading the digits of a segment */
+    private static final int SEGMENT = 1;
+    /** Expecting the beginning of a mask - slash or digit */
+    private static final int MASK_START = 2;
+    /** Reading whitespace between address and mask */
+    private static final int GAP = 3;
+    /** Expecting the first digit of a prefix length */
+    private static final int PREFIX_START = 4;
+    /** Reading the digits of a prefix length */
+    private static final int PREFIX = 5;
+
+    /** Character fed to the machine after the last one of the input */
+    private static final int END = -1;
+
+    /**
+     * Constructor
+     */
+    private AddressAutomaton() {}
+
+    /**
+     * Parses a dotted-quad address (ex. 192.168.1.1).
+     *
+     * @param input     user input
+     * @return          address packed along with prefix 32, or a negative error code
+     */
+    public static long parseAddress(CharSequence input) {
+        return parse(input, 0, input.length(), ADDRESS);
+    }
+
+    /**
+     * Parses a dotted-quad address within given range of the input.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @return          address packed along with prefix 32, or a negative error code
+     */
+    public static long parseAddress(CharSequence input, int from, int to) {
+        return parse(input, from, to, ADDRESS);
+    }
+
+    /**
+     * Parses a mask, expressed as dotted quad (ex. 255.255.255.0) or as prefix
+     * length, with or without the slash (ex. /24, 24).
+     *
+     * @param input     user input
+     * @return          mask packed along with its prefix length, or a negative error code
+     */
+    public static long parseMask(CharSequence input) {
+        return parse(input, 0, input.length(), MASK);
+    }
+
+    /**
+     * Parses a mask within given range of the input.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @return          mask packed along with its prefix length, or a negative error code
+     */
+    public static long parseMask(CharSequence input, int from, int to) {
+        return parse(input, from, to, MASK);
+    }
+
+    /**
+     * Parses an address, optionally followed by a prefix length (ex. 10.0.0.1/8)
+     * or by whitespace and a mask (ex. 10.0.0.1 255.0.0.0, 10.0.0.1 /8). Address
+     * without a mask is given prefix 32.
+     *
+     * @param input     user input
+     * @return          address packed along with prefix length, or a negative error code
+     */
+    public static long parseNetwork(CharSequence input) {
+        return parse(input, 0, input.length(), NETWORK);
+    }
+
+    /**
+     * Parses an address, optionally followed by a mask, within given range of the input.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @return          address packed along with prefix length, or a negative error code
+     */
+    public static long parseNetwork(CharSequence input, int from, int to) {
+        return parse(input, from, to, NETWORK);
+    }
+
+    /**
+     * Bulk version of {@code parseNetwork}, parsing every line of the input. A
+     * trailing newline does not create an additional, empty line.
+     *
+     * @param input     newline separated records
+     * @param results   receives packed address or error code of each line, has to
+     *                  hold at least {@code countLines(input)} values after offset
+     * @param offset    index in {@code results} receiving the first line
+     * @return          number of parsed lines
+     */
+    public static int parseLines(CharSequence input, long[] results, int offset) {
+        int lines = 0;
+        int length = input.length();
+        for(int start = 0; start < length; ) {
+            int end = start;
+            while(end < length && input.charAt(end) != '\n')
+                end++;
+            results[offset + lines++] = parse(input, start, end, NETWORK);
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Counts lines the same way {@code parseLines} does.
+     *
+     * @param input     newline separated records
+     * @return          number of lines
+     */
+    public static int countLines(CharSequence input) {
+        int lines = 0;
+        int length = input.length();
+        for(int i = 0; i < length; i++)
+            if(input.charAt(i) == '\n')
+                lines++;
+        if(length > 0 && input.charAt(length - 1) != '\n')
+            lines++;
+        return lines;
+    }
+
+    /**
+     * Convenience method.
+     *
+     * @param result    value returned by any of the parsing methods
+     * @return          true, if the result is not an error code
+     */
+    public static boolean isValid(long result) {
+        return result >= 0;
+    }
+
+    /**
+     * Translates the error code into message, which can be presented to the user.
+     *
+     * @param result    value returned by any of the parsing methods
+     * @return          description of the error, null if the result is valid
+     */
+    public static String describe(long result) {
+        if(result == UNEXPECTED_CHARACTER)
+            return "Address contains invalid characters";
+        if(result == SEGMENT_LENGTH)
+            return "Values in segments are not valid.";
+        if(result == SEGMENT_VALUE)
+            return "At least one segment contains a value greater than 255.";
+        if(result == SEGMENT_COUNT)
+            return "Address has to consist of four segments.";
+        if(result == PREFIX_VALUE)
+            return "Prefix length has to be within [0 - 32] scope.";
+        if(result == MASK_NOT_CONTIGUOUS)
+            return "Ones in the mask are not contiguous.";
+        if(result == EMPTY)
+            return "Input is empty.";
+        return null;
+    }
+
+    /**
+     * The state machine itself. Surrounding whitespace (including carriage
+     * return) is skipped, then every character moves the machine to the next
+     * state, while the segments are accumulated into a 32-bit word.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @param mode      {@code ADDRESS}, {@code MASK} or {@code NETWORK}
+     * @return          packed result or a negative error code
+     */
+    private static long parse(CharSequence input, int from, int to, int mode) {
+        while(from < to && isWhitespace(input.charAt(from)))
+            from++;
+        while(to > from && isWhitespace(input.charAt(to - 1)))
+            to--;
+        if(from == to)
+            return EMPTY;
+
+        boolean inMask = mode == MASK;      // true, if the segments form a mask, not an address
+        int state = inMask ? MASK_START : SEGMENT_START;
+        int address = 0;
+        int word = 0;                       // Segments finished so far
+        int segments = 0;
+        int value = 0;                      // Value of the current segment or prefix
+        int digits = 0;
+
+        for(int i = from; i <= to; i++) {
+            int current = i < to ? input.charAt(i) : END;
+            boolean digit = current >= '0' && current <= '9';
+
+            switch(state) {
+                case MASK_START:
+                case GAP:
+                    if(current == '/') {
+                        state = PREFIX_START;
+                    } else if(digit) {
+                        inMask = true;
+                        value = current - '0';
+                        digits = 1;
+                        state = SEGMENT;
+                    } else if(state != GAP || !isWhitespace(current))
+                        return UNEXPECTED_CHARACTER;
+                    break;
+
+                case SEGMENT_START:
+                    if(!digit)
+                        return current == '.' || current == END ? SEGMENT_LENGTH : UNEXPECTED_CHARACTER;
+                    value = current - '0';
+                    digits = 1;
+                    state = SEGMENT;
+                    break;
+
+                case SEGMENT:
+                    if(digit) {
+                        if(++digits > 3)
+                            return SEGMENT_LENGTH;
+                        value = value * 10 + (current - '0');
+                        break;
+                    }
+                    if(current == '.') {
+                        if(value > 255)
+                            return SEGMENT_VALUE;
+                        if(++segments > 3)
+                            return SEGMENT_COUNT;
+                        word = (word << 8) | value;
+                        state = SEGMENT_START;
+                        break;
+                    }
+                    if(current != END && current != '/' && !isWhitespace(current))
+                        return UNEXPECTED_CHARACTER;
+
+                    if(inMask && segments == 0) {       // Prefix length without the slash
+                        if(current != END)
+                            return UNEXPECTED_CHARACTER;
+                        return value > PackedIPv4.BITS ? PREFIX_VALUE : result(mode, address, value);
+                    }
+                    if(value > 255)
+                        return SEGMENT_VALUE;
+                    if(segments != 3)
+                        return SEGMENT_COUNT;
+                    word = (word << 8) | value;
+
+                    if(inMask) {                        // Dotted mask
+                        if(current != END)
+                            return UNEXPECTED_CHARACTER;
+                        int prefix = MaskTable.prefixOf(word);
+                        return prefix == MaskTable.NOT_CONTIGUOUS ? MASK_NOT_CONTIGUOUS : result(mode, address, prefix);
+                    }
+                    address = word;
+                    if(current == END)
+                        return result(mode, address, PackedIPv4.BITS);
+                    if(mode == ADDRESS)
+                        return UNEXPECTED_CHARACTER;
+                    word = 0;
+                    segments = 0;
+                    state = current == '/' ? PREFIX_START : GAP;
+                    break;
+
+                case PREFIX_START:
+                    if(!digit)
+                        return current == END ? PREFIX_VALUE : UNEXPECTED_CHARACTER;
+                    value = current - '0';
+                    digits = 1;
+                    state = PREFIX;
+                    break;
+
+                case PREFIX:
+                    if(digit) {
+                        if(++digits > 2)
+                            return PREFIX_VALUE;
+                        value = value * 10 + (current - '0');
+                        break;
+                    }
+                    if(current != END)
+                        return UNEXPECTED_CHARACTER;
+                    return value > PackedIPv4.BITS ? PREFIX_VALUE : result(mode, address, value);
+            }
+        }
+        return EMPTY;   // Unreachable, the END character always finishes the machine
+    }
+
+    /**
+     * Packs the outcome - masks are packed along with the mask itself in place of the address.
+     */
+    private static long result(int mode, int address, int prefix) {
+        return PackedIPv4.pack(mode == MASK ? MaskTable.mask(prefix) : address, prefix);
+    }
+
+    /** Convenience method, spaces, tabulations and carriage returns separate the values. */
+    private static boolean isWhitespace(int current) {
+        return current == ' ' || current == '\t' || current == '\r';
+    }
+}
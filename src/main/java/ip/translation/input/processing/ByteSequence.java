@@ -0,0 +1,89 @@
+package ip.translation.input.processing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Zero-copy view of a range of ASCII bytes as a {@link CharSequence}.
+ *
+ * Lets {@link AddressAutomaton} read byte arrays and (memory-mapped) buffers
+ * without decoding them into Strings first. The range can be moved, so a single
+ * view is able to serve any number of records.
+ */
+public final class ByteSequence implements CharSequence {
+
+    /** Viewed bytes, read with absolute indexes only */
+    private final ByteBuffer bytes;
+    /** Index of the first viewed byte */
+    private int from;
+    /** Index after the last viewed byte */
+    private int to;
+
+    /**
+     * Constructor, viewing every byte of the array.
+     *
+     * @param bytes     ASCII bytes
+     */
+    public ByteSequence(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Constructor, viewing the buffer up to its limit.
+     *
+     * @param bytes     ASCII bytes
+     */
+    public ByteSequence(ByteBuffer bytes) {
+        this(bytes, 0, bytes.limit());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param bytes     ASCII bytes
+     * @param from      index of the first viewed byte
+     * @param to        index after the last viewed byte
+     */
+    public ByteSequence(ByteBuffer bytes, int from, int to) {
+        this.bytes = bytes;
+        range(from, to);
+    }
+
+    /**
+     * Moves the view to a different range of the same bytes.
+     *
+     * @param from      index of the first viewed byte
+     * @param to        index after the last viewed byte
+     * @return          the view itself
+     */
+    public ByteSequence range(int from, int to) {
+        if(from < 0 || from > to || to > bytes.limit())
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of " + bytes.limit());
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return to - from;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(from + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteSequence(bytes, from + start, from + end);
+    }
+
+    @Override
+    public String toString() {
+        byte[] copy = new byte[length()];
+        for(int i = 0; i < copy.length; i++)
+            copy[i] = bytes.get(from + i);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
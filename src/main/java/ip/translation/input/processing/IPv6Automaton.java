@@ -0,0 +1,406 @@
+package ip.translation.input.processing;
+
+import ip.translation.core.PackedIPv6;
+
+/**
+ * Utility class, validating and parsing IPv6 input in a single pass - the IPv6
+ * counterpart of {@link AddressAutomaton}.
+ *
+ * Reads groups of one to four hexadecimal digits in either case, a single "::"
+ * standing for one or more groups of zeros, an embedded dotted-quad tail in place
+ * of the last two groups (ex. ::ffff:192.0.2.1), a zone identifier after '%'
+ * (ex. fe80::1%eth0) and a prefix length. Nothing is allocated - the address is
+ * written into two elements of a caller's {@code long[]}, while the returned
+ * {@code long} holds the prefix length and the position of the zone identifier,
+ * or one of the negative error codes if the input is not valid.
+ *
+ * Works upon any {@link CharSequence}, byte ranges are read through
+ * {@link ByteSequence}. Addresses are formatted back by {@link PackedIPv6}.
+ */
+public final class IPv6Automaton {
+
+    /** Input contains something else than hexadecimal digits, colons, dots, '%', slash and whitespace */
+    public static final long UNEXPECTED_CHARACTER = -1;
+    /** Group is empty or longer than 4 digits */
+    public static final long GROUP_LENGTH = -2;
+    /** Segment of the embedded IPv4 address is empty, longer than 3 digits or greater than 255 */
+    public static final long SEGMENT_VALUE = -3;
+    /** Address does not consist of exactly 8 groups, or of fewer along with "::" */
+    public static final long GROUP_COUNT = -4;
+    /** Prefix length is missing or greater than 128 */
+    public static final long PREFIX_VALUE = -5;
+    /** "::" appears more than once */
+    public static final long DOUBLE_COMPRESSION = -6;
+    /** Input contains nothing but whitespace */
+    public static final long EMPTY = -7;
+    /** Zone identifier is empty or longer than 255 characters */
+    public static final long ZONE = -8;
+
+    /** The longest accepted zone identifier */
+    private static final int MAX_ZONE = 255;
+    /** Number of 16-bit groups of an address */
+    private static final int GROUPS = 8;
+    /** Character fed to the parser after the last one of the input */
+    private static final int END = -1;
+
+    /**
+     * Constructor
+     */
+    private IPv6Automaton() {}
+
+    /**
+     * Parses an address, optionally followed by a zone identifier (ex. fe80::1%eth0).
+     *
+     * @param input     user input
+     * @param address   receives the upper and the lower 64 bits of the address
+     * @param offset    index in {@code address} receiving the upper 64 bits
+     * @return          prefix length 128 along with the position of the zone, or a negative error code
+     */
+    public static long parseAddress(CharSequence input, long[] address, int offset) {
+        return parse(input, 0, input.length(), false, address, offset);
+    }
+
+    /**
+     * Parses an address within given range of the input.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @param address   receives the upper and the lower 64 bits of the address
+     * @param offset    index in {@code address} receiving the upper 64 bits
+     * @return          prefix length 128 along with the position of the zone, or a negative error code
+     */
+    public static long parseAddress(CharSequence input, int from, int to, long[] address, int offset) {
+        return parse(input, from, to, false, address, offset);
+    }
+
+    /**
+     * Parses an address, optionally followed by a zone identifier and by a prefix
+     * length - after a slash (ex. 2001:db8::/32) or whitespace (ex. 2001:db8:: 32).
+     * Address without a prefix length is given prefix 128.
+     *
+     * @param input     user input
+     * @param address   receives the upper and the lower 64 bits of the address
+     * @param offset    index in {@code address} receiving the upper 64 bits
+     * @return          prefix length along with the position of the zone, or a negative error code
+     */
+    public static long parseNetwork(CharSequence input, long[] address, int offset) {
+        return parse(input, 0, input.length(), true, address, offset);
+    }
+
+    /**
+     * Parses an address, optionally followed by a prefix length, within given range of the input.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @param address   receives the upper and the lower 64 bits of the address
+     * @param offset    index in {@code address} receiving the upper 64 bits
+     * @return          prefix length along with the position of the zone, or a negative error code
+     */
+    public static long parseNetwork(CharSequence input, int from, int to, long[] address, int offset) {
+        return parse(input, from, to, true, address, offset);
+    }
+
+    /**
+     * Parses a prefix length, with or without the slash (ex. /64, 64).
+     *
+     * @param input     user input
+     * @return          prefix length within [0 - 128] scope, or a negative error code
+     */
+    public static long parsePrefix(CharSequence input) {
+        int from = 0;
+        int to = input.length();
+        while(from < to && isWhitespace(input.charAt(from)))
+            from++;
+        while(to > from && isWhitespace(input.charAt(to - 1)))
+            to--;
+        if(from == to)
+            return EMPTY;
+        if(input.charAt(from) == '/')
+            from++;
+        return prefix(input, from, to);
+    }
+
+    /**
+     * Bulk version of {@code parseNetwork}, parsing every line of the input. Lines
+     * are counted by {@link AddressAutomaton#countLines(CharSequence)}.
+     *
+     * @param input     newline separated records
+     * @param addresses receives two halves of the address of each line, has to hold
+     *                  at least twice as many values as there are lines, after {@code 2 * offset}
+     * @param results   receives prefix length or error code of each line, has to hold
+     *                  at least as many values as there are lines, after offset
+     * @param offset    index of the first line in {@code results}
+     * @return          number of parsed lines
+     */
+    public static int parseLines(CharSequence input, long[] addresses, long[] results, int offset) {
+        int lines = 0;
+        int length = input.length();
+        for(int start = 0; start < length; ) {
+            int end = start;
+            while(end < length && input.charAt(end) != '\n')
+                end++;
+            int line = offset + lines++;
+            results[line] = parse(input, start, end, true, addresses, 2 * line);
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Convenience method.
+     *
+     * @param result    value returned by any of the parsing methods
+     * @return          true, if the result is not an error code
+     */
+    public static boolean isValid(long result) {
+        return result >= 0;
+    }
+
+    /** @return prefix length held by the valid result */
+    public static int prefix(long result) {
+        return (int) (result & 0xFF);
+    }
+
+    /** @return index of the first character of the zone identifier, relative to the beginning of the range */
+    public static int zoneStart(long result) {
+        return (int) (result >>> 16);
+    }
+
+    /** @return number of characters of the zone identifier, 0 if there is none */
+    public static int zoneLength(long result) {
+        return (int) ((result >>> 8) & 0xFF);
+    }
+
+    /**
+     * Translates the error code into message, which can be presented to the user.
+     *
+     * @param result    value returned by any of the parsing methods
+     * @return          description of the error, null if the result is valid
+     */
+    public static String describe(long result) {
+        if(result == UNEXPECTED_CHARACTER)
+            return "Address contains invalid characters";
+        if(result == GROUP_LENGTH)
+            return "Groups have to consist of one to four hexadecimal digits.";
+        if(result == SEGMENT_VALUE)
+            return "Embedded IPv4 address is not valid.";
+        if(result == GROUP_COUNT)
+            return "Address has to consist of eight groups, fewer only along with \"::\".";
+        if(result == PREFIX_VALUE)
+            return "Prefix length has to be within [0 - 128] scope.";
+        if(result == DOUBLE_COMPRESSION)
+            return "\"::\" can appear only once.";
+        if(result == EMPTY)
+            return "Input is empty.";
+        if(result == ZONE)
+            return "Zone identifier has to consist of 1 to 255 characters.";
+        return null;
+    }
+
+    /**
+     * The parser itself. Surrounding whitespace is skipped, then the groups are
+     * shifted one by one into a 128-bit accumulator held in two {@code long}s;
+     * when "::" was read, the groups preceding it are moved up at the end, leaving
+     * the zeros between them and the rest.
+     *
+     * @param input     user input
+     * @param from      index of the first character
+     * @param to        index after the last character
+     * @param network   true, if a prefix length may follow the address
+     * @param address   receives the upper and the lower 64 bits of the address
+     * @param offset    index in {@code address} receiving the upper 64 bits
+     * @return          packed result or a negative error code
+     */
+    private static long parse(CharSequence input, int from, int to, boolean network, long[] address, int offset) {
+        int rangeStart = from;              // The zone is reported relative to the range, whitespace included
+        while(from < to && isWhitespace(input.charAt(from)))
+            from++;
+        while(to > from && isWhitespace(input.charAt(to - 1)))
+            to--;
+        if(from == to)
+            return EMPTY;
+
+        long high = 0;
+        long low = 0;
+        int groups = 0;
+        int gap = -1;                       // Number of groups preceding "::"
+        int i = from;
+        int current;
+        if(input.charAt(i) == ':') {        // Leading "::"
+            if(i + 1 == to || input.charAt(i + 1) != ':')
+                return GROUP_LENGTH;
+            gap = 0;
+            i += 2;
+        }
+        current = i < to ? input.charAt(i) : END;
+
+        while(i < to && hex(current) >= 0) {
+            int start = i;
+            int value = 0;
+            int digit;
+            while(i < to && (digit = hex(input.charAt(i))) >= 0) {
+                value = value << 4 | digit;
+                i++;
+            }
+            current = i < to ? input.charAt(i) : END;
+            if(current == '.') {            // Embedded IPv4 address, the last two groups
+                long tail = dottedQuad(input, start, to);
+                if(tail < 0)
+                    return tail;
+                if(groups > GROUPS - 2)
+                    return GROUP_COUNT;
+                high = high << 32 | low >>> 32;
+                low = low << 32 | (tail & 0xFFFFFFFFL);
+                groups += 2;
+                i = (int) (tail >>> 32);
+                current = i < to ? input.charAt(i) : END;
+                break;
+            }
+            if(i - start > 4)
+                return GROUP_LENGTH;
+            if(groups == GROUPS)
+                return GROUP_COUNT;
+            high = high << 16 | low >>> 48;
+            low = low << 16 | value;
+            groups++;
+            if(current != ':')
+                break;
+            if(++i == to)
+                return GROUP_LENGTH;        // Trailing single colon
+            current = input.charAt(i);
+            if(current == ':') {
+                if(gap >= 0)
+                    return DOUBLE_COMPRESSION;
+                gap = groups;
+                current = ++i < to ? input.charAt(i) : END;
+            } else if(hex(current) < 0)
+                return current == '%' || current == '/' || isWhitespace(current) ? GROUP_LENGTH : UNEXPECTED_CHARACTER;
+        }
+        if(current == ':')
+            return gap >= 0 && i + 1 < to && input.charAt(i + 1) == ':' ? DOUBLE_COMPRESSION : UNEXPECTED_CHARACTER;
+        if(current != END && current != '%' && current != '/' && !isWhitespace(current))
+            return UNEXPECTED_CHARACTER;
+        if(gap < 0 ? groups != GROUPS : groups == GROUPS)
+            return GROUP_COUNT;
+
+        if(gap >= 0 && groups > 0) {        // Moving the groups preceding "::" up
+            int tailBits = 16 * (groups - gap);
+            int zeros = 16 * (GROUPS - groups);
+            long tailHigh = tailBits > 64 ? high & (-1L >>> (128 - tailBits)) : 0;
+            long tailLow = tailBits >= 64 ? low : tailBits == 0 ? 0 : low & (-1L >>> (64 - tailBits));
+            long headHigh = high ^ tailHigh;
+            long headLow = low ^ tailLow;
+            if(zeros >= 64) {
+                headHigh = headLow << (zeros - 64);
+                headLow = 0;
+            } else {
+                headHigh = headHigh << zeros | headLow >>> (64 - zeros);
+                headLow <<= zeros;
+            }
+            high = headHigh | tailHigh;
+            low = headLow | tailLow;
+        }
+
+        int zoneStart = 0;
+        int zoneLength = 0;
+        if(current == '%') {
+            zoneStart = ++i;
+            while(i < to && isZoneCharacter(input.charAt(i)))
+                i++;
+            zoneLength = i - zoneStart;
+            if(zoneLength == 0 || zoneLength > MAX_ZONE)
+                return ZONE;
+            zoneStart -= rangeStart;
+            current = i < to ? input.charAt(i) : END;
+        }
+
+        int prefix = PackedIPv6.BITS;
+        if(current != END) {
+            if(!network || current != '/' && !isWhitespace(current))
+                return UNEXPECTED_CHARACTER;
+            while(isWhitespace(input.charAt(i)))
+                i++;
+            if(input.charAt(i) == '/')
+                i++;
+            long parsed = prefix(input, i, to);
+            if(parsed < 0)
+                return parsed;
+            prefix = (int) parsed;
+        }
+
+        address[offset] = high;
+        address[offset + 1] = low;
+        return (long) zoneStart << 16 | zoneLength << 8 | prefix;
+    }
+
+    /**
+     * Parses the dotted-quad tail of the address, up to the first character which is neither a digit nor a dot.
+     *
+     * @return  index after the tail in the upper 32 bits and the address in the lower ones, or a negative error code
+     */
+    private static long dottedQuad(CharSequence input, int from, int to) {
+        int word = 0;
+        int i = from;
+        for(int segment = 0; segment < 4; segment++) {
+            if(segment > 0) {
+                if(i == to || input.charAt(i) != '.')
+                    return SEGMENT_VALUE;
+                i++;
+            }
+            int start = i;
+            int value = 0;
+            while(i < to && input.charAt(i) >= '0' && input.charAt(i) <= '9')
+                value = value * 10 + (input.charAt(i++) - '0');
+            if(i < to && hex(input.charAt(i)) >= 0)
+                return UNEXPECTED_CHARACTER;
+            if(i == start || i - start > 3 || value > 255)
+                return SEGMENT_VALUE;
+            word = word << 8 | value;
+        }
+        if(i < to && input.charAt(i) == '.')
+            return SEGMENT_VALUE;
+        return (long) i << 32 | (word & 0xFFFFFFFFL);
+    }
+
+    /** Parses the digits of the prefix length, up to the end of the range */
+    private static long prefix(CharSequence input, int from, int to) {
+        if(from == to || to - from > 3)
+            return from == to || isDigits(input, from, to) ? PREFIX_VALUE : UNEXPECTED_CHARACTER;
+        int value = 0;
+        for(int i = from; i < to; i++) {
+            char current = input.charAt(i);
+            if(current < '0' || current > '9')
+                return UNEXPECTED_CHARACTER;
+            value = value * 10 + (current - '0');
+        }
+        return value > PackedIPv6.BITS ? PREFIX_VALUE : value;
+    }
+
+    private static boolean isDigits(CharSequence input, int from, int to) {
+        for(int i = from; i < to; i++)
+            if(input.charAt(i) < '0' || input.charAt(i) > '9')
+                return false;
+        return true;
+    }
+
+    /** @return value of the hexadecimal digit, -1 if the character is not one */
+    private static int hex(int current) {
+        if(current >= '0' && current <= '9')
+            return current - '0';
+        int lower = current | 0x20;
+        return lower >= 'a' && lower <= 'f' ? lower - 'a' + 10 : -1;
+    }
+
+    /** Zone identifiers consist of unreserved characters, as in URIs (RFC 6874) */
+    private static boolean isZoneCharacter(char current) {
+        return current >= '0' && current <= '9' || (current | 0x20) >= 'a' && (current | 0x20) <= 'z'
+                || current == '-' || current == '.' || current == '_' || current == '~';
+    }
+
+    /** Convenience method, spaces, tabulations and carriage returns separate the values. */
+    private static boolean isWhitespace(int current) {
+        return current == ' ' || current == '\t' || current == '\r';
+    }
+}
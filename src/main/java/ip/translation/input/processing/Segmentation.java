@@ -1,7 +1,8 @@
 package ip.translation.input.processing;
 
+import ip.translation.core.PackedIPv4;
+
 import java.util.LinkedList;
-import java.util.ArrayList;
 
 /**
  * Utility class responsible for the processing of the user input.
@@ -26,34 +27,26 @@ public final class Segmentation {
      * populates integer LinkedList
      * 
      * @param input     user's input
-     * @return          list of segments, as integers
+     * @return          list of segments, as integers, empty if the input is not a valid address
      */
     public static LinkedList<Integer> segment(String input) {
-        char[] arrayInput = input.toCharArray();
         LinkedList<Integer> segments = new LinkedList<>();              // final list of segments
 
-        ArrayList<Character> buffer = new ArrayList<>();                // data buffer for each segment 
-        for(int i = 0; i < arrayInput.length; i++) {
-            boolean lastSegment = (i == (arrayInput.length - 1));
-
-            if(arrayInput[i] == '.' || lastSegment ) {
-
-                if(lastSegment) {                                       // case for the last segment
-                   buffer.add(arrayInput[i]);
-                }       
-
-                Character[] arr = new Character[buffer.size()];         // cast an ArrayLink to regular array
-                arr = buffer.toArray(arr);
-
-                segments.add(charArrayToInteger(arr));
-                buffer = new ArrayList<>();                             // clear the buffer
-
-            } else {
-                buffer.add(arrayInput[i]);
-            }
+        long result = AddressAutomaton.parseAddress(input);
+        if(AddressAutomaton.isValid(result))
+            segment(PackedIPv4.address(result), segments);
+        return segments;
+    }
 
-        }            
-        return segments; 
+    /**
+     * Populates the list with the octets of already parsed address.
+     *
+     * @param address   32-bit address
+     * @param segments  list receiving the segments
+     */
+    public static void segment(int address, LinkedList<Integer> segments) {
+        for(int i = 0; i < 4; i++)
+            segments.add(PackedIPv4.octet(address, i));
     }
 
     /**
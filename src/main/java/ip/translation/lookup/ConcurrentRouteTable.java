@@ -0,0 +1,339 @@
+package ip.translation.lookup;
+
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * DIR-24-8 table shared by any number of reader threads and updated by writers,
+ * in read-copy-update fashion.
+ *
+ * Readers take the current {@link Version} - an immutable table - and look up
+ * without any lock, write or retry. A writer applies the whole {@link RouteBatch}
+ * to a private draft of the next version and publishes it by a single atomic
+ * swap, so readers see either none or all of the batch. The draft copies only
+ * what the batch touches - the primary entries are split into pages of 4096
+ * entries, the secondary blocks are separate arrays, untouched pages and blocks
+ * are shared with the previous version.
+ * <p>
+ * Old versions are never modified and are reclaimed by the garbage collector once
+ * the last reader drops them - readers cannot observe reclaimed memory. Writers
+ * are serialized.
+ */
+public final class ConcurrentRouteTable implements RouteTable {
+
+    /** Number of address bits indexing the primary entries */
+    private static final int PRIMARY_BITS = 24;
+    /** Number of bits indexing the entries of a page */
+    private static final int PAGE_BITS = 12;
+    /** Number of entries of a page */
+    private static final int PAGE = 1 << PAGE_BITS;
+    /** Number of pages */
+    private static final int PAGES = 1 << (PRIMARY_BITS - PAGE_BITS);
+    /** Number of entries of a secondary block */
+    private static final int BLOCK = 256;
+
+    /** Published version, read by the readers */
+    private final AtomicReference<Version> current;
+    /** Every inserted prefix, the source of the covering prefixes - guarded by the table */
+    private final PathCompressedTrie routes = new PathCompressedTrie();
+    /** Released block indexes, waiting for reuse - guarded by the table */
+    private int[] released = new int[16];
+    /** Number of released blocks - guarded by the table */
+    private int releasedCount;
+
+    /**
+     * Constructor, creating an empty table.
+     */
+    public ConcurrentRouteTable() {
+        int[] empty = new int[PAGE];
+        Arrays.fill(empty, NO_ROUTE);
+        int[][] pages = new int[PAGES][];
+        byte[][] depths = new byte[PAGES][];
+        Arrays.fill(pages, empty);                  // Shared until written, like any other page
+        Arrays.fill(depths, new byte[PAGE]);
+        current = new AtomicReference<>(new Version(pages, depths, new int[0][], new byte[0][], 0, 0, 0));
+    }
+
+    /**
+     * Applies the batch and publishes the outcome as the new version.
+     *
+     * @param batch     changes, applied in order
+     * @return          number of changes which took effect - inserts and withdrawals of present prefixes
+     */
+    public synchronized int apply(RouteBatch batch) {
+        Version base = current.get();
+        Draft draft = new Draft(base);
+        int applied = 0;
+        for(int i = 0; i < batch.size(); i++) {
+            int network = batch.network(i);
+            int prefix = batch.prefix(i);
+            int value = batch.value(i);
+            if(value != NO_ROUTE) {
+                routes.insert(network, prefix, value);
+                draft.insert(network, prefix, value);
+                applied++;
+            } else if(routes.delete(network, prefix)) {
+                draft.delete(network, prefix);
+                applied++;
+            }
+        }
+        if(applied > 0)
+            current.set(draft.publish(routes.size(), base.number + 1));
+        return applied;
+    }
+
+    /**
+     * Inserts a single prefix, publishing a new version.
+     */
+    @Override
+    public void insert(int network, int prefix, int value) {
+        apply(new RouteBatch().insert(network, prefix, value));
+    }
+
+    /**
+     * Withdraws a single prefix, publishing a new version if it was present.
+     */
+    @Override
+    public boolean delete(int network, int prefix) {
+        return apply(new RouteBatch().delete(network, prefix)) == 1;
+    }
+
+    @Override
+    public int lookup(int address) {
+        return current.get().lookup(address);
+    }
+
+    /**
+     * Batched lookup - every address of the batch is looked up in the same version.
+     */
+    @Override
+    public void lookup(int[] addresses, int[] results) {
+        current.get().lookup(addresses, results);
+    }
+
+    @Override
+    public int size() {
+        return current.get().size;
+    }
+
+    /**
+     * Current version - stays unchanged, no matter the following updates, so it can serve any number of consistent
+     * lookups.
+     *
+     * @return  the published version
+     */
+    public Version version() {
+        return current.get();
+    }
+
+    /**
+     * Immutable state of the table, published by a single batch.
+     */
+    public static final class Version implements RouteLookup {
+        /** Pages of the primary entries - values or block references, encoded as {@code -2 - block} */
+        private final int[][] pages;
+        /** Prefix length of every primary entry */
+        private final byte[][] depths;
+        /** Secondary blocks, {@code null} for released ones and beyond {@code blockCount} */
+        private final int[][] blocks;
+        /** Prefix length of every secondary entry */
+        private final byte[][] blockDepths;
+        /** Number of allocated blocks, including released ones */
+        private final int blockCount;
+        /** Number of prefixes */
+        private final int size;
+        /** Number of the version, increasing with every published batch */
+        private final long number;
+
+        Version(int[][] pages, byte[][] depths, int[][] blocks, byte[][] blockDepths, int blockCount, int size, long number) {
+            this.pages = pages;
+            this.depths = depths;
+            this.blocks = blocks;
+            this.blockDepths = blockDepths;
+            this.blockCount = blockCount;
+            this.size = size;
+            this.number = number;
+        }
+
+        @Override
+        public int lookup(int address) {
+            int index = address >>> 8;
+            int entry = pages[index >>> PAGE_BITS][index & (PAGE - 1)];
+            if(entry >= NO_ROUTE)
+                return entry;
+            return blocks[-2 - entry][address & 0xFF];
+        }
+
+        @Override
+        public void lookup(int[] addresses, int[] results) {
+            for(int i = 0; i < addresses.length; i++)
+                results[i] = lookup(addresses[i]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /** @return number of the version, increasing with every published batch */
+        public long number() {
+            return number;
+        }
+    }
+
+    /**
+     * Next version in preparation - the same algorithm as {@link Dir24Table}, with every page and block copied
+     * before its first modification.
+     */
+    private final class Draft {
+        private final int[][] pages;
+        private final byte[][] depths;
+        private int[][] blocks;
+        private byte[][] blockDepths;
+        private int blockCount;
+        /** Pages copied already, private to the draft */
+        private final boolean[] copiedPages = new boolean[PAGES];
+        /** Blocks copied or created already, private to the draft */
+        private boolean[] copiedBlocks;
+
+        Draft(Version base) {
+            pages = base.pages.clone();
+            depths = base.depths.clone();
+            blocks = base.blocks.clone();
+            blockDepths = base.blockDepths.clone();
+            blockCount = base.blockCount;
+            copiedBlocks = new boolean[blocks.length];
+        }
+
+        void insert(int key, int prefix, int value) {
+            if(prefix <= PRIMARY_BITS) {
+                int to = (key >>> 8) + (1 << (PRIMARY_BITS - prefix));
+                for(int i = key >>> 8; i < to; i++) {
+                    int entry = entry(i);
+                    if(entry < NO_ROUTE)
+                        fill(-2 - entry, 0, BLOCK, prefix, value);
+                    else if(depth(i) <= prefix)
+                        set(i, value, prefix);
+                }
+            } else {
+                int block = expand(key >>> 8);
+                fill(block, key & 0xFF, 1 << (PackedIPv4.BITS - prefix), prefix, value);
+            }
+        }
+
+        void delete(int key, int prefix) {
+            long covering = routes.covering(key, prefix);
+            int value = NO_ROUTE;
+            int depth = 0;
+            if(covering >= 0) {
+                depth = PackedIPv4.prefix(covering);
+                value = routes.get(PackedIPv4.address(covering), depth);
+            }
+
+            if(prefix <= PRIMARY_BITS) {
+                int to = (key >>> 8) + (1 << (PRIMARY_BITS - prefix));
+                for(int i = key >>> 8; i < to; i++) {
+                    int entry = entry(i);
+                    if(entry < NO_ROUTE)
+                        replace(-2 - entry, 0, BLOCK, prefix, value, depth);
+                    else if(depth(i) == prefix)
+                        set(i, value, depth);
+                }
+            } else {
+                int index = key >>> 8;
+                int block = -2 - entry(index);
+                replace(block, key & 0xFF, 1 << (PackedIPv4.BITS - prefix), prefix, value, depth);
+                collapse(index, block);
+            }
+        }
+
+        Version publish(int size, long number) {
+            return new Version(pages, depths, blocks, blockDepths, blockCount, size, number);
+        }
+
+        private int entry(int index) {
+            return pages[index >>> PAGE_BITS][index & (PAGE - 1)];
+        }
+
+        private int depth(int index) {
+            return depths[index >>> PAGE_BITS][index & (PAGE - 1)];
+        }
+
+        private void set(int index, int value, int depth) {
+            int page = index >>> PAGE_BITS;
+            if(!copiedPages[page]) {
+                pages[page] = pages[page].clone();
+                depths[page] = depths[page].clone();
+                copiedPages[page] = true;
+            }
+            pages[page][index & (PAGE - 1)] = value;
+            depths[page][index & (PAGE - 1)] = (byte) depth;
+        }
+
+        private void fill(int block, int from, int length, int prefix, int value) {
+            for(int j = from; j < from + length; j++)
+                if(blockDepths[block][j] <= prefix) {
+                    writable(block);
+                    blocks[block][j] = value;
+                    blockDepths[block][j] = (byte) prefix;
+                }
+        }
+
+        private void replace(int block, int from, int length, int prefix, int value, int depth) {
+            for(int j = from; j < from + length; j++)
+                if(blockDepths[block][j] == prefix) {
+                    writable(block);
+                    blocks[block][j] = value;
+                    blockDepths[block][j] = (byte) depth;
+                }
+        }
+
+        private void writable(int block) {
+            if(!copiedBlocks[block]) {
+                blocks[block] = blocks[block].clone();
+                blockDepths[block] = blockDepths[block].clone();
+                copiedBlocks[block] = true;
+            }
+        }
+
+        private int expand(int index) {
+            int entry = entry(index);
+            if(entry < NO_ROUTE)
+                return -2 - entry;
+
+            int block;
+            if(releasedCount > 0)
+                block = released[--releasedCount];
+            else {
+                if(blockCount == blocks.length) {
+                    int capacity = Math.max(16, blockCount * 2);
+                    blocks = Arrays.copyOf(blocks, capacity);
+                    blockDepths = Arrays.copyOf(blockDepths, capacity);
+                    copiedBlocks = Arrays.copyOf(copiedBlocks, capacity);
+                }
+                block = blockCount++;
+            }
+            blocks[block] = new int[BLOCK];             // Never the array of a previous version
+            blockDepths[block] = new byte[BLOCK];
+            Arrays.fill(blocks[block], entry);
+            Arrays.fill(blockDepths[block], (byte) depth(index));
+            copiedBlocks[block] = true;
+            set(index, -2 - block, depth(index));
+            return block;
+        }
+
+        private void collapse(int index, int block) {
+            for(int j = 0; j < BLOCK; j++)
+                if(blockDepths[block][j] > PRIMARY_BITS)
+                    return;
+            set(index, blocks[block][0], blockDepths[block][0]);
+            blocks[block] = null;
+            blockDepths[block] = null;
+            if(releasedCount == released.length)
+                released = Arrays.copyOf(released, released.length * 2);
+            released[releasedCount++] = block;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ip.translation.lookup;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Flat DIR-24-8 forwarding table - the first 24 bits of the address index a
+ * primary array of 2^24 entries, prefixes longer than /24 are expanded into
+ * secondary blocks of 256 entries. A lookup takes a single memory access, or two
+ * if the address falls into a block.
+ *
+ * Primary entry is either the value itself, {@code NO_ROUTE}, or the reference to
+ * a block, encoded as {@code -2 - block}. Next to every entry the length of the
+ * prefix it came from is kept, so prefixes are inserted and withdrawn in place,
+ * touching only the entries they cover - the most specific prefix always wins.
+ * Withdrawn entries are refilled with the covering prefix, found in the trie of
+ * all inserted prefixes kept alongside. Blocks no longer needed are reused.
+ * <p>
+ * Takes 80 MB regardless of the number of prefixes. Not thread-safe - concurrent
+ * lookups are safe only as long as the table is not modified.
+ */
+public final class Dir24Table implements RouteTable {
+
+    /** Number of address bits indexing the primary array */
+    private static final int PRIMARY_BITS = 24;
+    /** Number of entries of a secondary block */
+    private static final int BLOCK = 256;
+
+    /** Values or block references of every /24 */
+    private final int[] primary = new int[1 << PRIMARY_BITS];
+    /** Prefix length of every primary entry */
+    private final byte[] primaryDepth = new byte[1 << PRIMARY_BITS];
+    /** Values of the blocks, one after another */
+    private int[] secondary = new int[BLOCK * 16];
+    /** Prefix length of every secondary entry */
+    private byte[] secondaryDepth = new byte[BLOCK * 16];
+    /** Number of allocated blocks, including released ones */
+    private int blocks;
+    /** Released blocks, waiting for reuse */
+    private int[] released = new int[16];
+    /** Number of released blocks */
+    private int releasedCount;
+
+    /** Every inserted prefix, the source of the covering prefixes */
+    private final PathCompressedTrie routes = new PathCompressedTrie();
+
+    /**
+     * Constructor, creating an empty table.
+     */
+    public Dir24Table() {
+        Arrays.fill(primary, NO_ROUTE);
+    }
+
+    @Override
+    public void insert(int network, int prefix, int value) {
+        routes.insert(network, prefix, value);      // Validates the prefix and the value
+        int key = network & MaskTable.mask(prefix);
+
+        if(prefix <= PRIMARY_BITS) {
+            int to = (key >>> 8) + (1 << (PRIMARY_BITS - prefix));
+            for(int i = key >>> 8; i < to; i++) {
+                int entry = primary[i];
+                if(entry < NO_ROUTE)                    // Block, its longer prefixes stay
+                    fill(block(entry) * BLOCK, BLOCK, prefix, value);
+                else if(primaryDepth[i] <= prefix) {
+                    primary[i] = value;
+                    primaryDepth[i] = (byte) prefix;
+                }
+            }
+        } else {
+            int block = expand(key >>> 8);
+            fill(block * BLOCK + (key & 0xFF), 1 << (PackedIPv4.BITS - prefix), prefix, value);
+        }
+    }
+
+    @Override
+    public boolean delete(int network, int prefix) {
+        if(!routes.delete(network, prefix))
+            return false;
+        int key = network & MaskTable.mask(prefix);
+
+        long covering = routes.covering(key, prefix);  // The prefix itself is gone already
+        int value = NO_ROUTE;
+        int depth = 0;
+        if(covering >= 0) {
+            depth = PackedIPv4.prefix(covering);
+            value = routes.get(PackedIPv4.address(covering), depth);
+        }
+
+        if(prefix <= PRIMARY_BITS) {
+            int to = (key >>> 8) + (1 << (PRIMARY_BITS - prefix));
+            for(int i = key >>> 8; i < to; i++) {
+                int entry = primary[i];
+                if(entry < NO_ROUTE)
+                    replace(block(entry) * BLOCK, BLOCK, prefix, value, depth);
+                else if(primaryDepth[i] == prefix) {
+                    primary[i] = value;
+                    primaryDepth[i] = (byte) depth;
+                }
+            }
+        } else {
+            int index = key >>> 8;
+            int block = block(primary[index]);
+            replace(block * BLOCK + (key & 0xFF), 1 << (PackedIPv4.BITS - prefix), prefix, value, depth);
+            collapse(index, block);
+        }
+        return true;
+    }
+
+    @Override
+    public int lookup(int address) {
+        int entry = primary[address >>> 8];
+        if(entry >= NO_ROUTE)
+            return entry;
+        return secondary[block(entry) * BLOCK + (address & 0xFF)];
+    }
+
+    @Override
+    public void lookup(int[] addresses, int[] results) {
+        int[] primary = this.primary;
+        int[] secondary = this.secondary;
+        for(int i = 0; i < addresses.length; i++) {
+            int address = addresses[i];
+            int entry = primary[address >>> 8];
+            results[i] = entry >= NO_ROUTE ? entry : secondary[block(entry) * BLOCK + (address & 0xFF)];
+        }
+    }
+
+    @Override
+    public int size() {
+        return routes.size();
+    }
+
+    /** @return number of secondary blocks in use */
+    public int blocks() {
+        return blocks - releasedCount;
+    }
+
+    /** @return primary entries, not copied */
+    int[] primary() {
+        return primary;
+    }
+
+    /** @return entries of the blocks, valid up to {@code allocatedBlocks() * 256}, not copied */
+    int[] secondary() {
+        return secondary;
+    }
+
+    /** @return number of allocated blocks, including released ones */
+    int allocatedBlocks() {
+        return blocks;
+    }
+
+    /** @return every inserted prefix */
+    PathCompressedTrie routes() {
+        return routes;
+    }
+
+    /**
+     * Sets the entries of the range, which come from prefixes not more specific than the inserted one.
+     */
+    private void fill(int from, int length, int prefix, int value) {
+        for(int j = from; j < from + length; j++)
+            if(secondaryDepth[j] <= prefix) {
+                secondary[j] = value;
+                secondaryDepth[j] = (byte) prefix;
+            }
+    }
+
+    /**
+     * Sets the entries of the range, which come from the withdrawn prefix, to the covering one.
+     */
+    private void replace(int from, int length, int prefix, int value, int depth) {
+        for(int j = from; j < from + length; j++)
+            if(secondaryDepth[j] == prefix) {
+                secondary[j] = value;
+                secondaryDepth[j] = (byte) depth;
+            }
+    }
+
+    /**
+     * Makes sure the /24 has its block, filled with the primary entry.
+     *
+     * @return index of the block
+     */
+    private int expand(int index) {
+        int entry = primary[index];
+        if(entry < NO_ROUTE)
+            return block(entry);
+
+        int block;
+        if(releasedCount > 0)
+            block = released[--releasedCount];
+        else {
+            if((blocks + 1) * BLOCK > secondary.length) {
+                secondary = Arrays.copyOf(secondary, secondary.length * 2);
+                secondaryDepth = Arrays.copyOf(secondaryDepth, secondaryDepth.length * 2);
+            }
+            block = blocks++;
+        }
+        Arrays.fill(secondary, block * BLOCK, (block + 1) * BLOCK, entry);
+        Arrays.fill(secondaryDepth, block * BLOCK, (block + 1) * BLOCK, primaryDepth[index]);
+        primary[index] = -2 - block;
+        return block;
+    }
+
+    /**
+     * Turns the block back into a single primary entry, if it holds no prefix longer than /24 - all of its entries
+     * come from the same prefix then.
+     */
+    private void collapse(int index, int block) {
+        int from = block * BLOCK;
+        for(int j = from; j < from + BLOCK; j++)
+            if(secondaryDepth[j] > PRIMARY_BITS)
+                return;
+        primary[index] = secondary[from];
+        primaryDepth[index] = secondaryDepth[from];
+        if(releasedCount == released.length)
+            released = Arrays.copyOf(released, released.length * 2);
+        released[releasedCount++] = block;
+    }
+
+    /** @return index of the block referenced by the primary entry */
+    private static int block(int entry) {
+        return -2 - entry;
+    }
+}
@@ -0,0 +1,456 @@
+package ip.translation.lookup;
+
+import ip.translation.core.PackedIPv6;
+
+import java.util.Arrays;
+
+/**
+ * Longest-prefix-match table for IPv6 - a multibit trie, mapping prefixes to
+ * non-negative values. Addresses are 128-bit values held in two {@code long}s,
+ * the upper and the lower 64 bits (see {@link PackedIPv6}).
+ * <p>
+ * Every level of the trie consumes its own, configurable number of address bits
+ * (stride, up to 6). Nodes are bitmap-compressed (Tree Bitmap): one bitmap marks
+ * the prefixes ending within the node, another one its children, while the
+ * values and the children themselves are kept contiguously and indexed by the
+ * number of bits set before their own - so a node takes 24 bytes no matter how
+ * sparse it is, and a lookup visits one node per level with a couple of bit
+ * counts. Prefixes are stored exactly as inserted, so a withdrawn prefix simply
+ * disappears and nodes left empty are released.
+ * <p>
+ * Nodes, values and the blocks they form live in flat arrays, referred to by
+ * index; released blocks are reused. Longer strides mean fewer levels per lookup
+ * and more siblings moved per update. Not thread-safe - concurrent lookups are
+ * safe only as long as the table is not modified.
+ */
+public final class IPv6MultibitTrie {
+
+    /** Returned by lookups, when no prefix contains the address */
+    public static final int NO_ROUTE = RouteTable.NO_ROUTE;
+    /** The longest accepted stride - both bitmaps of a node fit a {@code long} */
+    public static final int MAX_STRIDE = 6;
+    /** Stride of the default constructor */
+    public static final int DEFAULT_STRIDE = 6;
+    /** Missing block of nodes or values, as well as the end of the lists of released blocks */
+    private static final int NIL = -1;
+    /** Number of lookups of the batch walking the trie side by side */
+    private static final int INTERLEAVE = 4;
+    /**
+     * Positions of the prefixes of a node matching each index, by stride - the prefix of k bits (relative to the node)
+     * equal to b lies at position {@code 2^k - 1 + b}, so longer prefixes lie at higher positions
+     */
+    private static final long[][] MATCHING = new long[MAX_STRIDE + 1][];
+
+    static {
+        for(int stride = 1; stride <= MAX_STRIDE; stride++) {
+            MATCHING[stride] = new long[1 << stride];
+            for(int index = 0; index < 1 << stride; index++)
+                for(int length = 0; length < stride; length++)
+                    MATCHING[stride][index] |= 1L << position(length, index >>> (stride - length));
+        }
+    }
+
+    /** First address bit consumed by each level, the last level holds the /128 prefixes only */
+    private final int[] starts;
+    /** Number of address bits consumed by each level */
+    private final int[] strides;
+    /** Entry of each level leading to the node, filled by deletions */
+    private final int[] path;
+
+    /** Prefixes ending within every node, by position */
+    private long[] prefixes = new long[1024];
+    /** Children of every node, by index */
+    private long[] childMaps = new long[1024];
+    /** First child of every node, the rest follow */
+    private int[] childBlocks = new int[1024];
+    /** Value of the first prefix of every node, the rest follow */
+    private int[] valueBlocks = new int[1024];
+    /** Size of the allocated part of the node arrays, including released blocks */
+    private int allocatedNodes;
+    /** First released block of nodes of each size, the following ones are linked through their {@code childBlocks} */
+    private final int[] releasedNodes = new int[(1 << MAX_STRIDE) + 1];
+
+    /** Values of the prefixes, in blocks */
+    private int[] values = new int[1024];
+    /** Size of the allocated part of {@code values}, including released blocks */
+    private int allocatedValues;
+    /** First released block of values of each size, the following ones are linked through their first value */
+    private final int[] releasedValues = new int[1 << MAX_STRIDE];
+
+    /** Number of nodes in use */
+    private int nodes;
+    /** Number of prefixes */
+    private int size;
+
+    /**
+     * Constructor, creating an empty table of the default stride.
+     */
+    public IPv6MultibitTrie() {
+        this(DEFAULT_STRIDE);
+    }
+
+    /**
+     * Constructor, creating an empty table of the same stride at every level - but the last one, consuming the rest of
+     * the address bits.
+     *
+     * @param stride    number of address bits consumed by each level, within [1 - 6] scope
+     */
+    public IPv6MultibitTrie(int stride) {
+        this(uniform(stride));
+    }
+
+    /**
+     * Constructor, creating an empty table.
+     *
+     * @param strides   number of address bits consumed by each level, each within [1 - 6] scope, 128 in total
+     */
+    public IPv6MultibitTrie(int[] strides) {
+        this.strides = Arrays.copyOf(strides, strides.length + 1);
+        this.starts = new int[strides.length + 1];
+        int start = 0;
+        for(int level = 0; level < strides.length; level++) {
+            if(strides[level] < 1 || strides[level] > MAX_STRIDE)
+                throw new IllegalArgumentException("Stride has to be within [1 - " + MAX_STRIDE + "] scope");
+            starts[level] = start;
+            start += strides[level];
+        }
+        if(start != PackedIPv6.BITS)
+            throw new IllegalArgumentException("Strides have to add up to " + PackedIPv6.BITS + " bits, not " + start);
+        starts[strides.length] = PackedIPv6.BITS;              // Holding the /128 prefixes, never any child
+        this.strides[strides.length] = 1;
+        path = new int[strides.length + 1];
+
+        Arrays.fill(releasedNodes, NIL);
+        Arrays.fill(releasedValues, NIL);
+        allocateNodes(1);                                       // The root
+        nodes = 1;
+    }
+
+    /**
+     * Inserts the prefix, replacing the value in case it is already present.
+     *
+     * @param high      the upper 64 bits of the network address, host bits are ignored
+     * @param low       the lower 64 bits of the network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 128] scope
+     * @param value     non-negative value of the prefix
+     */
+    public void insert(long high, long low, int prefix, int value) {
+        if(value < 0)
+            throw new IllegalArgumentException("Value has to be non-negative");
+        PackedIPv6.checkPrefix(prefix);
+        int node = 0;
+        int level = 0;
+        for(; prefix >= starts[level] + strides[level]; level++) {
+            int index = bits(high, low, level);
+            if((childMaps[node] & 1L << index) == 0)
+                addChild(node, index);
+            node = child(node, index);
+        }
+        int position = position(prefix - starts[level], bits(high, low, level) >>> (starts[level] + strides[level] - prefix));
+        long bit = 1L << position;
+        int rank = Long.bitCount(prefixes[node] & bit - 1);
+        if((prefixes[node] & bit) != 0) {
+            values[valueBlocks[node] + rank] = value;
+            return;
+        }
+        int count = Long.bitCount(prefixes[node]);
+        int block = allocateValues(count + 1);
+        int previous = valueBlocks[node];
+        if(count > 0) {
+            System.arraycopy(values, previous, values, block, rank);
+            System.arraycopy(values, previous + rank, values, block + rank + 1, count - rank);
+            releaseValues(previous, count);
+        }
+        values[block + rank] = value;
+        valueBlocks[node] = block;
+        prefixes[node] |= bit;
+        size++;
+    }
+
+    /**
+     * Removes the prefix.
+     *
+     * @param high      the upper 64 bits of the network address, host bits are ignored
+     * @param low       the lower 64 bits of the network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 128] scope
+     * @return          true, if the prefix was present
+     */
+    public boolean delete(long high, long low, int prefix) {
+        PackedIPv6.checkPrefix(prefix);
+        int node = 0;
+        int level = 0;
+        for(; prefix >= starts[level] + strides[level]; level++) {
+            int index = bits(high, low, level);
+            if((childMaps[node] & 1L << index) == 0)
+                return false;
+            path[level] = node;
+            node = child(node, index);
+        }
+        long bit = 1L << position(prefix - starts[level],
+                bits(high, low, level) >>> (starts[level] + strides[level] - prefix));
+        if((prefixes[node] & bit) == 0)
+            return false;
+
+        int count = Long.bitCount(prefixes[node]);
+        int rank = Long.bitCount(prefixes[node] & bit - 1);
+        int previous = valueBlocks[node];
+        if(count > 1) {
+            int block = allocateValues(count - 1);
+            System.arraycopy(values, previous, values, block, rank);
+            System.arraycopy(values, previous + rank + 1, values, block + rank, count - rank - 1);
+            valueBlocks[node] = block;
+        } else valueBlocks[node] = NIL;
+        releaseValues(previous, count);
+        prefixes[node] &= ~bit;
+        size--;
+
+        while(level > 0 && prefixes[node] == 0 && childMaps[node] == 0)         // Releasing empty nodes upwards
+            node = removeChild(path[--level], bits(high, low, level));
+        return true;
+    }
+
+    /**
+     * Finds the most specific prefix containing the address.
+     *
+     * @param high      the upper 64 bits of the address
+     * @param low       the lower 64 bits of the address
+     * @return          value of the prefix, or {@code NO_ROUTE}
+     */
+    public int lookup(long high, long low) {
+        int best = NO_ROUTE;
+        int node = 0;
+        for(int level = 0; ; level++) {
+            int index = bits(high, low, level);
+            best = best(node, level, index, best);
+            if((childMaps[node] & 1L << index) == 0)
+                return best;
+            node = child(node, index);
+        }
+    }
+
+    /**
+     * Batched version of {@code lookup}, walking the trie for several addresses side by side, so the memory accesses
+     * of independent lookups overlap.
+     *
+     * @param addresses upper and lower 64 bits of consecutive addresses, as written by
+     *                  {@link ip.translation.input.processing.IPv6Automaton#parseLines}
+     * @param results   receives the value of each address, has to hold at least {@code addresses.length / 2} values
+     */
+    public void lookup(long[] addresses, int[] results) {
+        int count = addresses.length / 2;
+        int i = 0;
+        for(; i + INTERLEAVE <= count; i += INTERLEAVE) {
+            long h0 = addresses[2 * i], h1 = addresses[2 * i + 2], h2 = addresses[2 * i + 4], h3 = addresses[2 * i + 6];
+            long l0 = addresses[2 * i + 1], l1 = addresses[2 * i + 3], l2 = addresses[2 * i + 5], l3 = addresses[2 * i + 7];
+            int b0 = NO_ROUTE, b1 = NO_ROUTE, b2 = NO_ROUTE, b3 = NO_ROUTE;
+            int n0 = 0, n1 = 0, n2 = 0, n3 = 0;
+            for(int level = 0; (n0 & n1 & n2 & n3) != NIL; level++) {     // At least one of the walks is not finished
+                if(n0 != NIL) { int x = bits(h0, l0, level); b0 = best(n0, level, x, b0); n0 = next(n0, x); }
+                if(n1 != NIL) { int x = bits(h1, l1, level); b1 = best(n1, level, x, b1); n1 = next(n1, x); }
+                if(n2 != NIL) { int x = bits(h2, l2, level); b2 = best(n2, level, x, b2); n2 = next(n2, x); }
+                if(n3 != NIL) { int x = bits(h3, l3, level); b3 = best(n3, level, x, b3); n3 = next(n3, x); }
+            }
+            results[i] = b0;
+            results[i + 1] = b1;
+            results[i + 2] = b2;
+            results[i + 3] = b3;
+        }
+        for(; i < count; i++)
+            results[i] = lookup(addresses[2 * i], addresses[2 * i + 1]);
+    }
+
+    /**
+     * Exact match.
+     *
+     * @param high      the upper 64 bits of the network address, host bits are ignored
+     * @param low       the lower 64 bits of the network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 128] scope
+     * @return          value of the prefix, or {@code NO_ROUTE} if it is not present
+     */
+    public int get(long high, long low, int prefix) {
+        PackedIPv6.checkPrefix(prefix);
+        int node = 0;
+        int level = 0;
+        for(; prefix >= starts[level] + strides[level]; level++) {
+            int index = bits(high, low, level);
+            if((childMaps[node] & 1L << index) == 0)
+                return NO_ROUTE;
+            node = child(node, index);
+        }
+        long bit = 1L << position(prefix - starts[level],
+                bits(high, low, level) >>> (starts[level] + strides[level] - prefix));
+        if((prefixes[node] & bit) == 0)
+            return NO_ROUTE;
+        return values[valueBlocks[node] + Long.bitCount(prefixes[node] & bit - 1)];
+    }
+
+    /** @return number of prefixes in the table */
+    public int size() {
+        return size;
+    }
+
+    /** @return number of trie nodes in use, the root included */
+    public int nodes() {
+        return nodes;
+    }
+
+    /** @return number of levels of the trie, the one holding the /128 prefixes included */
+    public int levels() {
+        return strides.length;
+    }
+
+    /** @return bytes taken by the arrays of the trie, their unused capacity included */
+    public long memoryBytes() {
+        return (long) prefixes.length * (Long.BYTES * 2 + Integer.BYTES * 2) + (long) values.length * Integer.BYTES;
+    }
+
+    /** @return value of the longest prefix of the node matching the index - the best value so far if there is none */
+    private int best(int node, int level, int index, int best) {
+        long matching = prefixes[node] & MATCHING[strides[level]][index];
+        if(matching == 0)
+            return best;
+        long longest = Long.highestOneBit(matching);
+        return values[valueBlocks[node] + Long.bitCount(prefixes[node] & longest - 1)];
+    }
+
+    /** @return child of the node of given index, {@code NIL} if there is none */
+    private int next(int node, int index) {
+        return (childMaps[node] & 1L << index) == 0 ? NIL : child(node, index);
+    }
+
+    /** @return child of the node of given index, which has to be present */
+    private int child(int node, int index) {
+        return childBlocks[node] + Long.bitCount(childMaps[node] & (1L << index) - 1);
+    }
+
+    /** @return address bits consumed by the level, as an index within its node */
+    private int bits(long high, long low, int level) {
+        int start = starts[level];
+        int end = start + strides[level];
+        int mask = (1 << strides[level]) - 1;
+        if(end <= PackedIPv6.HALF)
+            return (int) (high >>> (PackedIPv6.HALF - end)) & mask;
+        if(start >= PackedIPv6.BITS)
+            return 0;                                           // The level of the /128 prefixes
+        if(start >= PackedIPv6.HALF)
+            return (int) (low >>> (PackedIPv6.BITS - end)) & mask;
+        return (int) (high << (end - PackedIPv6.HALF) | low >>> (PackedIPv6.BITS - end)) & mask;  // Spans both halves
+    }
+
+    /** @return position of the prefix of given relative length and bits within the prefix bitmap */
+    private static int position(int length, int bits) {
+        return (1 << length) - 1 + bits;
+    }
+
+    /**
+     * Adds an empty child to the node, moving its block of children to a block larger by one.
+     */
+    private void addChild(int node, int index) {
+        int count = Long.bitCount(childMaps[node]);
+        int rank = Long.bitCount(childMaps[node] & (1L << index) - 1);
+        int block = allocateNodes(count + 1);                   // May replace the arrays
+        int previous = childBlocks[node];
+        if(count > 0) {
+            copyNodes(previous, block, rank);
+            copyNodes(previous + rank, block + rank + 1, count - rank);
+            releaseNodes(previous, count);
+        }
+        int child = block + rank;
+        prefixes[child] = 0;
+        childMaps[child] = 0;
+        childBlocks[child] = NIL;
+        valueBlocks[child] = NIL;
+        childBlocks[node] = block;
+        childMaps[node] |= 1L << index;
+        nodes++;
+    }
+
+    /**
+     * Removes the empty child of the node, moving the rest of its block of children to a block smaller by one.
+     *
+     * @return  the node
+     */
+    private int removeChild(int node, int index) {
+        int count = Long.bitCount(childMaps[node]);
+        int rank = Long.bitCount(childMaps[node] & (1L << index) - 1);
+        int previous = childBlocks[node];
+        if(count > 1) {
+            int block = allocateNodes(count - 1);
+            copyNodes(previous, block, rank);
+            copyNodes(previous + rank + 1, block + rank, count - rank - 1);
+            childBlocks[node] = block;
+        } else childBlocks[node] = NIL;
+        releaseNodes(previous, count);
+        childMaps[node] &= ~(1L << index);
+        nodes--;
+        return node;
+    }
+
+    private void copyNodes(int from, int to, int count) {
+        System.arraycopy(prefixes, from, prefixes, to, count);
+        System.arraycopy(childMaps, from, childMaps, to, count);
+        System.arraycopy(childBlocks, from, childBlocks, to, count);
+        System.arraycopy(valueBlocks, from, valueBlocks, to, count);
+    }
+
+    /**
+     * Finds a block of consecutive nodes, reusing the released ones first.
+     *
+     * @return  index of the first node of the block
+     */
+    private int allocateNodes(int count) {
+        int block = releasedNodes[count];
+        if(block != NIL) {
+            releasedNodes[count] = childBlocks[block];
+            return block;
+        }
+        if(allocatedNodes + count > prefixes.length) {
+            int length = prefixes.length * 2;
+            prefixes = Arrays.copyOf(prefixes, length);
+            childMaps = Arrays.copyOf(childMaps, length);
+            childBlocks = Arrays.copyOf(childBlocks, length);
+            valueBlocks = Arrays.copyOf(valueBlocks, length);
+        }
+        block = allocatedNodes;
+        allocatedNodes += count;
+        return block;
+    }
+
+    private void releaseNodes(int block, int count) {
+        childBlocks[block] = releasedNodes[count];
+        releasedNodes[count] = block;
+    }
+
+    /**
+     * Finds a block of consecutive values, reusing the released ones first.
+     *
+     * @return  index of the first value of the block
+     */
+    private int allocateValues(int count) {
+        int block = releasedValues[count];
+        if(block != NIL) {
+            releasedValues[count] = values[block];
+            return block;
+        }
+        if(allocatedValues + count > values.length)
+            values = Arrays.copyOf(values, values.length * 2);
+        block = allocatedValues;
+        allocatedValues += count;
+        return block;
+    }
+
+    private void releaseValues(int block, int count) {
+        values[block] = releasedValues[count];
+        releasedValues[count] = block;
+    }
+
+    /** @return strides of given length, the last one consuming the rest of the address bits */
+    private static int[] uniform(int stride) {
+        if(stride < 1 || stride > MAX_STRIDE)
+            throw new IllegalArgumentException("Stride has to be within [1 - " + MAX_STRIDE + "] scope");
+        int[] strides = new int[(PackedIPv6.BITS + stride - 1) / stride];
+        Arrays.fill(strides, stride);
+        strides[strides.length - 1] = PackedIPv6.BITS - stride * (strides.length - 1);
+        return strides;
+    }
+}
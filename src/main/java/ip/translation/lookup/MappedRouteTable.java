@@ -0,0 +1,74 @@
+package ip.translation.lookup;
+
+import ip.translation.core.PackedIPv4;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only DIR-24-8 table, queried straight from the memory-mapped snapshot
+ * (see {@link RouteSnapshot}). Lookups read the mapped pages, exactly like
+ * {@link Dir24Table} reads its arrays.
+ *
+ * Routes of the snapshot are available as well, ordered by network address, then
+ * by prefix length - ex. to compile a modifiable table again. Safe for concurrent
+ * lookups.
+ */
+public final class MappedRouteTable implements RouteLookup {
+
+    /** The whole snapshot, read with absolute indexes only */
+    private final ByteBuffer snapshot;
+    /** Number of blocks */
+    private final int blocks;
+    /** Number of routes */
+    private final int routes;
+    /** Offset of the route records */
+    private final int routesOffset;
+
+    /**
+     * Constructor
+     *
+     * @param snapshot  mapped snapshot, verified already
+     * @param blocks    number of blocks
+     * @param routes    number of routes
+     */
+    MappedRouteTable(ByteBuffer snapshot, int blocks, int routes) {
+        this.snapshot = snapshot;
+        this.blocks = blocks;
+        this.routes = routes;
+        this.routesOffset = RouteSnapshot.SECONDARY + blocks * 256 * 4;
+    }
+
+    @Override
+    public int lookup(int address) {
+        int entry = snapshot.getInt(RouteSnapshot.PRIMARY + (address >>> 8) * 4);
+        if(entry >= NO_ROUTE)
+            return entry;
+        return snapshot.getInt(RouteSnapshot.SECONDARY + ((-2 - entry) * 256 + (address & 0xFF)) * 4);
+    }
+
+    @Override
+    public int size() {
+        return routes;
+    }
+
+    /** @return number of secondary blocks in the snapshot */
+    public int blocks() {
+        return blocks;
+    }
+
+    /**
+     * @param index     index of the route, within [0 - size) scope
+     * @return          network of the route, packed along with its prefix length (see {@link PackedIPv4})
+     */
+    public long route(int index) {
+        return snapshot.getLong(routesOffset + index * RouteSnapshot.ROUTE);
+    }
+
+    /**
+     * @param index     index of the route, within [0 - size) scope
+     * @return          value of the route
+     */
+    public int value(int index) {
+        return snapshot.getInt(routesOffset + index * RouteSnapshot.ROUTE + 8);
+    }
+}
@@ -0,0 +1,353 @@
+package ip.translation.lookup;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Binary trie of prefixes, with the chains of single-child nodes compressed - every
+ * node stores the whole prefix it stands for, so a lookup visits at most one node
+ * per branching point instead of one per bit.
+ *
+ * Nodes live in a single {@code int} array, five consecutive values per node
+ * (key, prefix length, value and both children), so visiting a node touches a
+ * single cache line in most cases. Nodes refer to each other by offset, freed
+ * nodes are reused. Nodes without a value only join two subtrees and never have
+ * less than two children.
+ * <p>
+ * Not thread-safe - concurrent lookups are safe only as long as the trie is not
+ * modified.
+ */
+public final class PathCompressedTrie implements RouteTable {
+
+    /** Offset of a missing node */
+    private static final int NIL = -1;
+    /** Number of values per node */
+    private static final int NODE = 5;
+    /** Offset of the network address within the node */
+    private static final int KEY = 0;
+    /** Offset of the prefix length within the node */
+    private static final int LENGTH = 1;
+    /** Offset of the value within the node */
+    private static final int VALUE = 2;
+    /** Offset of the child of bit 0 within the node, the child of bit 1 follows */
+    private static final int CHILDREN = 3;
+    /** Value of joining nodes */
+    private static final int NO_VALUE = RouteTable.NO_ROUTE;
+    /** Number of lookups of the batch walking the trie side by side */
+    private static final int INTERLEAVE = 4;
+
+    /**
+     * Nodes - network address, prefix length, value ({@code NO_VALUE} for joining nodes), the child of bit 0 and
+     * the child of bit 1
+     */
+    private int[] nodes;
+
+    /** Root of the trie */
+    private int root = NIL;
+    /** Size of the allocated part of {@code nodes}, including freed nodes */
+    private int allocated;
+    /** First freed node, the following ones are linked through their child of bit 0 */
+    private int free = NIL;
+    /** Number of prefixes */
+    private int size;
+
+    /**
+     * Constructor
+     */
+    public PathCompressedTrie() {
+        this(1024);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity  expected number of prefixes
+     */
+    public PathCompressedTrie(int capacity) {
+        nodes = new int[Math.max(16, capacity * 2) * NODE];      // Every prefix can bring a joining node
+    }
+
+    @Override
+    public void insert(int network, int prefix, int value) {
+        if(value < 0)
+            throw new IllegalArgumentException("Value has to be non-negative");
+        int key = network & MaskTable.mask(checked(prefix));
+
+        int parent = NIL;
+        int side = 0;
+        int node = root;
+        while(node != NIL) {
+            int length = nodes[node + LENGTH];
+            int common = common(key, prefix, nodes[node + KEY], length);
+
+            if(common == length && common == prefix) {         // Prefix already has its node
+                if(nodes[node + VALUE] == NO_VALUE)
+                    size++;
+                nodes[node + VALUE] = value;
+                return;
+            }
+            if(common == length) {                              // Node contains the prefix, descending
+                parent = node;
+                side = bit(key, length);
+                node = nodes[node + CHILDREN + side];
+                continue;
+            }
+
+            int inserted;
+            if(common == prefix) {                              // Prefix contains the node, becoming its parent
+                inserted = allocate(key, prefix, value);
+                nodes[inserted + CHILDREN + bit(nodes[node + KEY], prefix)] = node;
+            } else {                                            // Paths diverge, joining both under their common prefix
+                int leaf = allocate(key, prefix, value);
+                inserted = allocate(key & MaskTable.mask(common), common, NO_VALUE);
+                nodes[inserted + CHILDREN + bit(key, common)] = leaf;
+                nodes[inserted + CHILDREN + bit(nodes[node + KEY], common)] = node;
+            }
+            link(parent, side, inserted);
+            size++;
+            return;
+        }
+        link(parent, side, allocate(key, prefix, value));
+        size++;
+    }
+
+    @Override
+    public boolean delete(int network, int prefix) {
+        int key = network & MaskTable.mask(checked(prefix));
+
+        int grandparent = NIL;
+        int parentSide = 0;
+        int parent = NIL;
+        int side = 0;
+        int node = root;
+        while(node != NIL) {
+            int length = nodes[node + LENGTH];
+            if(length > prefix || common(key, prefix, nodes[node + KEY], length) < length)
+                return false;
+            if(length == prefix)
+                break;
+            grandparent = parent;
+            parentSide = side;
+            parent = node;
+            side = bit(key, length);
+            node = nodes[node + CHILDREN + side];
+        }
+        if(node == NIL || nodes[node + VALUE] == NO_VALUE)
+            return false;
+
+        nodes[node + VALUE] = NO_VALUE;
+        size--;
+        int zero = nodes[node + CHILDREN];
+        int one = nodes[node + CHILDREN + 1];
+        if(zero != NIL && one != NIL)                           // Still joining two subtrees
+            return true;
+
+        link(parent, side, zero != NIL ? zero : one);           // Replacing the node by its only child, if any
+        release(node);
+        if(zero == NIL && one == NIL && parent != NIL && nodes[parent + VALUE] == NO_VALUE) {
+            int sibling = nodes[parent + CHILDREN + (side ^ 1)];    // Joining node left with a single child
+            link(grandparent, parentSide, sibling);
+            release(parent);
+        }
+        return true;
+    }
+
+    @Override
+    public int lookup(int address) {
+        int best = NO_ROUTE;
+        int node = root;
+        while(node != NIL) {
+            int length = nodes[node + LENGTH];
+            if(length != 0 && ((address ^ nodes[node + KEY]) >>> (PackedIPv4.BITS - length)) != 0)
+                break;
+            int value = nodes[node + VALUE];
+            if(value != NO_VALUE)
+                best = value;
+            if(length == PackedIPv4.BITS)
+                break;
+            node = nodes[node + CHILDREN + ((address >>> (31 - length)) & 1)];
+        }
+        return best;
+    }
+
+    /**
+     * Batched lookup, walking the trie for several addresses side by side, so the memory accesses of independent
+     * lookups overlap.
+     */
+    @Override
+    public void lookup(int[] addresses, int[] results) {
+        int i = 0;
+        for(; i + INTERLEAVE <= addresses.length; i += INTERLEAVE) {
+            int a0 = addresses[i], a1 = addresses[i + 1], a2 = addresses[i + 2], a3 = addresses[i + 3];
+            int n0 = root, n1 = root, n2 = root, n3 = root;
+            int b0 = NO_ROUTE, b1 = NO_ROUTE, b2 = NO_ROUTE, b3 = NO_ROUTE;
+            while((n0 & n1 & n2 & n3) != NIL) {                 // At least one of the walks is not finished
+                if(n0 != NIL) { b0 = value(n0, a0, b0); n0 = next(n0, a0); }
+                if(n1 != NIL) { b1 = value(n1, a1, b1); n1 = next(n1, a1); }
+                if(n2 != NIL) { b2 = value(n2, a2, b2); n2 = next(n2, a2); }
+                if(n3 != NIL) { b3 = value(n3, a3, b3); n3 = next(n3, a3); }
+            }
+            results[i] = b0;
+            results[i + 1] = b1;
+            results[i + 2] = b2;
+            results[i + 3] = b3;
+        }
+        for(; i < addresses.length; i++)
+            results[i] = lookup(addresses[i]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the most specific prefix containing given prefix (the prefix itself included).
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @return          packed network and prefix length (see {@link PackedIPv4}) of the covering prefix, or -1
+     */
+    public long covering(int network, int prefix) {
+        int key = network & MaskTable.mask(checked(prefix));
+        long best = -1;
+        int node = root;
+        while(node != NIL) {
+            int length = nodes[node + LENGTH];
+            if(length > prefix || common(key, prefix, nodes[node + KEY], length) < length)
+                break;
+            if(nodes[node + VALUE] != NO_VALUE)
+                best = PackedIPv4.pack(nodes[node + KEY], length);
+            if(length == prefix)
+                break;
+            node = nodes[node + CHILDREN + bit(key, length)];
+        }
+        return best;
+    }
+
+    /**
+     * Exact match.
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @return          value of the prefix, or {@code NO_ROUTE} if it is not present
+     */
+    public int get(int network, int prefix) {
+        int key = network & MaskTable.mask(checked(prefix));
+        int node = root;
+        while(node != NIL) {
+            int length = nodes[node + LENGTH];
+            if(length > prefix || common(key, prefix, nodes[node + KEY], length) < length)
+                break;
+            if(length == prefix)
+                return nodes[node + VALUE];
+            node = nodes[node + CHILDREN + bit(key, length)];
+        }
+        return NO_ROUTE;
+    }
+
+    /**
+     * Copies every prefix, ordered by network address, then by prefix length.
+     *
+     * @param networks  receives networks packed along with their prefix lengths (see {@link PackedIPv4}), has to
+     *                  hold at least {@code size()} values
+     * @param values    receives the values of the prefixes, has to hold at least {@code size()} values
+     */
+    void export(long[] networks, int[] values) {
+        int[] stack = new int[2 * PackedIPv4.BITS + 2];
+        int depth = 0;
+        int count = 0;
+        if(root != NIL)
+            stack[depth++] = root;
+        while(depth > 0) {
+            int node = stack[--depth];
+            if(nodes[node + VALUE] != NO_VALUE) {
+                networks[count] = PackedIPv4.pack(nodes[node + KEY], nodes[node + LENGTH]);
+                values[count++] = nodes[node + VALUE];
+            }
+            if(nodes[node + CHILDREN + 1] != NIL)       // Visiting the child of bit 0 first
+                stack[depth++] = nodes[node + CHILDREN + 1];
+            if(nodes[node + CHILDREN] != NIL)
+                stack[depth++] = nodes[node + CHILDREN];
+        }
+    }
+
+    /**
+     * @return value of the node, if it contains the address - the best value so far otherwise
+     */
+    private int value(int node, int address, int best) {
+        int length = nodes[node + LENGTH];
+        if(length != 0 && ((address ^ nodes[node + KEY]) >>> (PackedIPv4.BITS - length)) != 0)
+            return best;
+        int value = nodes[node + VALUE];
+        return value != NO_VALUE ? value : best;
+    }
+
+    /**
+     * @return child of the node in the direction of the address, {@code NIL} if the walk is finished
+     */
+    private int next(int node, int address) {
+        int length = nodes[node + LENGTH];
+        if(length == PackedIPv4.BITS || (length != 0 && ((address ^ nodes[node + KEY]) >>> (PackedIPv4.BITS - length)) != 0))
+            return NIL;
+        return nodes[node + CHILDREN + ((address >>> (31 - length)) & 1)];
+    }
+
+    /**
+     * @return length of the common part of both prefixes
+     */
+    private static int common(int key, int prefix, int otherKey, int otherPrefix) {
+        return Math.min(Math.min(prefix, otherPrefix), Integer.numberOfLeadingZeros(key ^ otherKey));
+    }
+
+    /**
+     * @return bit of the key following the first {@code length} bits
+     */
+    private static int bit(int key, int length) {
+        return (key >>> (31 - length)) & 1;
+    }
+
+    private static int checked(int prefix) {
+        if(prefix < 0 || prefix > PackedIPv4.BITS)
+            throw new IllegalArgumentException("Prefix length has to be within [0 - 32] scope");
+        return prefix;
+    }
+
+    /**
+     * Replaces the child of the parent, or the root if there is no parent.
+     */
+    private void link(int parent, int side, int node) {
+        if(parent == NIL)
+            root = node;
+        else nodes[parent + CHILDREN + side] = node;
+    }
+
+    /**
+     * Creates a node without children, reusing the freed ones first.
+     */
+    private int allocate(int key, int prefix, int value) {
+        int node;
+        if(free != NIL) {
+            node = free;
+            free = nodes[node + CHILDREN];
+        } else {
+            if(allocated == nodes.length)
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            node = allocated;
+            allocated += NODE;
+        }
+        nodes[node + KEY] = key;
+        nodes[node + LENGTH] = prefix;
+        nodes[node + VALUE] = value;
+        nodes[node + CHILDREN] = NIL;
+        nodes[node + CHILDREN + 1] = NIL;
+        return node;
+    }
+
+    private void release(int node) {
+        nodes[node + CHILDREN] = free;
+        free = node;
+    }
+}
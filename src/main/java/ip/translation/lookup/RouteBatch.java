@@ -0,0 +1,89 @@
+package ip.translation.lookup;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Batch of route changes - inserts and withdrawals, applied by
+ * {@link ConcurrentRouteTable} in the order of recording and published all at once.
+ *
+ * Changes are validated while recorded, so a recorded batch always applies in
+ * full. The batch can be reused after {@code clear()}.
+ */
+public final class RouteBatch {
+
+    /** Network addresses of the changes */
+    private int[] networks = new int[16];
+    /** Prefix lengths of the changes */
+    private byte[] prefixes = new byte[16];
+    /** Values of the inserts, {@code RouteTable.NO_ROUTE} for withdrawals */
+    private int[] values = new int[16];
+    /** Number of recorded changes */
+    private int size;
+
+    /**
+     * Records insertion of the prefix, replacing its value in case it is already present.
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @param value     non-negative value of the prefix
+     * @return          the batch itself
+     */
+    public RouteBatch insert(int network, int prefix, int value) {
+        if(value < 0)
+            throw new IllegalArgumentException("Value has to be non-negative");
+        return record(network, prefix, value);
+    }
+
+    /**
+     * Records withdrawal of the prefix.
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @return          the batch itself
+     */
+    public RouteBatch delete(int network, int prefix) {
+        return record(network, prefix, RouteTable.NO_ROUTE);
+    }
+
+    /** @return number of recorded changes */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every recorded change.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    int network(int index) {
+        return networks[index];
+    }
+
+    int prefix(int index) {
+        return prefixes[index];
+    }
+
+    /** @return value of the insert, {@code RouteTable.NO_ROUTE} for withdrawals */
+    int value(int index) {
+        return values[index];
+    }
+
+    private RouteBatch record(int network, int prefix, int value) {
+        if(prefix < 0 || prefix > PackedIPv4.BITS)
+            throw new IllegalArgumentException("Prefix length has to be within [0 - 32] scope");
+        if(size == networks.length) {
+            networks = Arrays.copyOf(networks, size * 2);
+            prefixes = Arrays.copyOf(prefixes, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        networks[size] = network & MaskTable.mask(prefix);
+        prefixes[size] = (byte) prefix;
+        values[size++] = value;
+        return this;
+    }
+}
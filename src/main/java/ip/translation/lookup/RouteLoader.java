@@ -0,0 +1,131 @@
+package ip.translation.lookup;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+import ip.translation.input.processing.IPv6Automaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Utility class, filling {@link RouteTable} with {@code address/prefix value}
+ * lines (ex. {@code 10.0.0.0/8 7}, {@code 10.0.0.0 255.0.0.0 7}).
+ *
+ * The network is parsed by {@link AddressAutomaton}, exactly like the user input
+ * of the console. Address without a prefix stands for a single host (/32). Blank
+ * lines are skipped. IPv6 routes (ex. {@code 2001:db8::/32 7}) are parsed by
+ * {@link IPv6Automaton} into {@link IPv6MultibitTrie}.
+ */
+public final class RouteLoader {
+
+    /**
+     * Constructor
+     */
+    private RouteLoader() {}
+
+    /**
+     * Inserts every line of the input into the table.
+     *
+     * @param input     source of the lines
+     * @param table     receives the routes
+     * @return          number of inserted routes
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    public static long load(BufferedReader input, RouteTable table) throws IOException {
+        return load(input, (line, to, value) -> {
+            long network = AddressAutomaton.parseNetwork(line, 0, to);
+            if(!AddressAutomaton.isValid(network))
+                return AddressAutomaton.describe(network);
+            table.insert(PackedIPv4.address(network), PackedIPv4.prefix(network), value);
+            return null;
+        });
+    }
+
+    /**
+     * Inserts every IPv6 line of the input into the table. Address without a prefix stands for a single host (/128),
+     * zone identifiers are rejected - routes are not bound to an interface.
+     *
+     * @param input     source of the lines
+     * @param table     receives the routes
+     * @return          number of inserted routes
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    public static long load(BufferedReader input, IPv6MultibitTrie table) throws IOException {
+        long[] address = new long[2];
+        return load(input, (line, to, value) -> {
+            long network = IPv6Automaton.parseNetwork(line, 0, to, address, 0);
+            if(!IPv6Automaton.isValid(network))
+                return IPv6Automaton.describe(network);
+            if(IPv6Automaton.zoneLength(network) > 0)
+                return "Route cannot contain a zone identifier.";
+            table.insert(address[0], address[1], IPv6Automaton.prefix(network), value);
+            return null;
+        });
+    }
+
+    /**
+     * Splits every line of the input into the network and the value, skipping blank lines.
+     *
+     * @param input     source of the lines
+     * @param inserter  parses the network and inserts the route
+     * @return          number of inserted routes
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    private static long load(BufferedReader input, Inserter inserter) throws IOException {
+        long loaded = 0;
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            int end = line.length();
+            while(end > 0 && isWhitespace(line.charAt(end - 1)))
+                end--;
+            if(end == 0)
+                continue;
+            int separator = end;
+            while(separator > 0 && !isWhitespace(line.charAt(separator - 1)))
+                separator--;
+
+            int value = value(line, separator, end);
+            String reason = value < 0 ? "Value has to be a non-negative number." : inserter.insert(line, separator, value);
+            if(reason != null)
+                throw new IOException("line " + number + ": \"" + line + "\" - " + reason);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /**
+     * Parses the network of a single line and inserts it into the table.
+     */
+    private interface Inserter {
+        /**
+         * @param line      the whole line
+         * @param to        index after the network
+         * @param value     non-negative value of the route
+         * @return          null if the route was inserted, otherwise the reason of rejection
+         */
+        String insert(String line, int to, int value);
+    }
+
+    /**
+     * @return decimal value within the range of the line, -1 if it is not a valid non-negative int
+     */
+    private static int value(String line, int from, int to) {
+        if(from == to || to - from > 10)
+            return -1;
+        long value = 0;
+        for(int i = from; i < to; i++) {
+            char current = line.charAt(i);
+            if(current < '0' || current > '9')
+                return -1;
+            value = value * 10 + (current - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    /** Convenience method, spaces, tabulations and carriage returns separate the values. */
+    private static boolean isWhitespace(char current) {
+        return current == ' ' || current == '\t' || current == '\r';
+    }
+}
@@ -0,0 +1,36 @@
+package ip.translation.lookup;
+
+/**
+ * Read-only longest-prefix-match table, mapping IPv4 prefixes to non-negative
+ * values (ex. next hop identifiers).
+ *
+ * Lookups return the value of the most specific prefix containing the address,
+ * or {@code NO_ROUTE}. Modifiable tables implement {@link RouteTable}.
+ */
+public interface RouteLookup {
+
+    /** Returned by lookups, when no prefix contains the address */
+    int NO_ROUTE = -1;
+
+    /**
+     * Finds the most specific prefix containing the address.
+     *
+     * @param address   32-bit address
+     * @return          value of the prefix, or {@code NO_ROUTE}
+     */
+    int lookup(int address);
+
+    /**
+     * Batched version of {@code lookup}.
+     *
+     * @param addresses 32-bit addresses
+     * @param results   receives the value of each address, has to be at least as long as {@code addresses}
+     */
+    default void lookup(int[] addresses, int[] results) {
+        for(int i = 0; i < addresses.length; i++)
+            results[i] = lookup(addresses[i]);
+    }
+
+    /** @return number of prefixes in the table */
+    int size();
+}
@@ -0,0 +1,172 @@
+package ip.translation.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Utility class, writing compiled {@link Dir24Table} into a binary snapshot and
+ * opening snapshots as {@link MappedRouteTable}, queried straight from the
+ * memory-mapped file - nothing is parsed or copied, so opening takes as long as
+ * verifying the checksum, and processes mapping the same file share its pages.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header     64 bytes   magic, version, number of blocks, number of routes, CRC32C of everything after the header
+ * primary    2^24 ints  primary entries of the table
+ * secondary  256 ints per block
+ * routes     8 + 4 bytes per route - network packed along with the prefix length, value
+ * </pre>
+ */
+public final class RouteSnapshot {
+
+    /** "IPT4" */
+    static final int MAGIC = 0x49505434;
+    /** Version of the layout */
+    static final int VERSION = 1;
+    /** Size of the header */
+    static final int HEADER = 64;
+    /** Offset of the primary entries */
+    static final int PRIMARY = HEADER;
+    /** Offset of the blocks */
+    static final int SECONDARY = PRIMARY + (1 << 24) * 4;
+    /** Size of a single route record */
+    static final int ROUTE = 12;
+
+    /** Offset of the number of blocks within the header */
+    static final int BLOCKS_FIELD = 8;
+    /** Offset of the number of routes within the header */
+    static final int ROUTES_FIELD = 12;
+    /** Offset of the checksum within the header */
+    static final int CHECKSUM_FIELD = 16;
+
+    /**
+     * Constructor
+     */
+    private RouteSnapshot() {}
+
+    /**
+     * Writes the snapshot. The file is written beside the target and moved in place once complete, so processes
+     * which mapped the previous version keep reading it undisturbed.
+     *
+     * @param table     compiled table
+     * @param file      target file, replaced if it exists
+     * @throws IOException in case writing failed
+     */
+    public static void write(Dir24Table table, Path file) throws IOException {
+        int blocks = table.allocatedBlocks();
+        int routes = table.size();
+        long[] networks = new long[routes];
+        int[] values = new int[routes];
+        table.routes().export(networks, values);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            channel.position(HEADER);
+
+            putInts(channel, buffer, checksum, table.primary(), 1 << 24);
+            putInts(channel, buffer, checksum, table.secondary(), blocks * 256);
+            for(int i = 0; i < routes; i++) {
+                putInt(channel, buffer, checksum, (int) (networks[i] >>> 32));
+                putInt(channel, buffer, checksum, (int) networks[i]);
+                putInt(channel, buffer, checksum, values[i]);
+            }
+            flush(channel, buffer, checksum);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(blocks).putInt(routes).putLong(checksum.getValue());
+            header.clear();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException exception) {
+            Files.deleteIfExists(temporary);
+            throw exception;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot, verifying its checksum.
+     *
+     * @param file      snapshot written by {@code write}
+     * @return          read-only table
+     * @throws IOException in case the file cannot be read, is not a snapshot of this version, or is damaged
+     */
+    public static MappedRouteTable open(Path file) throws IOException {
+        return open(file, true);
+    }
+
+    /**
+     * Maps the snapshot.
+     *
+     * @param file      snapshot written by {@code write}
+     * @param verify    true, if the checksum has to be verified - reads the whole file
+     * @return          read-only table
+     * @throws IOException in case the file cannot be read, is not a snapshot of this version, or is damaged
+     */
+    public static MappedRouteTable open(Path file, boolean verify) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < SECONDARY || size > Integer.MAX_VALUE)
+                throw new IOException("Not a route snapshot: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if(buffer.getInt(0) != MAGIC)
+                throw new IOException("Not a route snapshot: " + file);
+            if(buffer.getInt(4) != VERSION)
+                throw new IOException("Unsupported snapshot version " + buffer.getInt(4) + ": " + file);
+            int blocks = buffer.getInt(BLOCKS_FIELD);
+            int routes = buffer.getInt(ROUTES_FIELD);
+            if(blocks < 0 || routes < 0 || size != SECONDARY + (long) blocks * 256 * 4 + (long) routes * ROUTE)
+                throw new IOException("Truncated route snapshot: " + file);
+
+            if(verify) {
+                CRC32C checksum = new CRC32C();
+                checksum.update(buffer.duplicate().position(HEADER));
+                if(checksum.getValue() != buffer.getLong(CHECKSUM_FIELD))
+                    throw new IOException("Damaged route snapshot, checksum mismatch: " + file);
+            }
+            return new MappedRouteTable(buffer, blocks, routes);
+        }
+    }
+
+    /**
+     * Appends the values in bulk, writing the buffer out whenever it is full.
+     */
+    private static void putInts(FileChannel channel, ByteBuffer buffer, CRC32C checksum, int[] values, int length) throws IOException {
+        for(int i = 0; i < length; ) {
+            if(buffer.remaining() < 4)
+                flush(channel, buffer, checksum);
+            int count = Math.min(buffer.remaining() / 4, length - i);
+            buffer.asIntBuffer().put(values, i, count);
+            buffer.position(buffer.position() + count * 4);
+            i += count;
+        }
+    }
+
+    /**
+     * Appends the value, writing the buffer out once it is full.
+     */
+    private static void putInt(FileChannel channel, ByteBuffer buffer, CRC32C checksum, int value) throws IOException {
+        if(buffer.remaining() < 4)
+            flush(channel, buffer, checksum);
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
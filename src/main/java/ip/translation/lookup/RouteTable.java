@@ -0,0 +1,30 @@
+package ip.translation.lookup;
+
+/**
+ * Longest-prefix-match table, mapping IPv4 prefixes to non-negative values
+ * (ex. next hop identifiers), modified in place.
+ *
+ * Prefixes are given as 32-bit network address and prefix length, host bits of
+ * the address are ignored. Lookups return the value of the most specific prefix
+ * containing the address, or {@code NO_ROUTE}.
+ */
+public interface RouteTable extends RouteLookup {
+
+    /**
+     * Inserts the prefix, replacing the value in case it is already present.
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @param value     non-negative value of the prefix
+     */
+    void insert(int network, int prefix, int value);
+
+    /**
+     * Removes the prefix.
+     *
+     * @param network   network address, host bits are ignored
+     * @param prefix    prefix length, within [0 - 32] scope
+     * @return          true, if the prefix was present
+     */
+    boolean delete(int network, int prefix);
+}
@@ -5,10 +5,16 @@ package ip.translation.segment;
  */
 public class Segment {
 
-    private Integer decimal_value;
+    private final int decimalValue;
 
-    public Segment(Integer segment) {
-        this.decimal_value = segment; 
+    public Segment(int segment) {
+        this.decimalValue = segment;
     }
 
+    /**
+     * @return  decimal value of the segment
+     */
+    public int value() {
+        return decimalValue;
+    }
 }
@@ -0,0 +1,84 @@
+package ip.translation.segment.subsegment;
+
+import ip.translation.segment.Segment;
+
+/**
+ * Octet of an IPv4 address along with its binary text and negated value.
+ *
+ * All 256 possible octets are created once, when the class is loaded, so every
+ * conversion is a simple table lookup and never allocates.
+ */
+public final class BinarySegment extends Segment {
+
+    /** Every possible octet, indexed by its value */
+    private static final BinarySegment[] OCTETS = new BinarySegment[256];
+
+    static {
+        for(int i = 0; i < OCTETS.length; i++)
+            OCTETS[i] = new BinarySegment(i);
+    }
+
+    /** Value expressed as 8 ones and zeroes (ex. 192 - 11000000) */
+    private final String binary;
+    /** Value after NOT operation */
+    private final int not;
+
+    /**
+     * Constructor
+     *
+     * @param value     value of the octet, within [0 - 255] scope
+     */
+    private BinarySegment(int value) {
+        super(value);
+        char[] digits = new char[8];
+        for(int i = 0; i < digits.length; i++)
+            digits[i] = (value & (0x80 >>> i)) == 0 ? '0' : '1';
+        this.binary = new String(digits);
+        this.not = ~value & 0xFF;
+    }
+
+    /**
+     * Convenience method, returning the binary text of given octet.
+     *
+     * @param octet     value within [0 - 255] scope
+     * @return          8 ones and zeroes
+     */
+    public static String binary(int octet) {
+        return OCTETS[octet].binary;
+    }
+
+    /**
+     * Convenience method, returning the negated value of given octet.
+     *
+     * @param octet     value within [0 - 255] scope
+     * @return          value after NOT operation
+     */
+    public static int not(int octet) {
+        return OCTETS[octet].not;
+    }
+
+    /**
+     * Reads the value of given binary text, without creating any objects.
+     *
+     * @param binary    up to 8 ones and zeroes
+     * @return          value of the octet, -1 if the text is not binary
+     */
+    public static int valueOf(CharSequence binary) {
+        if(binary.length() == 0 || binary.length() > 8)
+            return -1;
+
+        int value = 0;
+        for(int i = 0; i < binary.length(); i++) {
+            char current = binary.charAt(i);
+            if(current != '0' && current != '1')
+                return -1;
+            value = (value << 1) | (current - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return binary;
+    }
+}
@@ -0,0 +1,361 @@
+package ip.translation.subnet;
+
+import ip.translation.cidr.RangeDecomposer;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the free space of a parent network, carving aligned blocks out of it and
+ * taking them back - buddy-style, so freed blocks coalesce with their free buddies
+ * into larger ones again.
+ *
+ * The space is a binary tree, split only where needed: every node is a block which
+ * is either free, allocated, reserved, or split into two halves. Each node holds a
+ * bit mask of the sizes of the free blocks below it, so the first fit (the lowest
+ * address) and the best fit (the smallest free block large enough, splitting it as
+ * little as possible) are found by a single descent - every operation takes time
+ * proportional to the depth of the tree, at most 33 levels. Nodes are kept in
+ * primitive arrays and reused.
+ * <p>
+ * Reserved ranges are never allocated and cannot be freed.
+ */
+public final class BuddyAllocator {
+
+    /** Block available for allocation */
+    private static final int FREE = 0;
+    /** Block split into two halves */
+    private static final int SPLIT = 1;
+    /** Block allocated to a subnet */
+    private static final int ALLOCATED = 2;
+    /** Block excluded from allocation */
+    private static final int RESERVED = 3;
+    /** Terminates the list of released nodes */
+    private static final int NIL = -1;
+
+    /** Parent network, packed along with its prefix length */
+    private final long parent;
+    /** State of every node */
+    private int[] states = new int[64];
+    /** Lower half of every split node, the next released node of released ones */
+    private int[] lower = new int[64];
+    /** Upper half of every split node */
+    private int[] upper = new int[64];
+    /** Sizes of the free blocks below every node - bit k set for a free block of prefix length k */
+    private long[] masks = new long[64];
+    /** Number of nodes ever created */
+    private int nodeCount;
+    /** The first released node, reused before creating new ones */
+    private int released = NIL;
+
+    /** Number of free addresses */
+    private long freeAddresses;
+    /** Number of allocated addresses */
+    private long allocatedAddresses;
+    /** Number of free blocks - the most coarse ones, free buddies are always merged */
+    private int freeBlocks;
+
+    /**
+     * Constructor, the whole parent network is free.
+     *
+     * @param parent    network packed along with its prefix length (see {@link PackedIPv4}), host bits are ignored
+     */
+    public BuddyAllocator(long parent) {
+        this.parent = PackedIPv4.pack(PackedIPv4.network(parent), PackedIPv4.prefix(parent));
+        node(FREE, PackedIPv4.prefix(parent));                  // Root, always the first node
+        freeAddresses = PackedIPv4.addressCount(parent);
+        freeBlocks = 1;
+    }
+
+    /** @return parent network, packed along with its prefix length */
+    public long parent() {
+        return parent;
+    }
+
+    /**
+     * Allocates the free block of the lowest address.
+     *
+     * @param prefix    prefix length of the block, not shorter than the one of the parent network
+     * @return          the block packed along with its prefix length, -1 if no free block is large enough
+     */
+    public long firstFit(int prefix) {
+        long fitting = masks[0] & fitting(prefix);
+        return fitting == 0 ? -1 : allocate(prefix, fitting);
+    }
+
+    /**
+     * Allocates a block out of the smallest free block large enough - the lowest one of them - keeping the large
+     * ones intact.
+     *
+     * @param prefix    prefix length of the block, not shorter than the one of the parent network
+     * @return          the block packed along with its prefix length, -1 if no free block is large enough
+     */
+    public long bestFit(int prefix) {
+        long fitting = masks[0] & fitting(prefix);
+        return fitting == 0 ? -1 : allocate(prefix, Long.highestOneBit(fitting));
+    }
+
+    /**
+     * Allocates the given block.
+     *
+     * @param network   block packed along with its prefix length, host bits are ignored
+     * @return          true, if the block was free and has been allocated
+     */
+    public boolean allocate(long network) {
+        return claim(network, ALLOCATED);
+    }
+
+    /**
+     * Excludes the inclusive range from allocation - either the whole range, or nothing at all.
+     *
+     * @param start     the first address of the range
+     * @param end       the last address of the range, not lower than the first one (unsigned)
+     * @return          true, if the whole range was free and has been reserved
+     */
+    public boolean reserve(int start, int end) {
+        long first = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        if(Integer.compareUnsigned(start, end) > 0 || (start & 0xFFFFFFFFL) < first
+                || (end & 0xFFFFFFFFL) >= first + PackedIPv4.addressCount(parent))
+            throw new IllegalArgumentException("Range has to lie within the parent network");
+        long[] blocks = RangeDecomposer.decompose(start, end);
+        for(long block : blocks)
+            if(!available(block))
+                return false;
+        for(long block : blocks)
+            claim(block, RESERVED);
+        return true;
+    }
+
+    /**
+     * Frees the allocated block, merging it with its free buddies.
+     *
+     * @param network   block returned by one of the allocations, packed along with its prefix length
+     * @return          true, if the block was allocated and has been freed
+     */
+    public boolean free(long network) {
+        int prefix = PackedIPv4.prefix(network);
+        if(!within(network))
+            return false;
+        int[] path = new int[PackedIPv4.BITS + 2];
+        int depth = 0;
+        int node = 0;
+        int level = PackedIPv4.prefix(parent);
+        while(level < prefix && states[node] == SPLIT) {
+            path[depth++] = node;
+            node = bit(network, level) ? upper[node] : lower[node];
+            level++;
+        }
+        if(level != prefix || states[node] != ALLOCATED)
+            return false;
+        states[node] = FREE;
+        masks[node] = 1L << level;
+        long size = 1L << (PackedIPv4.BITS - level);
+        allocatedAddresses -= size;
+        freeAddresses += size;
+        freeBlocks++;
+        update(path, depth);
+        return true;
+    }
+
+    /**
+     * @return  the largest free block - the lowest one of them - packed along with its prefix length; -1 if there is
+     *          no free address
+     */
+    public long largestFree() {
+        if(masks[0] == 0)
+            return -1;
+        int target = Long.numberOfTrailingZeros(masks[0]);
+        int node = 0;
+        int level = PackedIPv4.prefix(parent);
+        long address = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        while(states[node] == SPLIT) {
+            level++;
+            if((masks[lower[node]] & 1L << target) != 0)
+                node = lower[node];
+            else {
+                node = upper[node];
+                address += 1L << (PackedIPv4.BITS - level);
+            }
+        }
+        return PackedIPv4.pack((int) address, level);
+    }
+
+    /** @return number of free addresses */
+    public long freeAddresses() {
+        return freeAddresses;
+    }
+
+    /** @return number of allocated addresses, reserved ones excluded */
+    public long allocatedAddresses() {
+        return allocatedAddresses;
+    }
+
+    /** @return number of free blocks - free buddies are always merged, so it is the number of the largest ones */
+    public int freeBlocks() {
+        return freeBlocks;
+    }
+
+    /**
+     * @return  part of the free addresses outside of the largest free block, within [0 - 1) scope - 0 if the free
+     *          space is a single block, or if there is none
+     */
+    public double fragmentation() {
+        if(freeAddresses == 0)
+            return 0;
+        return 1 - (double) PackedIPv4.addressCount(largestFree()) / freeAddresses;
+    }
+
+    /**
+     * Descends towards the lowest free block of one of the given sizes, then splits it down to the prefix.
+     *
+     * @param prefix    prefix length of the allocated block
+     * @param sizes     bit mask of the acceptable sizes of the free block
+     */
+    private long allocate(int prefix, long sizes) {
+        int[] path = new int[PackedIPv4.BITS + 2];
+        int depth = 0;
+        int node = 0;
+        int level = PackedIPv4.prefix(parent);
+        long address = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        while(states[node] == SPLIT) {
+            path[depth++] = node;
+            level++;
+            if((masks[lower[node]] & sizes) != 0)
+                node = lower[node];
+            else {
+                node = upper[node];
+                address += 1L << (PackedIPv4.BITS - level);
+            }
+        }
+        depth = split(path, depth, node, level, prefix, (int) address, ALLOCATED);
+        update(path, depth);
+        return PackedIPv4.pack((int) address, prefix);
+    }
+
+    /**
+     * Marks the given block, splitting the free blocks containing it.
+     *
+     * @return  true, if the block was free
+     */
+    private boolean claim(long network, int state) {
+        if(!within(network))
+            return false;
+        int prefix = PackedIPv4.prefix(network);
+        int[] path = new int[PackedIPv4.BITS + 2];
+        int depth = 0;
+        int node = 0;
+        int level = PackedIPv4.prefix(parent);
+        while(level < prefix && states[node] == SPLIT) {
+            path[depth++] = node;
+            node = bit(network, level) ? upper[node] : lower[node];
+            level++;
+        }
+        if(states[node] != FREE)        // Allocated, reserved, or split at the level of the block
+            return false;
+        depth = split(path, depth, node, level, prefix, PackedIPv4.network(network), state);
+        update(path, depth);
+        return true;
+    }
+
+    /**
+     * Splits the free node down to the prefix, along the address, and marks the block.
+     *
+     * @return  depth of the path, leading to the marked block
+     */
+    private int split(int[] path, int depth, int node, int level, int prefix, int address, int state) {
+        freeBlocks--;
+        while(level < prefix) {
+            int low = node(FREE, level + 1);
+            int high = node(FREE, level + 1);
+            states[node] = SPLIT;
+            lower[node] = low;
+            upper[node] = high;
+            path[depth++] = node;
+            node = bit(PackedIPv4.pack(address, prefix), level) ? high : low;
+            level++;
+            freeBlocks++;               // The other half stays free
+        }
+        states[node] = state;
+        masks[node] = 0;
+        long size = 1L << (PackedIPv4.BITS - prefix);
+        freeAddresses -= size;
+        if(state == ALLOCATED)
+            allocatedAddresses += size;
+        return depth;
+    }
+
+    /**
+     * Recalculates the masks along the path, bottom up, merging free buddies.
+     */
+    private void update(int[] path, int depth) {
+        for(int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int low = lower[node];
+            int high = upper[node];
+            if(states[low] == FREE && states[high] == FREE) {
+                int level = PackedIPv4.prefix(parent) + i;
+                release(low);
+                release(high);
+                states[node] = FREE;
+                masks[node] = 1L << level;
+                freeBlocks--;
+            } else masks[node] = masks[low] | masks[high];
+        }
+    }
+
+    /** @return true, if the block was free at any level, down to its own */
+    private boolean available(long network) {
+        int prefix = PackedIPv4.prefix(network);
+        int node = 0;
+        int level = PackedIPv4.prefix(parent);
+        while(level < prefix && states[node] == SPLIT) {
+            node = bit(network, level) ? upper[node] : lower[node];
+            level++;
+        }
+        return states[node] == FREE;
+    }
+
+    /** @return true, if the block lies within the parent network */
+    private boolean within(long network) {
+        int prefix = PackedIPv4.prefix(network);
+        return prefix >= PackedIPv4.prefix(parent)
+                && (PackedIPv4.address(network) & PackedIPv4.mask(parent)) == PackedIPv4.network(parent);
+    }
+
+    /** @return bit mask of the sizes of the blocks able to hold the prefix */
+    private long fitting(int prefix) {
+        if(prefix < PackedIPv4.prefix(parent) || prefix > PackedIPv4.BITS)
+            throw new IllegalArgumentException("Prefix length has to be within [" + PackedIPv4.prefix(parent) + " - 32] scope");
+        return (2L << prefix) - 1;
+    }
+
+    /** @return true, if the bit following the first {@code level} bits of the address is set */
+    private static boolean bit(long network, int level) {
+        return (PackedIPv4.address(network) << level) < 0;
+    }
+
+    /** @return new node, reusing the released ones */
+    private int node(int state, int level) {
+        int node;
+        if(released != NIL) {
+            node = released;
+            released = lower[node];
+        } else {
+            if(nodeCount == states.length) {
+                states = Arrays.copyOf(states, nodeCount * 2);
+                lower = Arrays.copyOf(lower, nodeCount * 2);
+                upper = Arrays.copyOf(upper, nodeCount * 2);
+                masks = Arrays.copyOf(masks, nodeCount * 2);
+            }
+            node = nodeCount++;
+        }
+        states[node] = state;
+        masks[node] = state == FREE ? 1L << level : 0;
+        return node;
+    }
+
+    private void release(int node) {
+        lower[node] = released;
+        released = node;
+    }
+}
@@ -0,0 +1,149 @@
+package ip.translation.subnet;
+
+import ip.translation.core.PackedIPv4;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Outcome of {@link PackingSolver} - the parent network and the subnet of every
+ * requirement, the space wasted within the parent networks in use and the number of
+ * free blocks it is split into. Immutable.
+ */
+public final class PackingPlan {
+
+    /** Candidate parent networks, packed along with their prefix lengths */
+    private final long[] parents;
+    /** Number of hosts of every requirement */
+    private final int[] hosts;
+    /** Index of the parent network of every requirement, -1 for the unplaced ones */
+    private final int[] assignments;
+    /** Subnet of every requirement, packed along with its prefix length; -1 for the unplaced ones */
+    private final long[] networks;
+    /** Number of unplaced requirements */
+    private final int unplaced;
+    /** Number of parent networks holding any subnet */
+    private final int usedParents;
+    /** Number of addresses of the placed subnets */
+    private final long allocatedAddresses;
+    /** Number of free addresses within the parent networks in use */
+    private final long wastedAddresses;
+    /** Number of aligned blocks the free space of the parent networks in use consists of */
+    private final int freeBlocks;
+    /** Number of candidate packings explored */
+    private final long explored;
+
+    PackingPlan(long[] parents, int[] hosts, int[] assignments, long[] networks, int unplaced, int usedParents,
+                long allocatedAddresses, long wastedAddresses, int freeBlocks, long explored) {
+        this.parents = parents;
+        this.hosts = hosts;
+        this.assignments = assignments;
+        this.networks = networks;
+        this.unplaced = unplaced;
+        this.usedParents = usedParents;
+        this.allocatedAddresses = allocatedAddresses;
+        this.wastedAddresses = wastedAddresses;
+        this.freeBlocks = freeBlocks;
+        this.explored = explored;
+    }
+
+    /** @return number of candidate parent networks */
+    public int parents() {
+        return parents.length;
+    }
+
+    /**
+     * @param index     index of the parent network
+     * @return          the parent network, packed along with its prefix length, host bits cleared
+     */
+    public long parent(int index) {
+        return parents[index];
+    }
+
+    /** @return number of requirements */
+    public int requirements() {
+        return networks.length;
+    }
+
+    /**
+     * @param requirement   index of the requirement
+     * @return              index of its parent network, -1 if it has not been placed
+     */
+    public int assignment(int requirement) {
+        return assignments[requirement];
+    }
+
+    /**
+     * @param requirement   index of the requirement
+     * @return              its subnet packed along with its prefix length, -1 if it has not been placed
+     */
+    public long network(int requirement) {
+        return networks[requirement];
+    }
+
+    /** @return number of requirements which did not fit any parent network */
+    public int unplaced() {
+        return unplaced;
+    }
+
+    /** @return number of parent networks holding any subnet */
+    public int usedParents() {
+        return usedParents;
+    }
+
+    /** @return number of addresses of the placed subnets */
+    public long allocatedAddresses() {
+        return allocatedAddresses;
+    }
+
+    /** @return number of free addresses within the parent networks in use - untouched ones stay whole */
+    public long wastedAddresses() {
+        return wastedAddresses;
+    }
+
+    /** @return number of aligned blocks the free space of the parent networks in use consists of */
+    public int freeBlocks() {
+        return freeBlocks;
+    }
+
+    /** @return number of candidate packings explored by the solver */
+    public long explored() {
+        return explored;
+    }
+
+    /**
+     * Writes one tab separated line per requirement, in order - its number of hosts, its subnet and its parent
+     * network, or {@code unplaced}:
+     * <pre>120  10.0.0.0/25  10.0.0.0/16</pre>
+     *
+     * @param output    receives the lines
+     * @throws IOException in case writing failed
+     */
+    public void report(Writer output) throws IOException {
+        StringBuilder builder = new StringBuilder(64);
+        String separator = System.lineSeparator();
+        for(int i = 0; i < networks.length; i++) {
+            builder.setLength(0);
+            builder.append(hosts[i]).append('\t');
+            if(networks[i] < 0)
+                builder.append("unplaced");
+            else {
+                appendNetwork(builder, networks[i]).append('\t');
+                appendNetwork(builder, parents[assignments[i]]);
+            }
+            output.append(builder.append(separator));
+        }
+        output.flush();
+    }
+
+    private static StringBuilder appendNetwork(StringBuilder builder, long network) {
+        return PackedIPv4.appendText(builder, PackedIPv4.address(network)).append('/').append(PackedIPv4.prefix(network));
+    }
+
+    @Override
+    public String toString() {
+        return (networks.length - unplaced) + " of " + networks.length + " subnets placed within " + usedParents
+                + " of " + parents.length + " parents, " + wastedAddresses + " addresses wasted in " + freeBlocks
+                + " free blocks, " + explored + " packings explored";
+    }
+}
@@ -0,0 +1,370 @@
+package ip.translation.subnet;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns host requirements to several candidate parent networks, placing the
+ * subnets so the space wasted within the parent networks in use - and the number of
+ * free blocks it is split into - is minimal. Unused parents stay whole.
+ *
+ * Requirements are rounded up to blocks of powers of two and taken largest first, so
+ * every parent holds a set of blocks whenever their total size fits - the packing is
+ * a matter of choosing the parent of every block only. The first candidate is the
+ * best fit decreasing one: every block goes to the parent in use of the least room
+ * left, and once none of them fits, to the smallest unused parent holding the rest
+ * of the blocks - or to the largest one, if there is none. Then the workers of the
+ * fork-join pool - one per level of parallelism - explore randomized variations of
+ * it, each choosing a random fitting parent now and then, until the time budget runs
+ * out or no space is wasted at all. The best packing found by any of them is
+ * returned, ranked by the number of unplaced addresses, then by the wasted
+ * addresses, then by the free blocks.
+ */
+public final class PackingSolver {
+
+    /** Default time budget, in milliseconds */
+    public static final long DEFAULT_BUDGET = 1000;
+    /** Maximal number of requirements */
+    public static final int MAX_REQUIREMENTS = 1 << 24;
+
+    /** Number of bits the index of the requirement takes in a sort key */
+    private static final int INDEX_BITS = 32;
+    /** Probabilities of choosing a random fitting parent, tried in turns by every worker */
+    private static final double[] NOISE = {0.01, 0.03, 0.1, 0.2, 0.4};
+    /** Seed of the random choices of the first worker, the following ones take the next seeds */
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    /** Time budget of a single solution, in nanoseconds */
+    private final long budget;
+    /** Pool exploring the packings */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor, explores the packings for {@code DEFAULT_BUDGET} milliseconds on the common pool.
+     */
+    public PackingSolver() {
+        this(DEFAULT_BUDGET, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param budget    time budget of a single solution, in milliseconds - the best fit decreasing packing is
+     *                  returned at least, regardless of it
+     * @param pool      pool exploring the packings, one worker per level of its parallelism
+     */
+    public PackingSolver(long budget, ForkJoinPool pool) {
+        if(budget < 0)
+            throw new IllegalArgumentException("Time budget can not be negative");
+        this.budget = budget * 1_000_000;
+        this.pool = pool;
+    }
+
+    /**
+     * Reads every {@code address/prefix} line of the input - a candidate parent network. Blank lines are skipped.
+     *
+     * @param input     source of the lines
+     * @return          parent networks packed along with their prefix lengths, in input order
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    public static long[] loadParents(BufferedReader input) throws IOException {
+        long[] parents = new long[64];
+        int count = 0;
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            if(line.isBlank())
+                continue;
+            long network = AddressAutomaton.parseNetwork(line.trim());
+            if(!AddressAutomaton.isValid(network))
+                throw new IOException("line " + number + ": \"" + line + "\" - " + AddressAutomaton.describe(network));
+            if(count == parents.length)
+                parents = Arrays.copyOf(parents, count * 2);
+            parents[count++] = network;
+        }
+        return Arrays.copyOf(parents, count);
+    }
+
+    /**
+     * Reads every line of the input holding a positive number of hosts. Blank lines are skipped.
+     *
+     * @param input     source of the lines
+     * @return          number of hosts of every requirement, in input order
+     * @throws IOException in case reading failed or a line is invalid - the message names the line and the reason
+     */
+    public static int[] loadHosts(BufferedReader input) throws IOException {
+        int[] hosts = new int[1024];
+        int count = 0;
+        long number = 0;
+        String line;
+        while((line = input.readLine()) != null) {
+            number++;
+            if(line.isBlank())
+                continue;
+            int quantity;
+            try {
+                quantity = Integer.parseInt(line.trim());
+            } catch (NumberFormatException exception) {
+                quantity = 0;
+            }
+            if(quantity < 1)
+                throw new IOException("line " + number + ": \"" + line + "\" - Number of hosts has to be a positive integer.");
+            if(count == MAX_REQUIREMENTS)
+                throw new IOException("line " + number + ": \"" + line + "\" - Input exceeds " + MAX_REQUIREMENTS + " requirements.");
+            if(count == hosts.length)
+                hosts = Arrays.copyOf(hosts, count * 2);
+            hosts[count++] = quantity;
+        }
+        return Arrays.copyOf(hosts, count);
+    }
+
+    /**
+     * Packs the requirements.
+     *
+     * @param parents   candidate parent networks packed along with their prefix lengths (see {@link PackedIPv4}), host
+     *                  bits are ignored; they may not overlap
+     * @param hosts     number of hosts of every subnet, positive
+     * @return          the best plan found within the time budget
+     */
+    public PackingPlan solve(long[] parents, int[] hosts) {
+        if(hosts.length > MAX_REQUIREMENTS)
+            throw new IllegalArgumentException("Packing exceeds " + MAX_REQUIREMENTS + " requirements");
+        long[] normalized = new long[parents.length];
+        long total = 0;
+        for(int i = 0; i < parents.length; i++) {
+            normalized[i] = PackedIPv4.pack(PackedIPv4.network(parents[i]), PackedIPv4.prefix(parents[i]));
+            total += PackedIPv4.addressCount(parents[i]);
+        }
+        if(CidrSet.of(normalized).addressCount() != total)
+            throw new IllegalArgumentException("Parent networks overlap");
+
+        Problem problem = new Problem(normalized, hosts, System.nanoTime() + budget);
+        Packing best = pool.invoke(new Search(problem, 0, Math.max(1, pool.getParallelism())));
+        return problem.plan(best);
+    }
+
+    /**
+     * Requirements and parents, shared by the workers.
+     */
+    private static final class Problem {
+        /** Parent networks, host bits cleared */
+        private final long[] parents;
+        /** Number of hosts of every requirement */
+        private final int[] hosts;
+        /** Requirements, the largest block first */
+        private final int[] order;
+        /** Size of the block of every requirement, in the order of the requirements */
+        private final long[] sizes;
+        /** Total size of the blocks from every requirement on, in the order of the requirements */
+        private final long[] rests;
+        /** Number of addresses of every parent */
+        private final long[] capacities;
+        /** Moment the exploration ends at, in nanoseconds */
+        private final long deadline;
+        /** Number of candidate packings explored */
+        private final AtomicLong explored = new AtomicLong();
+        /** Set once a packing wasting no space is found */
+        private volatile boolean optimal;
+
+        Problem(long[] parents, int[] hosts, long deadline) {
+            this.parents = parents;
+            this.hosts = hosts;
+            this.deadline = deadline;
+            long[] keys = new long[hosts.length];
+            for(int i = 0; i < hosts.length; i++)
+                keys[i] = (long) VlsmPlanner.prefix(hosts[i]) << INDEX_BITS | i;
+            Arrays.sort(keys);
+            order = new int[hosts.length];
+            sizes = new long[hosts.length];
+            for(int i = 0; i < keys.length; i++) {
+                order[i] = (int) keys[i];
+                sizes[i] = 1L << (PackedIPv4.BITS - (int) (keys[i] >> INDEX_BITS));
+            }
+            rests = new long[hosts.length + 1];
+            for(int i = hosts.length - 1; i >= 0; i--)
+                rests[i] = rests[i + 1] + sizes[i];
+            capacities = new long[parents.length];
+            for(int i = 0; i < parents.length; i++)
+                capacities[i] = PackedIPv4.addressCount(parents[i]);
+        }
+
+        /**
+         * Chooses the parent of every block, largest first - the parent in use of the least room left; if none of them
+         * fits, the smallest unused parent holding all the remaining blocks, or the largest unused one. With the given
+         * probability, a random fitting parent instead.
+         *
+         * @param choices   receives the parent of every block, in the order of the requirements
+         * @param used      receives the number of addresses used within every parent
+         * @return          ranking of the packing
+         */
+        Packing pack(SplittableRandom random, double noise, int[] choices, long[] used) {
+            Arrays.fill(used, 0);
+            long unplaced = 0;
+            for(int i = 0; i < order.length; i++) {
+                long size = sizes[i];
+                boolean sampling = noise > 0 && random.nextDouble() < noise;
+                int sampled = -1;
+                int fitting = 0;
+                int tightest = -1;
+                int holding = -1;
+                int largest = -1;
+                for(int parent = 0; parent < capacities.length; parent++) {
+                    long room = capacities[parent] - used[parent];
+                    if(room < size)
+                        continue;
+                    if(sampling && random.nextInt(++fitting) == 0)     // Uniform sample of the fitting parents
+                        sampled = parent;
+                    if(used[parent] > 0) {
+                        if(tightest < 0 || room < capacities[tightest] - used[tightest])
+                            tightest = parent;
+                    } else {
+                        if(room >= rests[i] && (holding < 0 || room < capacities[holding]))
+                            holding = parent;
+                        if(largest < 0 || room > capacities[largest])
+                            largest = parent;
+                    }
+                }
+                int choice = sampling ? sampled : tightest >= 0 ? tightest : holding >= 0 ? holding : largest;
+                choices[i] = choice;
+                if(choice < 0)
+                    unplaced += size;
+                else used[choice] += size;
+            }
+            explored.incrementAndGet();
+
+            long wasted = 0;
+            int blocks = 0;
+            for(int parent = 0; parent < capacities.length; parent++)
+                if(used[parent] > 0) {
+                    wasted += capacities[parent] - used[parent];
+                    blocks += Long.bitCount(capacities[parent] - used[parent]);     // Free space follows the blocks
+                }
+            return new Packing(null, unplaced, wasted, blocks);
+        }
+
+        /** @return true, if no parent has room left - no packing places more addresses then */
+        boolean full(long[] used) {
+            for(int parent = 0; parent < capacities.length; parent++)
+                if(used[parent] < capacities[parent])
+                    return false;
+            return true;
+        }
+
+        /** @return plan of the packing, blocks placed one after another within every parent */
+        PackingPlan plan(Packing packing) {
+            int[] assignments = new int[hosts.length];
+            long[] networks = new long[hosts.length];
+            Arrays.fill(assignments, -1);
+            Arrays.fill(networks, -1);
+            long[] used = new long[parents.length];
+            int unplaced = 0;
+            long allocated = 0;
+            for(int i = 0; i < order.length; i++) {
+                int parent = packing.choices[i];
+                if(parent < 0) {
+                    unplaced++;
+                    continue;
+                }
+                long start = (PackedIPv4.network(parents[parent]) & 0xFFFFFFFFL) + used[parent];
+                networks[order[i]] = PackedIPv4.pack((int) start, PackedIPv4.BITS - Long.numberOfTrailingZeros(sizes[i]));
+                assignments[order[i]] = parent;
+                used[parent] += sizes[i];
+                allocated += sizes[i];
+            }
+            int usedParents = 0;
+            for(long addresses : used)
+                if(addresses > 0)
+                    usedParents++;
+            return new PackingPlan(parents, hosts, assignments, networks, unplaced, usedParents, allocated,
+                    packing.wasted, packing.blocks, explored.get());
+        }
+    }
+
+    /**
+     * Parent of every block along with the ranking of the packing.
+     */
+    private static final class Packing {
+        /** Parent of every block, in the order of the requirements; -1 for the unplaced ones */
+        private final int[] choices;
+        /** Number of addresses of the unplaced blocks */
+        private final long unplaced;
+        /** Number of free addresses within the parents in use */
+        private final long wasted;
+        /** Number of free blocks within the parents in use */
+        private final int blocks;
+
+        Packing(int[] choices, long unplaced, long wasted, int blocks) {
+            this.choices = choices;
+            this.unplaced = unplaced;
+            this.wasted = wasted;
+            this.blocks = blocks;
+        }
+
+        /** @return true, if the packing ranks above the other one */
+        boolean better(Packing other) {
+            if(unplaced != other.unplaced)
+                return unplaced < other.unplaced;
+            if(wasted != other.wasted)
+                return wasted < other.wasted;
+            return blocks < other.blocks;
+        }
+    }
+
+    /**
+     * Splits the workers in halves, then every worker explores the packings until the deadline.
+     */
+    private static final class Search extends RecursiveTask<Packing> {
+        private static final long serialVersionUID = 1L;
+
+        private final Problem problem;
+        /** The first worker of the task */
+        private final int from;
+        /** The worker following the last one of the task */
+        private final int to;
+
+        Search(Problem problem, int from, int to) {
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Packing compute() {
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Search upper = new Search(problem, middle, to);
+                upper.fork();
+                Packing lower = new Search(problem, from, middle).compute();
+                Packing other = upper.join();
+                return other.better(lower) ? other : lower;
+            }
+
+            SplittableRandom random = new SplittableRandom(SEED + from);
+            int[] choices = new int[problem.order.length];
+            long[] used = new long[problem.parents.length];
+            Packing best = null;
+            int round = 0;
+            do {
+                double noise = from == 0 && round == 0 ? 0 : NOISE[(from + round) % NOISE.length];    // Best fit decreasing first
+                Packing packing = problem.pack(random, noise, choices, used);
+                if(best == null || packing.better(best)) {
+                    best = new Packing(choices.clone(), packing.unplaced, packing.wasted, packing.blocks);
+                    if(best.wasted == 0 && (best.unplaced == 0 || problem.full(used)))
+                        problem.optimal = true;
+                }
+                round++;
+            } while(!problem.optimal && System.nanoTime() < problem.deadline);
+            return best;
+        }
+    }
+}
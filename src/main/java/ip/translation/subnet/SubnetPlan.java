@@ -0,0 +1,314 @@
+package ip.translation.subnet;
+
+import ip.translation.cidr.RangeDecomposer;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Division of a parent network kept up to date edit by edit - adding, removing or
+ * resizing a requirement changes its own block only, the rest of the plan stays.
+ *
+ * Requirements are kept in descending order of their numbers of hosts, the order
+ * they are listed and referred to by, and their blocks in the order of addresses -
+ * both as primitive arrays, edited in place by a binary search and a single array
+ * copy. Blocks are allocated by a {@link BuddyAllocator}, best fit, so the gaps left
+ * by removed requirements are reused; a resized block stays at its address whenever
+ * its buddies are free. Only if the free space is too fragmented to hold a block
+ * while the total fits, the whole plan is recalculated by the {@link VlsmPlanner}.
+ */
+public final class SubnetPlan {
+
+    /** Free space of the parent network */
+    private BuddyAllocator space;
+    /** Number of hosts of every requirement, in descending order */
+    private int[] hosts = new int[16];
+    /** Block of every requirement, packed along with its prefix length, in the order of the requirements */
+    private long[] networks = new long[16];
+    /** Blocks of all the requirements, in the order of addresses */
+    private long[] subnets = new long[16];
+    /** Number of requirements */
+    private int size;
+    /** Total number of hosts of the requirements */
+    private long requestedHosts;
+    /** Number of recalculations of the whole plan */
+    private long replans;
+
+    /**
+     * Constructor, the plan starts empty.
+     *
+     * @param parent    network divided into subnets, packed along with its prefix length (see {@link PackedIPv4}),
+     *                  host bits are ignored
+     */
+    public SubnetPlan(long parent) {
+        space = new BuddyAllocator(parent);
+    }
+
+    /** @return network divided into subnets, packed along with its prefix length, host bits cleared */
+    public long parent() {
+        return space.parent();
+    }
+
+    /** @return number of requirements */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param position  position of the requirement, in descending order of the numbers of hosts
+     * @return          number of hosts of the requirement
+     */
+    public int hosts(int position) {
+        checkPosition(position);
+        return hosts[position];
+    }
+
+    /**
+     * @param position  position of the requirement, in descending order of the numbers of hosts
+     * @return          block of the requirement, packed along with its prefix length
+     */
+    public long network(int position) {
+        checkPosition(position);
+        return networks[position];
+    }
+
+    /**
+     * @param index     index of the block, in the order of addresses
+     * @return          the block, packed along with its prefix length
+     */
+    public long subnet(int index) {
+        checkPosition(index);
+        return subnets[index];
+    }
+
+    /**
+     * Adds the requirement, allocating its block.
+     *
+     * @param hosts     number of hosts, positive
+     * @return          position of the requirement, -1 if its block does not fit the free space - the plan stays intact
+     */
+    public int add(int hosts) {
+        int prefix = prefix(hosts);
+        long block = space.bestFit(prefix);
+        if(block < 0 && space.freeAddresses() >= size(prefix)) {
+            insert(hosts, -1);
+            replan();
+            return lastPosition(hosts);
+        }
+        if(block < 0)
+            return -1;
+        insertSubnet(block);
+        return insert(hosts, block);
+    }
+
+    /**
+     * Removes the requirement, freeing its block.
+     *
+     * @param position  position of the requirement, in descending order of the numbers of hosts
+     * @return          number of hosts of the removed requirement
+     */
+    public int remove(int position) {
+        checkPosition(position);
+        int removed = hosts[position];
+        space.free(networks[position]);
+        removeSubnet(networks[position]);
+        delete(position);
+        return removed;
+    }
+
+    /**
+     * Changes the number of hosts of the requirement - its block stays at the same address if it still fits there,
+     * the requirement moves to the position of the new number of hosts.
+     *
+     * @param position  position of the requirement, in descending order of the numbers of hosts
+     * @param hosts     new number of hosts, positive
+     * @return          new position of the requirement, -1 if its block does not fit the free space - the plan stays
+     *                  intact
+     */
+    public int resize(int position, int hosts) {
+        checkPosition(position);
+        int prefix = prefix(hosts);
+        long previous = networks[position];
+        space.free(previous);
+        long block = PackedIPv4.pack(PackedIPv4.network(PackedIPv4.pack(PackedIPv4.address(previous), prefix)), prefix);
+        if(!space.allocate(block))          // The same address - within the previous block, or containing it
+            block = space.bestFit(prefix);
+        if(block < 0 && space.freeAddresses() < size(prefix)) {
+            space.allocate(previous);
+            return -1;
+        }
+        removeSubnet(previous);
+        delete(position);
+        if(block < 0) {
+            insert(hosts, -1);
+            replan();
+            return lastPosition(hosts);
+        }
+        insertSubnet(block);
+        return insert(hosts, block);
+    }
+
+    /**
+     * @return  free space of the parent network, as aligned blocks packed along with their prefix lengths, ordered by
+     *          address
+     */
+    public long[] free() {
+        long[] blocks = new long[Math.max(16, size * 2)];
+        int count = 0;
+        long next = PackedIPv4.network(parent()) & 0xFFFFFFFFL;
+        for(int i = 0; i <= size; i++) {
+            long start = i < size ? PackedIPv4.address(subnets[i]) & 0xFFFFFFFFL
+                    : (PackedIPv4.network(parent()) & 0xFFFFFFFFL) + PackedIPv4.addressCount(parent());
+            if(start > next) {
+                if(blocks.length - count < RangeDecomposer.MAX_BLOCKS)
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2 + RangeDecomposer.MAX_BLOCKS);
+                count += RangeDecomposer.decompose((int) next, (int) (start - 1), blocks, count);
+            }
+            if(i < size)
+                next = start + PackedIPv4.addressCount(subnets[i]);
+        }
+        return Arrays.copyOf(blocks, count);
+    }
+
+    /** @return total number of hosts of the requirements */
+    public long requestedHosts() {
+        return requestedHosts;
+    }
+
+    /** @return number of addresses of all the blocks */
+    public long allocatedAddresses() {
+        return space.allocatedAddresses();
+    }
+
+    /** @return number of free addresses */
+    public long freeAddresses() {
+        return space.freeAddresses();
+    }
+
+    /** @return the largest free block packed along with its prefix length, -1 if there is no free address */
+    public long largestFree() {
+        return space.largestFree();
+    }
+
+    /** @return part of the free addresses outside of the largest free block, within [0 - 1) scope */
+    public double fragmentation() {
+        return space.fragmentation();
+    }
+
+    /** @return part of the addresses of the parent network taken by the blocks, within [0 - 1] scope */
+    public double utilization() {
+        return (double) space.allocatedAddresses() / PackedIPv4.addressCount(parent());
+    }
+
+    /** @return number of times the whole plan has been recalculated, as the free space was too fragmented */
+    public long replans() {
+        return replans;
+    }
+
+    /**
+     * Places all the blocks anew, largest first, from the beginning of the parent network.
+     */
+    private void replan() {
+        VlsmPlan plan = VlsmPlanner.plan(parent(), Arrays.copyOf(hosts, size));
+        space = new BuddyAllocator(parent());
+        for(int i = 0; i < size; i++) {
+            networks[i] = plan.network(i);
+            space.allocate(networks[i]);
+            subnets[i] = plan.network(plan.requirement(i));
+        }
+        replans++;
+    }
+
+    /**
+     * Inserts the requirement after the ones of the same or greater number of hosts.
+     *
+     * @return  position of the requirement
+     */
+    private int insert(int quantity, long block) {
+        reserve();
+        int position = lastPosition(quantity) + 1;
+        System.arraycopy(hosts, position, hosts, position + 1, size - position);
+        System.arraycopy(networks, position, networks, position + 1, size - position);
+        hosts[position] = quantity;
+        networks[position] = block;
+        size++;
+        requestedHosts += quantity;
+        return position;
+    }
+
+    /** Makes room for another requirement */
+    private void reserve() {
+        if(size == hosts.length) {
+            hosts = Arrays.copyOf(hosts, size * 2);
+            networks = Arrays.copyOf(networks, size * 2);
+            subnets = Arrays.copyOf(subnets, size * 2);
+        }
+    }
+
+    private void delete(int position) {
+        requestedHosts -= hosts[position];
+        System.arraycopy(hosts, position + 1, hosts, position, size - position - 1);
+        System.arraycopy(networks, position + 1, networks, position, size - position - 1);
+        size--;
+    }
+
+    /** Inserts the block into the address order, before its requirement is inserted */
+    private void insertSubnet(long block) {
+        reserve();
+        int index = -subnetIndex(block) - 1;
+        System.arraycopy(subnets, index, subnets, index + 1, size - index);
+        subnets[index] = block;
+    }
+
+    private void removeSubnet(long block) {
+        int index = subnetIndex(block);
+        System.arraycopy(subnets, index + 1, subnets, index, size - index - 1);
+    }
+
+    /** @return index of the block within the address order, {@code -(insertion point) - 1} if it is absent */
+    private int subnetIndex(long block) {
+        long address = PackedIPv4.address(block) & 0xFFFFFFFFL;
+        int low = 0;
+        int high = size - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = PackedIPv4.address(subnets[middle]) & 0xFFFFFFFFL;
+            if(current < address)
+                low = middle + 1;
+            else if(current > address)
+                high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    /** @return the last position of the requirement of the same or greater number of hosts, -1 if there is none */
+    private int lastPosition(int quantity) {
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(hosts[middle] >= quantity)
+                low = middle + 1;
+            else high = middle;
+        }
+        return low - 1;
+    }
+
+    /** @return prefix length of the block of the hosts, verified against the parent network */
+    private int prefix(int hosts) {
+        int prefix = VlsmPlanner.prefix(hosts);
+        if(prefix < PackedIPv4.prefix(parent()))
+            throw new IllegalArgumentException("Block of " + hosts + " hosts exceeds the parent network");
+        return prefix;
+    }
+
+    private static long size(int prefix) {
+        return 1L << (PackedIPv4.BITS - prefix);
+    }
+
+    private void checkPosition(int position) {
+        if(position < 0 || position >= size)
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size + " requirements");
+    }
+}
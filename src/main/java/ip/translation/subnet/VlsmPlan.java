@@ -0,0 +1,93 @@
+package ip.translation.subnet;
+
+import ip.translation.core.PackedIPv4;
+
+/**
+ * Outcome of {@link VlsmPlanner} - the subnet of every requirement, the space left
+ * free and the utilization of the parent network. Immutable.
+ */
+public final class VlsmPlan {
+
+    /** Network divided into the subnets, packed along with its prefix length */
+    private final long parent;
+    /** Subnet of every requirement, packed along with its prefix length; -1 for the unplaced ones */
+    private final long[] networks;
+    /** Indexes of the placed requirements, ordered by the addresses of their subnets */
+    private final int[] placed;
+    /** Free space of the parent network, as aligned blocks ordered by address */
+    private final long[] free;
+    /** Number of hosts requested by the placed requirements */
+    private final long requestedHosts;
+    /** Number of addresses of the placed subnets */
+    private final long allocatedAddresses;
+
+    VlsmPlan(long parent, long[] networks, int[] placed, long[] free, long requestedHosts, long allocatedAddresses) {
+        this.parent = parent;
+        this.networks = networks;
+        this.placed = placed;
+        this.free = free;
+        this.requestedHosts = requestedHosts;
+        this.allocatedAddresses = allocatedAddresses;
+    }
+
+    /** @return network divided into the subnets, packed along with its prefix length, host bits cleared */
+    public long parent() {
+        return parent;
+    }
+
+    /** @return number of requirements */
+    public int requirements() {
+        return networks.length;
+    }
+
+    /**
+     * @param requirement   index of the requirement
+     * @return              its subnet packed along with the prefix length, -1 if it did not fit the parent network
+     */
+    public long network(int requirement) {
+        return networks[requirement];
+    }
+
+    /** @return number of placed requirements */
+    public int placed() {
+        return placed.length;
+    }
+
+    /**
+     * @param position  position of the subnet within the parent network, within [0 - placed) scope
+     * @return          index of the requirement the subnet belongs to
+     */
+    public int requirement(int position) {
+        return placed[position];
+    }
+
+    /** @return free space of the parent network, as aligned blocks packed along with their prefix lengths */
+    public long[] free() {
+        return free.clone();
+    }
+
+    /** @return number of hosts requested by the placed requirements */
+    public long requestedHosts() {
+        return requestedHosts;
+    }
+
+    /** @return number of addresses of the placed subnets, including network and broadcast addresses */
+    public long allocatedAddresses() {
+        return allocatedAddresses;
+    }
+
+    /** @return number of addresses left free */
+    public long freeAddresses() {
+        return PackedIPv4.addressCount(parent) - allocatedAddresses;
+    }
+
+    /** @return part of the parent network allocated to the subnets, within [0 - 1] scope */
+    public double utilization() {
+        return (double) allocatedAddresses / PackedIPv4.addressCount(parent);
+    }
+
+    /** @return part of the allocated addresses requested as hosts, within [0 - 1] scope */
+    public double hostUtilization() {
+        return allocatedAddresses == 0 ? 0 : (double) requestedHosts / allocatedAddresses;
+    }
+}
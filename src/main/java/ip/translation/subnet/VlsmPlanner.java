@@ -0,0 +1,81 @@
+package ip.translation.subnet;
+
+import ip.translation.cidr.RangeDecomposer;
+import ip.translation.core.PackedIPv4;
+
+import java.util.Arrays;
+
+/**
+ * Utility class, dividing a parent network into subnets of variable length (VLSM),
+ * each able to contain the requested number of hosts besides its network and
+ * broadcast address.
+ *
+ * Every requirement is rounded up to the smallest block holding it, then the blocks
+ * are placed from the beginning of the parent network, the largest ones first.
+ * Sizes are powers of two, so every block placed right after a larger one is
+ * aligned, and the blocks fit the parent network whenever their total size does -
+ * the plan takes O(n log n) time, the sort, and works on primitive ints only.
+ * Blocks which do not fit are left unplaced, smaller ones are placed nonetheless.
+ */
+public final class VlsmPlanner {
+
+    /** Number of bits the index of the requirement takes in a sort key */
+    private static final int INDEX_BITS = 32;
+
+    /**
+     * Constructor
+     */
+    private VlsmPlanner() {}
+
+    /**
+     * @param hosts     number of hosts, positive
+     * @return          prefix length of the smallest network holding the hosts, its network and broadcast address
+     */
+    public static int prefix(int hosts) {
+        if(hosts < 1)
+            throw new IllegalArgumentException("Number of hosts has to be positive");
+        return PackedIPv4.BITS - (Long.SIZE - Long.numberOfLeadingZeros(hosts + 1L));
+    }
+
+    /**
+     * Plans the subnets.
+     *
+     * @param parent    network divided into subnets, packed along with its prefix length (see {@link PackedIPv4}),
+     *                  host bits are ignored
+     * @param hosts     number of hosts of every subnet, positive
+     * @return          the plan
+     */
+    public static VlsmPlan plan(long parent, int[] hosts) {
+        long[] order = new long[hosts.length];
+        for(int i = 0; i < hosts.length; i++)       // The largest block, then the lowest index first
+            order[i] = (long) prefix(hosts[i]) << INDEX_BITS | i;
+        Arrays.sort(order);
+
+        int parentPrefix = PackedIPv4.prefix(parent);
+        long next = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        long limit = next + PackedIPv4.addressCount(parent);
+        long[] networks = new long[hosts.length];
+        Arrays.fill(networks, -1);
+        int[] placed = new int[hosts.length];
+        int count = 0;
+        long requested = 0;
+        for(long key : order) {
+            int index = (int) key;
+            int prefix = (int) (key >> INDEX_BITS);
+            if(prefix < parentPrefix)       // Larger than the parent network
+                continue;
+            long size = 1L << (PackedIPv4.BITS - prefix);
+            if(next + size > limit)
+                continue;
+            networks[index] = PackedIPv4.pack((int) next, prefix);
+            placed[count++] = index;
+            requested += hosts[index];
+            next += size;
+        }
+
+        long start = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        long[] free = next == limit ? new long[0] : RangeDecomposer.decompose((int) next, (int) (limit - 1));
+        return new VlsmPlan(PackedIPv4.pack((int) start, parentPrefix), networks, Arrays.copyOf(placed, count),
+                free, requested, next - start);
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.input.processing.AddressAutomaton;
+import ip.translation.input.processing.ByteSequence;
+
+import java.nio.charset.StandardCharsets;
+
+public class AddressAutomatonTest {
+
+    @Test
+    public void testAddress() {
+        assertEquals(PackedIPv4.pack(0xC0A80101, 32), AddressAutomaton.parseAddress("192.168.1.1"));
+        assertEquals(PackedIPv4.pack(0, 32), AddressAutomaton.parseAddress(" 0.0.0.0\r"));
+        assertEquals(AddressAutomaton.UNEXPECTED_CHARACTER, AddressAutomaton.parseAddress("-92.163.111.123"));
+        assertEquals(AddressAutomaton.SEGMENT_LENGTH, AddressAutomaton.parseAddress("1..2.3"));
+        assertEquals(AddressAutomaton.SEGMENT_LENGTH, AddressAutomaton.parseAddress("1.2.3.4444"));
+        assertEquals(AddressAutomaton.SEGMENT_VALUE, AddressAutomaton.parseAddress("1.2.3.256"));
+        assertEquals(AddressAutomaton.SEGMENT_COUNT, AddressAutomaton.parseAddress("1.2.3"));
+        assertEquals(AddressAutomaton.SEGMENT_COUNT, AddressAutomaton.parseAddress("1.2.3.4.5"));
+        assertEquals(AddressAutomaton.UNEXPECTED_CHARACTER, AddressAutomaton.parseAddress("1.2.3.4/8"));
+        assertEquals(AddressAutomaton.EMPTY, AddressAutomaton.parseAddress("  "));
+    }
+
+    @Test
+    public void testMask() {
+        assertEquals(24, PackedIPv4.prefix(AddressAutomaton.parseMask("255.255.255.0")));
+        assertEquals(0xFFFFFF00, PackedIPv4.address(AddressAutomaton.parseMask("/24")));
+        assertEquals(0xFFFF0000, PackedIPv4.address(AddressAutomaton.parseMask("16")));
+        assertEquals(AddressAutomaton.MASK_NOT_CONTIGUOUS, AddressAutomaton.parseMask("255.0.255.0"));
+        assertEquals(AddressAutomaton.PREFIX_VALUE, AddressAutomaton.parseMask("/33"));
+        assertEquals(AddressAutomaton.PREFIX_VALUE, AddressAutomaton.parseMask("/"));
+    }
+
+    @Test
+    public void testNetwork() {
+        long expected = PackedIPv4.pack(0x0A000001, 8);
+        assertEquals(expected, AddressAutomaton.parseNetwork("10.0.0.1/8"));
+        assertEquals(expected, AddressAutomaton.parseNetwork("10.0.0.1 255.0.0.0"));
+        assertEquals(expected, AddressAutomaton.parseNetwork("10.0.0.1\t/8"));
+        assertEquals(expected, AddressAutomaton.parseNetwork("10.0.0.1 8"));
+        assertEquals(PackedIPv4.pack(0x0A000001, 32), AddressAutomaton.parseNetwork("10.0.0.1"));
+        assertEquals(AddressAutomaton.UNEXPECTED_CHARACTER, AddressAutomaton.parseNetwork("10.0.0.1/8 x"));
+    }
+
+    @Test
+    public void testLines() {
+        byte[] bytes = "10.0.0.1/8\n\nbad\n192.168.0.0 255.255.0.0\n".getBytes(StandardCharsets.US_ASCII);
+        ByteSequence input = new ByteSequence(bytes);
+        long[] results = new long[AddressAutomaton.countLines(input)];
+
+        assertEquals(4, AddressAutomaton.parseLines(input, results, 0));
+        assertEquals(PackedIPv4.pack(0x0A000001, 8), results[0]);
+        assertEquals(AddressAutomaton.EMPTY, results[1]);
+        assertEquals(AddressAutomaton.UNEXPECTED_CHARACTER, results[2]);
+        assertEquals(PackedIPv4.pack(0xC0A80000, 16), results[3]);
+    }
+}
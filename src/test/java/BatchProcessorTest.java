@@ -0,0 +1,66 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.batch.BatchProcessor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class BatchProcessorTest {
+
+    @Test
+    public void testResult() throws IOException {
+        StringWriter output = new StringWriter();
+        StringWriter errors = new StringWriter();
+        BatchProcessor.Summary summary = new BatchProcessor(1, 4).process(
+                new BufferedReader(new StringReader("192.168.1.77/26\n\n10.0.0.1 255.255.255.254\n")), output, errors);
+        assertEquals("192.168.1.77/26\t192.168.1.64\t192.168.1.127\t192.168.1.65-192.168.1.126\t62\n"
+                + "10.0.0.1/31\t10.0.0.0\t10.0.0.1\t10.0.0.0-10.0.0.1\t2\n", output.toString());
+        assertEquals("", errors.toString());
+        assertEquals(3, summary.lines());                                   // The blank one included
+        assertEquals(0, summary.invalid());
+    }
+
+    @Test
+    public void testOrderAndInvalidLines() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        StringBuilder expectedErrors = new StringBuilder();
+        for(int i = 0; i < 1000; i++) {
+            if(i % 97 == 13) {                                              // Invalid lines in the middle of chunks
+                input.append("10.0.0.").append(i).append("/33\n");
+                expectedErrors.append("line ").append(i + 1).append(": \"10.0.0.").append(i).append("/33\"");
+                continue;
+            }
+            String address = "10." + (i >>> 8) + "." + (i & 0xFF) + ".1";
+            input.append(address).append("/32\n");
+            expected.append(address).append("/32\t");
+        }
+
+        StringWriter output = new StringWriter();
+        StringWriter errors = new StringWriter();
+        BatchProcessor.Summary summary = new BatchProcessor(4, 7).process(
+                new BufferedReader(new StringReader(input.toString())), output, errors);
+
+        StringBuilder actual = new StringBuilder();
+        for(String line : output.toString().split("\n"))
+            actual.append(line, 0, line.indexOf('\t') + 1);
+        assertEquals(expected.toString(), actual.toString());              // Input order, whatever thread calculated it
+        StringBuilder actualErrors = new StringBuilder();
+        for(String line : errors.toString().split("\n")) {
+            assertTrue(line.contains(" - "));
+            actualErrors.append(line, 0, line.indexOf(" - "));
+        }
+        assertEquals(expectedErrors.toString(), actualErrors.toString());
+        assertEquals(1000, summary.lines());
+        assertEquals(11, summary.invalid());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidChunkSize() {
+        new BatchProcessor(1, 0);
+    }
+}
@@ -0,0 +1,34 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.segment.subsegment.BinarySegment;
+
+public class BinarySegmentTest {
+
+    @Test
+    public void testValueOf() {
+        assertEquals(192, BinarySegment.valueOf("11000000"));
+        assertEquals(0, BinarySegment.valueOf("00000000"));
+        assertEquals(255, BinarySegment.valueOf("11111111"));
+        assertEquals(1, BinarySegment.valueOf("1"));                        // Shorter text is read as a number
+        assertEquals(5, BinarySegment.valueOf("101"));
+    }
+
+    @Test
+    public void testValueOfRejectsNonBinary() {
+        assertEquals(-1, BinarySegment.valueOf(""));
+        assertEquals(-1, BinarySegment.valueOf("100000000"));               // Longer than an octet
+        assertEquals(-1, BinarySegment.valueOf("11002000"));
+        assertEquals(-1, BinarySegment.valueOf("1100 000"));
+    }
+
+    @Test
+    public void testTable() {
+        for(int octet = 0; octet < 256; octet++) {
+            assertEquals(octet, BinarySegment.valueOf(BinarySegment.binary(octet)));
+            assertEquals(255 - octet, BinarySegment.not(octet));
+        }
+        assertEquals("11000000", BinarySegment.binary(192));
+        assertEquals("00000001", BinarySegment.binary(1));
+    }
+}
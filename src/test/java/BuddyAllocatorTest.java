@@ -0,0 +1,170 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+import ip.translation.subnet.BuddyAllocator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BuddyAllocatorTest {
+
+    private static final long PARENT = PackedIPv4.pack(0xC0A80100, 24);
+
+    @Test
+    public void testFirstFit() {
+        BuddyAllocator space = new BuddyAllocator(PackedIPv4.pack(0xC0A80117, 24));     // Host bits ignored
+        assertEquals(PARENT, space.parent());
+        assertEquals(PackedIPv4.pack(0xC0A80100, 26), space.firstFit(26));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 26), space.firstFit(26));
+        assertEquals(PackedIPv4.pack(0xC0A80180, 30), space.firstFit(30));
+        assertEquals(PackedIPv4.pack(0xC0A801C0, 26), space.firstFit(26));
+        assertEquals(-1, space.firstFit(26));
+        assertEquals(256 - 3 * 64 - 4, space.freeAddresses());
+        assertEquals(3 * 64 + 4, space.allocatedAddresses());
+    }
+
+    @Test
+    public void testBestFit() {
+        BuddyAllocator space = new BuddyAllocator(PARENT);
+        long first = space.firstFit(26);
+        space.firstFit(26);
+        space.firstFit(25);
+        assertTrue(space.free(first));                                      // Gap of 64 below a used block
+        assertEquals(PackedIPv4.pack(0xC0A80100, 28), space.bestFit(28));
+        assertEquals(PackedIPv4.pack(0xC0A80110, 28), space.bestFit(28));
+
+        space = new BuddyAllocator(PARENT);
+        space.firstFit(28);                                                 // Leaves /28, /27, /26 and /25 free
+        assertEquals(PackedIPv4.pack(0xC0A80110, 28), space.bestFit(28));    // Exact fit, nothing split
+        assertEquals(PackedIPv4.pack(0xC0A80120, 28), space.bestFit(28));    // The /27 split
+        assertEquals(PackedIPv4.pack(0xC0A80130, 28), space.firstFit(28));
+        assertEquals(PackedIPv4.pack(0xC0A80180, 25), space.largestFree());
+    }
+
+    @Test
+    public void testFreeCoalesces() {
+        BuddyAllocator space = new BuddyAllocator(PARENT);
+        long[] blocks = new long[64];
+        for(int i = 0; i < blocks.length; i++)
+            blocks[i] = space.firstFit(30);
+        assertEquals(0, space.freeAddresses());
+        assertEquals(-1, space.largestFree());
+        assertEquals(0, space.freeBlocks());
+
+        assertTrue(space.free(blocks[1]));
+        assertFalse(space.free(blocks[1]));                                 // Freed already
+        assertTrue(space.free(blocks[2]));                                  // Not a buddy of the first one
+        assertEquals(2, space.freeBlocks());
+        assertEquals(0.5, space.fragmentation(), 1e-9);
+        assertTrue(space.free(blocks[0]));
+        assertTrue(space.free(blocks[3]));
+        assertEquals(1, space.freeBlocks());
+        assertEquals(PackedIPv4.pack(0xC0A80100, 28), space.largestFree());
+        assertEquals(0, space.fragmentation(), 1e-9);
+
+        for(int i = 4; i < blocks.length; i++)
+            assertTrue(space.free(blocks[i]));
+        assertEquals(1, space.freeBlocks());
+        assertEquals(PARENT, space.largestFree());
+        assertEquals(PackedIPv4.pack(0xC0A80100, 24), space.firstFit(24));
+    }
+
+    @Test
+    public void testFreeRejectsForeignBlocks() {
+        BuddyAllocator space = new BuddyAllocator(PARENT);
+        long block = space.firstFit(26);
+        assertFalse(space.free(PackedIPv4.pack(0xC0A80100, 27)));           // Part of an allocated block
+        assertFalse(space.free(PackedIPv4.pack(0xC0A80100, 25)));           // Contains an allocated block
+        assertFalse(space.free(PackedIPv4.pack(0xC0A80200, 26)));           // Outside of the parent
+        assertFalse(space.free(PackedIPv4.pack(0xC0A80140, 26)));           // Free
+        assertTrue(space.free(block));
+    }
+
+    @Test
+    public void testAllocateGiven() {
+        BuddyAllocator space = new BuddyAllocator(PARENT);
+        assertTrue(space.allocate(PackedIPv4.pack(0xC0A80140, 26)));
+        assertFalse(space.allocate(PackedIPv4.pack(0xC0A80150, 28)));       // Within an allocated block
+        assertFalse(space.allocate(PackedIPv4.pack(0xC0A80100, 25)));       // Containing an allocated block
+        assertFalse(space.allocate(PackedIPv4.pack(0x0A000000, 26)));
+        assertEquals(PackedIPv4.pack(0xC0A80100, 26), space.firstFit(26));
+    }
+
+    @Test
+    public void testReserve() {
+        BuddyAllocator space = new BuddyAllocator(PARENT);
+        assertTrue(space.reserve(0xC0A80100, 0xC0A80104));                  // Decomposes into /30 and /32
+        assertEquals(251, space.freeAddresses());
+        assertEquals(0, space.allocatedAddresses());
+        assertEquals(PackedIPv4.pack(0xC0A80105, 32), space.firstFit(32));
+        assertEquals(PackedIPv4.pack(0xC0A80108, 29), space.firstFit(29));
+        assertFalse(space.free(PackedIPv4.pack(0xC0A80100, 30)));           // Reserved, not allocated
+
+        assertFalse(space.reserve(0xC0A80107, 0xC0A8010A));                 // Overlaps an allocated block
+        assertEquals(PackedIPv4.pack(0xC0A80106, 31), space.bestFit(31));    // Nothing reserved by the failed attempt
+        assertTrue(space.reserve(0xC0A801FF, 0xC0A801FF));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 26), space.largestFree());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReserveOutside() {
+        new BuddyAllocator(PARENT).reserve(0xC0A800FF, 0xC0A80100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrefixShorterThanParent() {
+        new BuddyAllocator(PARENT).firstFit(23);
+    }
+
+    @Test
+    public void testWholeSpace() {
+        BuddyAllocator space = new BuddyAllocator(PackedIPv4.pack(0, 0));
+        assertEquals(1L << 32, space.freeAddresses());
+        assertTrue(space.allocate(PackedIPv4.pack(0xFFFFFFFF, 32)));
+        assertEquals(PackedIPv4.pack(0, 1), space.largestFree());
+        assertEquals(PackedIPv4.pack(0xFFFFFFFE, 32), space.bestFit(32));
+        assertEquals(PackedIPv4.pack(0, 1), space.firstFit(1));
+        assertEquals(30, space.freeBlocks());                               // One of every size from /2 to /31
+        assertEquals((1L << 31) - 2, space.freeAddresses());
+    }
+
+    @Test
+    public void testRandomChurn() {
+        Random random = new Random(20);
+        long parent = PackedIPv4.pack(0x0A000000, 12);
+        BuddyAllocator space = new BuddyAllocator(parent);
+        List<Long> live = new ArrayList<>();
+        for(int round = 0; round < 20000; round++) {
+            if(!live.isEmpty() && random.nextInt(3) == 0)
+                assertTrue(space.free(live.remove(random.nextInt(live.size()))));
+            else {
+                int prefix = 16 + random.nextInt(17);
+                long block = random.nextBoolean() ? space.firstFit(prefix) : space.bestFit(prefix);
+                if(block >= 0)
+                    live.add(block);
+            }
+        }
+
+        long[] blocks = new long[live.size()];
+        long allocated = 0;
+        for(int i = 0; i < blocks.length; i++) {
+            blocks[i] = live.get(i);
+            allocated += PackedIPv4.addressCount(blocks[i]);
+        }
+        assertEquals(allocated, CidrSet.of(blocks).addressCount());           // No block handed out twice
+        assertEquals(allocated, space.allocatedAddresses());
+        assertEquals(PackedIPv4.addressCount(parent) - allocated, space.freeAddresses());
+        long largest = space.largestFree();
+        assertTrue(CidrSet.of(largest).intersection(CidrSet.of(blocks)).isEmpty());
+
+        for(long block : blocks)
+            assertTrue(space.free(block));
+        assertEquals(parent, space.largestFree());
+        assertEquals(1, space.freeBlocks());
+    }
+}
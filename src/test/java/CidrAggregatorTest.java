@@ -0,0 +1,101 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.cidr.CidrAggregator;
+import ip.translation.core.PackedIPv4;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.BitSet;
+import java.util.Random;
+
+public class CidrAggregatorTest {
+
+    /** Addresses of the networks, all of them within 10.0.0.0/16 */
+    private static BitSet covered(long[] networks) {
+        BitSet addresses = new BitSet(1 << 16);
+        for(long network : networks)
+            addresses.set(PackedIPv4.network(network) & 0xFFFF, (PackedIPv4.network(network) & 0xFFFF)
+                    + (int) PackedIPv4.addressCount(network));
+        return addresses;
+    }
+
+    private static long[] random(Random random, int count) {
+        long[] networks = new long[count];
+        for(int i = 0; i < count; i++)      // Host bits left on purpose
+            networks[i] = PackedIPv4.pack(0x0A000000 | random.nextInt(1 << 16), 16 + random.nextInt(17));
+        return networks;
+    }
+
+    /** Sorted, disjoint, without mergeable siblings and covering the same addresses */
+    private static void verify(long[] input, long[] output) {
+        assertEquals(covered(input), covered(output));
+        for(int i = 1; i < output.length; i++) {
+            long previous = output[i - 1];
+            assertTrue(Integer.compareUnsigned(PackedIPv4.broadcast(previous), PackedIPv4.network(output[i])) < 0);
+            assertTrue(PackedIPv4.prefix(previous) != PackedIPv4.prefix(output[i])
+                    || (PackedIPv4.network(previous) ^ PackedIPv4.network(output[i])) != (int) PackedIPv4.addressCount(previous));
+        }
+        for(long network : output)
+            assertEquals(PackedIPv4.network(network), PackedIPv4.address(network));
+    }
+
+    @Test
+    public void testSiblings() {
+        long[] networks = {
+                PackedIPv4.pack(0x0A000080, 25), PackedIPv4.pack(0x0A000000, 25),
+                PackedIPv4.pack(0x0A000100, 24), PackedIPv4.pack(0x0A000105, 32),
+                PackedIPv4.pack(0x0A000100, 24), PackedIPv4.pack(0xC0A80000, 16)};
+        long[] expected = {PackedIPv4.pack(0x0A000000, 23), PackedIPv4.pack(0xC0A80000, 16)};
+        assertArrayEquals(expected, new CidrAggregator().aggregate(networks));
+    }
+
+    @Test
+    public void testWholeSpace() {
+        long[] networks = {PackedIPv4.pack(0x80000000, 1), PackedIPv4.pack(0, 1), PackedIPv4.pack(0xFFFFFFFF, 32)};
+        assertArrayEquals(new long[] {PackedIPv4.pack(0, 0)}, new CidrAggregator().aggregate(networks));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(3);
+        for(int round = 0; round < 50; round++) {
+            long[] input = random(random, 1 + random.nextInt(3000));
+            verify(input, new CidrAggregator().aggregate(input));
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        Random random = new Random(5);
+        for(int round = 0; round < 20; round++) {
+            long[] input = random(random, 20000 + random.nextInt(20000));
+            long[] sequential = new CidrAggregator(Integer.MAX_VALUE).aggregate(input);
+            verify(input, sequential);
+            assertArrayEquals(sequential, new CidrAggregator(1 + random.nextInt(500)).aggregate(input));
+        }
+    }
+
+    @Test
+    public void testText() throws IOException {
+        String input = "10.0.0.0/25\n\n10.0.0.128 255.255.255.128\n10.0.1.7\n172.16.5.9/12\n";
+        StringWriter output = new StringWriter();
+        long read = new CidrAggregator().aggregate(new BufferedReader(new StringReader(input)), output);
+        assertEquals(4, read);
+        String separator = System.lineSeparator();
+        assertEquals("10.0.0.0/24" + separator + "10.0.1.7/32" + separator + "172.16.0.0/12" + separator,
+                output.toString());
+
+        try {
+            new CidrAggregator().aggregate(new BufferedReader(new StringReader("10.0.0.0/8\n10.0.0/8\n")), output);
+            fail();
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().startsWith("line 2: \"10.0.0/8\""));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class CidrSetTest {
+
+    /** Parent network of every random set */
+    private static final long PARENT = PackedIPv4.pack(0x0A000000, 16);
+
+    private static long[] random(Random random, int count) {
+        long[] networks = new long[count];
+        for(int i = 0; i < count; i++)
+            networks[i] = PackedIPv4.pack(0x0A000000 | random.nextInt(1 << 16), 18 + random.nextInt(15));
+        return networks;
+    }
+
+    /** Addresses of the networks, all of them within 10.0.0.0/16 */
+    private static BitSet reference(long[] networks) {
+        BitSet addresses = new BitSet(1 << 16);
+        for(long network : networks)
+            addresses.set(PackedIPv4.network(network) & 0xFFFF, (PackedIPv4.network(network) & 0xFFFF)
+                    + (int) PackedIPv4.addressCount(network));
+        return addresses;
+    }
+
+    private static void assertSet(BitSet expected, CidrSet actual) {
+        assertEquals(expected.cardinality(), actual.addressCount());
+        for(int address = 0; address < 1 << 16; address++)
+            assertEquals(expected.get(address), actual.contains(0x0A000000 | address));
+        assertEquals(actual, CidrSet.of(actual.toCidrs()));
+    }
+
+    @Test
+    public void testAlgebra() {
+        Random random = new Random(13);
+        for(int round = 0; round < 30; round++) {
+            long[] first = random(random, random.nextInt(400));
+            long[] second = random(random, random.nextInt(400));
+            CidrSet firstSet = CidrSet.of(first);
+            CidrSet secondSet = CidrSet.of(second);
+
+            BitSet expected = reference(first);
+            expected.or(reference(second));
+            assertSet(expected, firstSet.union(secondSet));
+
+            expected = reference(first);
+            expected.and(reference(second));
+            assertSet(expected, firstSet.intersection(secondSet));
+
+            expected = reference(first);
+            expected.andNot(reference(second));
+            assertSet(expected, firstSet.difference(secondSet));
+
+            expected = reference(first);
+            expected.flip(0, 1 << 16);
+            assertSet(expected, firstSet.complement(PARENT));
+        }
+    }
+
+    @Test
+    public void testBoundaries() {
+        CidrSet whole = CidrSet.of(PackedIPv4.pack(0, 0));
+        assertEquals(1L << 32, whole.addressCount());
+        assertTrue(whole.contains(0xFFFFFFFF));
+        assertTrue(whole.complement(PackedIPv4.pack(0, 0)).isEmpty());
+        assertEquals(whole, CidrSet.range(0, 0x7FFFFFFF).union(CidrSet.range(0x80000000, 0xFFFFFFFF)));
+        assertEquals(1, CidrSet.range(0, 0x7FFFFFFF).union(CidrSet.range(0x80000000, 0xFFFFFFFF)).intervals());
+
+        CidrSet allowed = CidrSet.of(PackedIPv4.pack(0x0A000000, 8));
+        CidrSet blocked = CidrSet.of(PackedIPv4.pack(0x0A000000, 9), PackedIPv4.pack(0x0AFF0000, 16));
+        CidrSet policy = allowed.difference(blocked);
+        assertArrayEquals(new long[] {
+                PackedIPv4.pack(0x0A800000, 10), PackedIPv4.pack(0x0AC00000, 11), PackedIPv4.pack(0x0AE00000, 12),
+                PackedIPv4.pack(0x0AF00000, 13), PackedIPv4.pack(0x0AF80000, 14), PackedIPv4.pack(0x0AFC0000, 15),
+                PackedIPv4.pack(0x0AFE0000, 16)}, policy.toCidrs());
+        assertFalse(policy.contains(0x0A7FFFFF));
+        assertTrue(policy.contains(0x0A800000));
+        assertFalse(policy.contains(0x0AFF0000));
+        assertEquals("[10.0.0.0/8]", policy.union(blocked).toString());
+        assertTrue(CidrSet.empty().union(CidrSet.empty()).isEmpty());
+    }
+}
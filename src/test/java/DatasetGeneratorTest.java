@@ -0,0 +1,50 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.core.PackedIPv4;
+import ip.translation.dataset.DatasetGenerator;
+import ip.translation.input.processing.AddressAutomaton;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class DatasetGeneratorTest {
+
+    long rows = DatasetGenerator.BLOCK_ROWS * 2 + 100;
+
+    private byte[] generate(DatasetGenerator.Kind kind, int threads, boolean binary) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new DatasetGenerator(42, threads, 0.25).write(kind, rows, binary, output);
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testDeterminism() throws IOException {
+        assertArrayEquals(generate(DatasetGenerator.Kind.ROUTES, 1, false), generate(DatasetGenerator.Kind.ROUTES, 4, false));
+        assertEquals(rows * 8, generate(DatasetGenerator.Kind.PREFIXES, 3, true).length);
+    }
+
+    @Test
+    public void testPrefixesAreNetworks() throws IOException {
+        String[] lines = new String(generate(DatasetGenerator.Kind.PREFIXES, 2, false), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(rows, lines.length);
+        for(String line : lines) {
+            long network = AddressAutomaton.parseNetwork(line);
+            assertTrue(AddressAutomaton.isValid(network));
+            assertEquals(PackedIPv4.network(network), PackedIPv4.address(network));
+        }
+    }
+
+    @Test
+    public void testMalformedRate() throws IOException {
+        String[] lines = new String(generate(DatasetGenerator.Kind.MALFORMED, 2, false), StandardCharsets.US_ASCII).split("\n");
+        int invalid = 0;
+        for(String line : lines)
+            if(!AddressAutomaton.isValid(AddressAutomaton.parseNetwork(line)))
+                invalid++;
+        assertEquals(0.25, invalid / (double) lines.length, 0.01);
+    }
+}
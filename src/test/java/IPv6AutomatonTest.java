@@ -0,0 +1,139 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.core.PackedIPv6;
+import ip.translation.input.processing.AddressAutomaton;
+import ip.translation.input.processing.ByteSequence;
+import ip.translation.input.processing.IPv6Automaton;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class IPv6AutomatonTest {
+
+    private final long[] address = new long[2];
+
+    @Test
+    public void testAddress() {
+        assertEquals(128, IPv6Automaton.parseAddress("2001:DB8::1", address, 0));
+        assertArrayEquals(new long[] {0x20010DB800000000L, 1}, address);
+        IPv6Automaton.parseAddress(" 1:2:3:4:5:6:7:8\r", address, 0);
+        assertArrayEquals(new long[] {0x0001000200030004L, 0x0005000600070008L}, address);
+        IPv6Automaton.parseAddress("::", address, 0);
+        assertArrayEquals(new long[] {0, 0}, address);
+        IPv6Automaton.parseAddress("1::", address, 0);
+        assertArrayEquals(new long[] {0x0001000000000000L, 0}, address);
+        IPv6Automaton.parseAddress("1:2:3:4:5::7:8", address, 0);
+        assertArrayEquals(new long[] {0x0001000200030004L, 0x0005000000070008L}, address);
+        IPv6Automaton.parseAddress("0001:02:003::", address, 0);
+        assertArrayEquals(new long[] {0x0001000200030000L, 0}, address);
+    }
+
+    @Test
+    public void testEmbeddedIPv4() {
+        IPv6Automaton.parseAddress("::ffff:192.0.2.1", address, 0);
+        assertArrayEquals(new long[] {0, 0x0000FFFFC0000201L}, address);
+        IPv6Automaton.parseAddress("64:ff9b::10.0.0.1", address, 0);
+        assertArrayEquals(new long[] {0x0064FF9B00000000L, 0x000000000A000001L}, address);
+        IPv6Automaton.parseAddress("1:2:3:4:5:6:1.2.3.4", address, 0);
+        assertArrayEquals(new long[] {0x0001000200030004L, 0x0005000601020304L}, address);
+        assertEquals(IPv6Automaton.SEGMENT_VALUE, IPv6Automaton.parseAddress("::1.2.3.256", address, 0));
+        assertEquals(IPv6Automaton.SEGMENT_VALUE, IPv6Automaton.parseAddress("::1.2.3", address, 0));
+        assertEquals(IPv6Automaton.SEGMENT_VALUE, IPv6Automaton.parseAddress("::1.2.3.4.5", address, 0));
+        assertEquals(IPv6Automaton.GROUP_COUNT, IPv6Automaton.parseAddress("1:2:3:4:5:6:7:1.2.3.4", address, 0));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parseAddress("::1.2.3.4:5", address, 0));
+    }
+
+    @Test
+    public void testZoneAndPrefix() {
+        String text = "  fe80::1%eth0";                                 // Leading whitespace counts
+        long result = IPv6Automaton.parseAddress(text, address, 0);
+        assertEquals(128, IPv6Automaton.prefix(result));
+        assertEquals(10, IPv6Automaton.zoneStart(result));
+        assertEquals(4, IPv6Automaton.zoneLength(result));
+        assertEquals("eth0", text.substring(IPv6Automaton.zoneStart(result),
+                IPv6Automaton.zoneStart(result) + IPv6Automaton.zoneLength(result)));
+        result = IPv6Automaton.parseNetwork("x fe80::1%en0 /64", 1, 17, address, 0);   // Relative to the range
+        assertEquals(64, IPv6Automaton.prefix(result));
+        assertEquals(9, IPv6Automaton.zoneStart(result));
+        assertEquals(3, IPv6Automaton.zoneLength(result));
+        assertEquals(IPv6Automaton.ZONE, IPv6Automaton.parseAddress("fe80::1%", address, 0));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parseAddress("2001:db8::/32", address, 0));
+
+        assertEquals(32, IPv6Automaton.parseNetwork("2001:db8::/32", address, 0));
+        assertEquals(64, IPv6Automaton.prefix(IPv6Automaton.parseNetwork("fe80::%2/64", address, 0)));
+        assertEquals(48, IPv6Automaton.parseNetwork("2001:db8:: /48", address, 0));
+        assertEquals(48, IPv6Automaton.parseNetwork("2001:db8::\t48", address, 0));
+        assertEquals(IPv6Automaton.PREFIX_VALUE, IPv6Automaton.parseNetwork("::/129", address, 0));
+        assertEquals(IPv6Automaton.PREFIX_VALUE, IPv6Automaton.parseNetwork("::/", address, 0));
+        assertEquals(64, IPv6Automaton.parsePrefix("/64"));
+        assertEquals(0, IPv6Automaton.parsePrefix(" 0 "));
+        assertEquals(IPv6Automaton.PREFIX_VALUE, IPv6Automaton.parsePrefix("0128"));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parsePrefix("/6a"));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertEquals(IPv6Automaton.EMPTY, IPv6Automaton.parseAddress(" ", address, 0));
+        assertEquals(IPv6Automaton.GROUP_LENGTH, IPv6Automaton.parseAddress(":", address, 0));
+        assertEquals(IPv6Automaton.GROUP_LENGTH, IPv6Automaton.parseAddress(":1:2:3:4:5:6:7", address, 0));
+        assertEquals(IPv6Automaton.GROUP_LENGTH, IPv6Automaton.parseAddress("1:2:3:4:5:6:7:", address, 0));
+        assertEquals(IPv6Automaton.GROUP_LENGTH, IPv6Automaton.parseAddress("12345::", address, 0));
+        assertEquals(IPv6Automaton.GROUP_COUNT, IPv6Automaton.parseAddress("1:2:3:4:5:6:7", address, 0));
+        assertEquals(IPv6Automaton.GROUP_COUNT, IPv6Automaton.parseAddress("1:2:3:4:5:6:7:8:9", address, 0));
+        assertEquals(IPv6Automaton.GROUP_COUNT, IPv6Automaton.parseAddress("1:2:3:4::5:6:7:8", address, 0));
+        assertEquals(IPv6Automaton.DOUBLE_COMPRESSION, IPv6Automaton.parseAddress("1::2::3", address, 0));
+        assertEquals(IPv6Automaton.DOUBLE_COMPRESSION, IPv6Automaton.parseAddress("::::", address, 0));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parseAddress("1:::2", address, 0));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parseAddress("g::", address, 0));
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, IPv6Automaton.parseAddress("1::x", address, 0));
+        assertArrayEquals(new long[] {0, 0}, address);                      // Untouched by invalid input
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(24);
+        long[] parsed = new long[2];
+        byte[] text = new byte[PackedIPv6.MAX_TEXT];
+        ByteSequence view = new ByteSequence(text);
+        for(int i = 0; i < 100000; i++) {
+            long high = random.nextInt(4) == 0 ? 0 : random.nextLong() & sparse(random);
+            long low = random.nextLong() & sparse(random);
+            String canonical = PackedIPv6.toText(high, low);
+            assertEquals(PackedIPv6.BITS, IPv6Automaton.parseAddress(canonical, parsed, 0));
+            assertArrayEquals(canonical, new long[] {high, low}, parsed);
+
+            int length = PackedIPv6.format(high, low, text, 0);
+            assertEquals(PackedIPv6.BITS, IPv6Automaton.parseAddress(view.range(0, length), parsed, 0));
+            assertArrayEquals(canonical, new long[] {high, low}, parsed);
+        }
+    }
+
+    @Test
+    public void testLines() {
+        byte[] bytes = "2001:db8::/32\n\nnone\n fe80::1%eth0\n".getBytes(StandardCharsets.US_ASCII);
+        ByteSequence input = new ByteSequence(bytes);
+        int lines = AddressAutomaton.countLines(input);
+        long[] addresses = new long[2 * (lines + 1)];
+        long[] results = new long[lines + 1];
+
+        assertEquals(4, IPv6Automaton.parseLines(input, addresses, results, 1));
+        assertEquals(32, results[1]);
+        assertEquals(0x20010DB800000000L, addresses[2]);
+        assertEquals(IPv6Automaton.EMPTY, results[2]);
+        assertEquals(IPv6Automaton.UNEXPECTED_CHARACTER, results[3]);
+        assertEquals(9, IPv6Automaton.zoneStart(results[4]));               // Relative to the line
+        assertEquals(4, IPv6Automaton.zoneLength(results[4]));
+        assertEquals(1, addresses[9]);
+    }
+
+    /** @return mask clearing random 16-bit groups, so runs of zero groups appear */
+    private static long sparse(Random random) {
+        long mask = 0;
+        for(int i = 0; i < 4; i++)
+            if(random.nextBoolean())
+                mask |= 0xFFFFL << (16 * i);
+        return mask;
+    }
+}
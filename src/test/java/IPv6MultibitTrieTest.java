@@ -0,0 +1,150 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.core.PackedIPv6;
+import ip.translation.lookup.IPv6MultibitTrie;
+import ip.translation.lookup.RouteLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+public class IPv6MultibitTrieTest {
+
+    /** Linear scan over the prefixes, the reference for the trie */
+    private static int expected(long[] highs, long[] lows, int[] prefixes, boolean[] present, long high, long low) {
+        int best = IPv6MultibitTrie.NO_ROUTE;
+        int bestPrefix = -1;
+        for(int i = 0; i < highs.length; i++)
+            if(present[i] && prefixes[i] > bestPrefix && PackedIPv6.contains(highs[i], lows[i], prefixes[i], high, low)) {
+                best = i;
+                bestPrefix = prefixes[i];
+            }
+        return best;
+    }
+
+    private static void verify(IPv6MultibitTrie trie) {
+        Random random = new Random(25);
+        int count = 3000;
+        long[] highs = new long[count];
+        long[] lows = new long[count];
+        int[] prefixes = new int[count];
+        boolean[] present = new boolean[count];
+        for(int i = 0; i < count; i++) {                                    // Clustered within 2001:db8::/32
+            prefixes[i] = random.nextInt(8) == 0 ? random.nextInt(129) : 32 + random.nextInt(97);
+            highs[i] = PackedIPv6.networkHigh(0x20010DB800000000L | random.nextInt(1 << 12) << 16, prefixes[i]);
+            lows[i] = PackedIPv6.networkLow((long) random.nextInt(4) << 62 | random.nextInt(16), prefixes[i]);
+        }
+        for(int i = 0; i < count; i++) {
+            trie.insert(highs[i], lows[i], prefixes[i], i);
+            for(int j = 0; j < i; j++)      // Duplicates replace the value
+                if(present[j] && highs[j] == highs[i] && lows[j] == lows[i] && prefixes[j] == prefixes[i])
+                    present[j] = false;
+            present[i] = true;
+        }
+        for(int i = 0; i < count; i += 3)
+            if(present[i]) {
+                assertTrue(trie.delete(highs[i], lows[i], prefixes[i]));
+                assertFalse(trie.delete(highs[i], lows[i], prefixes[i]));
+                assertEquals(IPv6MultibitTrie.NO_ROUTE, trie.get(highs[i], lows[i], prefixes[i]));
+                present[i] = false;
+            }
+
+        int size = 0;
+        for(int i = 0; i < count; i++)
+            if(present[i]) {
+                size++;
+                assertEquals(i, trie.get(highs[i], lows[i], prefixes[i]));
+            }
+        assertEquals(size, trie.size());
+
+        long[] addresses = new long[2 * 1001];
+        for(int i = 0; i < addresses.length; i += 2) {
+            int route = random.nextInt(count);
+            boolean near = i % 4 == 0;
+            addresses[i] = near ? highs[route] | random.nextInt(1 << 16) : random.nextLong();
+            addresses[i + 1] = near ? lows[route] ^ random.nextInt(4) : random.nextLong();
+        }
+        int[] results = new int[addresses.length / 2];
+        trie.lookup(addresses, results);
+        for(int i = 0; i < results.length; i++) {
+            int reference = expected(highs, lows, prefixes, present, addresses[2 * i], addresses[2 * i + 1]);
+            assertEquals(reference, trie.lookup(addresses[2 * i], addresses[2 * i + 1]));
+            assertEquals(reference, results[i]);
+        }
+
+        for(int i = 0; i < count; i++)                                      // Every node but the root is released
+            if(present[i])
+                trie.delete(highs[i], lows[i], prefixes[i]);
+        assertEquals(0, trie.size());
+        assertEquals(1, trie.nodes());
+        assertEquals(IPv6MultibitTrie.NO_ROUTE, trie.lookup(addresses[0], addresses[1]));
+    }
+
+    @Test
+    public void testDefaultStrides() {
+        verify(new IPv6MultibitTrie());
+    }
+
+    @Test
+    public void testCustomStrides() {
+        verify(new IPv6MultibitTrie(5));                                    // A level spans both halves, the last one is 3 bits
+        int[] binary = new int[PackedIPv6.BITS];
+        Arrays.fill(binary, 1);
+        verify(new IPv6MultibitTrie(binary));
+        assertEquals(PackedIPv6.BITS + 1, new IPv6MultibitTrie(binary).levels());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStrides() {
+        new IPv6MultibitTrie(new int[] {64, 64});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStride() {
+        new IPv6MultibitTrie(IPv6MultibitTrie.MAX_STRIDE + 1);
+    }
+
+    @Test
+    public void testDefaultRouteAndHost() {
+        IPv6MultibitTrie trie = new IPv6MultibitTrie();
+        trie.insert(-1L, -1L, 0, 1);                                        // Host bits are ignored
+        trie.insert(0x20010DB800000000L, 1, 128, 2);
+        trie.insert(0x20010DB800000000L, 0, 64, 3);
+        assertEquals(3, trie.size());
+        assertEquals(2, trie.lookup(0x20010DB800000000L, 1));
+        assertEquals(3, trie.lookup(0x20010DB800000000L, 2));
+        assertEquals(1, trie.lookup(0x20010DB800000001L, 0));
+        assertTrue(trie.delete(0, 0, 0));
+        assertEquals(IPv6MultibitTrie.NO_ROUTE, trie.lookup(0x20010DB800000001L, 0));
+        assertTrue(trie.memoryBytes() > 0);
+    }
+
+    @Test
+    public void testLoader() throws IOException {
+        IPv6MultibitTrie trie = new IPv6MultibitTrie();
+        assertEquals(3, RouteLoader.load(new BufferedReader(new StringReader(
+                "2001:db8::/32 7\n\n2001:db8:1::/48\t8\n::ffff:10.0.0.1 9\n")), trie));
+        assertEquals(8, trie.lookup(0x20010DB800010005L, 0));
+        assertEquals(7, trie.lookup(0x20010DB8FFFF0000L, 0));
+        assertEquals(9, trie.get(0, 0x0000FFFF0A000001L, 128));
+        try {
+            RouteLoader.load(new BufferedReader(new StringReader("2001:db8::/32 7\n2001:db8::/129 1\n")), trie);
+            fail();
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().startsWith("line 2: \"2001:db8::/129 1\""));
+        }
+        try {
+            RouteLoader.load(new BufferedReader(new StringReader("fe80::1%eth0/64 7\n")), trie);
+            fail();
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().startsWith("line 1: \"fe80::1%eth0/64 7\" - "));
+        }
+        assertEquals(IPv6MultibitTrie.NO_ROUTE, trie.get(0xFE80000000000000L, 0, 64));
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.batch.AddressColumns;
+import ip.translation.batch.MappedAddressReader;
+import ip.translation.core.PackedIPv4;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedAddressReaderTest {
+
+    private static AddressColumns read(String text, int threads, int chunkBytes) throws IOException {
+        Path file = Files.createTempFile("addresses", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+            return new MappedAddressReader(threads, chunkBytes).read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testColumns() throws IOException {
+        AddressColumns columns = read("192.168.1.77/26\n\n10.0.0.1 255.0.0.0\n172.16.0.1\n", 1, 1 << 10);
+        assertEquals(3, columns.size());
+        assertEquals(0, columns.invalid());
+        assertArrayEquals(new int[] {0xC0A8014D, 0x0A000001, 0xAC100001}, columns.addresses());
+        assertArrayEquals(new byte[] {26, 8, 32}, columns.prefixes());      // Host without a prefix
+        assertEquals(0x0A000001, columns.address(1));
+        assertEquals(8, columns.prefix(1));
+        assertEquals(PackedIPv4.pack(0xC0A8014D, 26), columns.packed(0));
+    }
+
+    @Test
+    public void testUnterminatedLastLine() throws IOException {
+        AddressColumns columns = read("10.0.0.1\n10.0.0.2", 1, 10);        // The last line crosses the chunk boundary
+        assertArrayEquals(new int[] {0x0A000001, 0x0A000002}, columns.addresses());
+        assertEquals(0, columns.invalid());
+    }
+
+    @Test
+    public void testChunkBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int[] expected = new int[1000];
+        for(int i = 0; i < expected.length; i++) {
+            expected[i] = 0x0A000000 | i * 37;
+            text.append(PackedIPv4.toText(expected[i])).append(i % 5 == 0 ? "/32\r\n" : "\n");
+            if(i % 100 == 0)
+                text.append("10.0.0.300\n");                                // Invalid
+        }
+        for(int chunkBytes : new int[] {1, 7, 13, 64, 1 << 20}) {           // Boundaries inside and right after lines
+            AddressColumns columns = read(text.toString(), 3, chunkBytes);
+            assertArrayEquals(expected, columns.addresses());
+            assertEquals(10, columns.invalid());
+        }
+    }
+
+    @Test
+    public void testCarriageReturns() throws IOException {
+        AddressColumns columns = read("10.0.0.1/8\r\n\r\n10.0.0.2 255.255.0.0\r\n10.0.0.3\r\n", 2, 12);
+        assertArrayEquals(new int[] {0x0A000001, 0x0A000002, 0x0A000003}, columns.addresses());
+        assertArrayEquals(new byte[] {8, 16, 32}, columns.prefixes());
+        assertEquals(0, columns.invalid());
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        AddressColumns columns = read("", 1, 10);
+        assertEquals(0, columns.size());
+        assertEquals(0, columns.invalid());
+    }
+}
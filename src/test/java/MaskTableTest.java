@@ -0,0 +1,42 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.core.MaskTable;
+
+public class MaskTableTest {
+
+    @Test
+    public void testBoundaryPrefixes() {
+        assertEquals(0, MaskTable.mask(0));
+        assertEquals(-1, MaskTable.wildcard(0));
+        assertEquals((1L << 32) - 2, MaskTable.usableHosts(0));
+        assertEquals("0.0.0.0", MaskTable.dotted(0));
+
+        assertEquals(0xFFFFFFFE, MaskTable.mask(31));
+        assertEquals(1, MaskTable.wildcard(31));
+        assertEquals(2, MaskTable.usableHosts(31));                         // No network and broadcast address
+        assertEquals("255.255.255.254", MaskTable.dotted(31));
+
+        assertEquals(-1, MaskTable.mask(32));
+        assertEquals(0, MaskTable.wildcard(32));
+        assertEquals(1, MaskTable.usableHosts(32));
+        assertEquals("255.255.255.255", MaskTable.dotted(32));
+
+        assertEquals(0xFFFFFF00, MaskTable.mask(24));
+        assertEquals(254, MaskTable.usableHosts(24));
+    }
+
+    @Test
+    public void testPrefixOf() {
+        for(int prefix = 0; prefix <= 32; prefix++)
+            assertEquals(prefix, MaskTable.prefixOf(MaskTable.mask(prefix)));
+    }
+
+    @Test
+    public void testPrefixOfNonContiguous() {
+        assertEquals(MaskTable.NOT_CONTIGUOUS, MaskTable.prefixOf(0xFF00FF00));  // 255.0.255.0
+        assertEquals(MaskTable.NOT_CONTIGUOUS, MaskTable.prefixOf(0x7FFFFFFF));  // Leading zero
+        assertEquals(MaskTable.NOT_CONTIGUOUS, MaskTable.prefixOf(0xFFFFFF01));
+        assertEquals(MaskTable.NOT_CONTIGUOUS, MaskTable.prefixOf(1));
+    }
+}
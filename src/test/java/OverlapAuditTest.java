@@ -0,0 +1,100 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.cidr.OverlapAudit;
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class OverlapAuditTest {
+
+    private static boolean contains(long outer, long inner) {
+        return PackedIPv4.prefix(outer) < PackedIPv4.prefix(inner)
+                && (PackedIPv4.address(inner) & PackedIPv4.mask(outer)) == PackedIPv4.address(outer);
+    }
+
+    /** Every pair compared with every other one */
+    private static Set<String> expected(OverlapAudit audit) {
+        Set<String> conflicts = new HashSet<>();
+        int size = audit.size();
+        boolean[] first = new boolean[size];
+        for(int i = 0; i < size; i++) {
+            first[i] = true;
+            for(int j = 0; j < i; j++)
+                if(audit.network(j) == audit.network(i) && first[j]) {
+                    conflicts.add("DUPLICATE " + j + " " + i);
+                    first[i] = false;
+                }
+        }
+        for(int outer = 0; outer < size; outer++) {
+            if(!first[outer])
+                continue;
+            int start = PackedIPv4.address(audit.network(outer)) & 0xFFFF;
+            BitSet covered = new BitSet();
+            for(int inner = 0; inner < size; inner++)
+                if(contains(audit.network(outer), audit.network(inner))) {
+                    if(first[inner])
+                        conflicts.add("CONTAINED " + outer + " " + inner);
+                    int from = PackedIPv4.address(audit.network(inner)) & 0xFFFF;
+                    covered.set(from, from + (int) PackedIPv4.addressCount(audit.network(inner)));
+                }
+            if(covered.get(start, start + (int) PackedIPv4.addressCount(audit.network(outer))).cardinality()
+                    == PackedIPv4.addressCount(audit.network(outer)) && PackedIPv4.prefix(audit.network(outer)) < 32)
+                conflicts.add("SHADOWED " + outer + " -1");
+        }
+        return conflicts;
+    }
+
+    @Test
+    public void testRandom() throws IOException {
+        Random random = new Random(17);
+        for(int round = 0; round < 40; round++) {
+            OverlapAudit audit = new OverlapAudit();
+            int count = 1 + random.nextInt(400);
+            for(int i = 0; i < count; i++) {
+                int prefix = 20 + random.nextInt(13);
+                audit.add(PackedIPv4.pack(0x0A000000 | random.nextInt(1 << 14) & MaskTable.mask(prefix), prefix), "r" + i);
+            }
+            Set<String> actual = new HashSet<>();
+            OverlapAudit.Summary summary = audit.audit((conflict, outer, inner) ->
+                    assertTrue(actual.add(conflict + " " + outer + " " + inner)));
+            assertEquals(expected(audit), actual);
+            assertEquals(actual.size(), summary.duplicates() + summary.contained() + summary.shadowed());
+        }
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        String inventory = "10.0.0.0/24 core\n10.0.0.0/25 left half\n\n10.0.0.128/25\n10.0.0.7/24 again\n192.168.0.1\n";
+        OverlapAudit audit = OverlapAudit.load(new BufferedReader(new StringReader(inventory)));
+        assertEquals(5, audit.size());
+        assertEquals("left half", audit.label(1));
+        assertEquals("", audit.label(2));
+
+        StringWriter report = new StringWriter();
+        OverlapAudit.Summary summary = audit.report(report);
+        String separator = System.lineSeparator();
+        assertEquals("duplicate\t10.0.0.0/24 core\t10.0.0.0/24 again" + separator
+                + "contained\t10.0.0.0/24 core\t10.0.0.0/25 left half" + separator
+                + "contained\t10.0.0.0/24 core\t10.0.0.128/25" + separator
+                + "shadowed\t10.0.0.0/24 core" + separator, report.toString());
+        assertEquals("5 records audited, 1 duplicates, 2 contained, 1 shadowed", summary.toString());
+
+        try {
+            OverlapAudit.load(new BufferedReader(new StringReader("10.0.0.0/8\n10.0.0.0/33 label\n")));
+            fail();
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().startsWith("line 2: \"10.0.0.0/33 label\""));
+        }
+    }
+}
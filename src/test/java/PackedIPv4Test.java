@@ -0,0 +1,36 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.core.PackedIPv4;
+
+public class PackedIPv4Test {
+
+    PackedIPv4 address = PackedIPv4.of(0xC0A8014D, 26);     // 192.168.1.77/26
+
+    @Test
+    public void testDerivation() {
+        assertEquals("255.255.255.192", PackedIPv4.toText(address.mask()));
+        assertEquals("0.0.0.63", PackedIPv4.toText(address.wildcard()));
+        assertEquals("192.168.1.64", PackedIPv4.toText(address.network()));
+        assertEquals("192.168.1.127", PackedIPv4.toText(address.broadcast()));
+        assertEquals("192.168.1.65", PackedIPv4.toText(address.firstHost()));
+        assertEquals("192.168.1.126", PackedIPv4.toText(address.lastHost()));
+        assertEquals(62, address.usableHosts());
+    }
+
+    @Test
+    public void testBoundaryPrefixes() {
+        assertEquals(1L << 32, PackedIPv4.of(0, 0).addressCount());
+        assertEquals(0, PackedIPv4.of(-1, 0).network());
+        assertEquals(2, PackedIPv4.of(0x0A000001, 31).usableHosts());
+        assertEquals(1, PackedIPv4.of(0x0A000001, 32).usableHosts());
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(address.contains(0xC0A8017F));
+        assertFalse(address.contains(0xC0A80180));
+    }
+}
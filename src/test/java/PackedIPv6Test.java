@@ -0,0 +1,83 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.core.PackedIPv6;
+
+import java.nio.charset.StandardCharsets;
+
+public class PackedIPv6Test {
+
+    PackedIPv6 address = PackedIPv6.of(0x20010DB8_00000001L, 0x00000000_0000ABCDL, 60);    // 2001:db8:0:1::abcd/60
+
+    @Test
+    public void testDerivation() {
+        assertEquals("ffff:ffff:ffff:fff0::", PackedIPv6.toText(address.mask().high(), address.mask().low()));
+        assertEquals(PackedIPv6.of(0x20010DB8_00000000L, 0, 60), address.network());
+        assertEquals(PackedIPv6.of(0x20010DB8_0000000FL, -1L, 60), address.lastAddress());
+        assertEquals(-1, address.addressCount());
+        assertEquals(1L << 62, PackedIPv6.addressCount(66));
+        assertEquals(-1, PackedIPv6.addressCount(65));                        // 2^63 does not fit
+        assertEquals(-1, PackedIPv6.addressCount(64));
+        assertEquals("2001:db8:0:1::abcd/60", address.toString());
+    }
+
+    @Test
+    public void testBoundaryPrefixes() {
+        PackedIPv6 any = PackedIPv6.of(-1L, -1L, 0);
+        assertEquals(PackedIPv6.of(0, 0, 0), any.network());
+        assertEquals(any, PackedIPv6.of(0, 0, 0).lastAddress());
+        assertEquals(-1L, PackedIPv6.maskHigh(64));
+        assertEquals(0, PackedIPv6.maskLow(64));
+        assertEquals(0x80000000_00000000L, PackedIPv6.maskLow(65));
+        assertEquals(any, any.network().withPrefix(0).lastAddress());
+        assertEquals(PackedIPv6.of(1, 2, 128), PackedIPv6.of(1, 2, 128).lastAddress());
+        assertEquals(1, PackedIPv6.addressCount(128));
+    }
+
+    @Test
+    public void testContainsAndCompare() {
+        assertTrue(address.contains(0x20010DB8_0000000FL, 0));
+        assertFalse(address.contains(0x20010DB8_00000010L, 0));
+        assertTrue(address.network().contains(PackedIPv6.of(0x20010DB8_00000003L, 5, 64)));
+        assertFalse(address.network().contains(PackedIPv6.of(0x20010DB8_00000000L, 0, 56)));
+        assertTrue(PackedIPv6.of(0x80000000_00000000L, 0, 128).compareTo(PackedIPv6.of(1, 0, 128)) > 0);    // Unsigned
+        assertTrue(PackedIPv6.of(0, -1L, 128).compareTo(PackedIPv6.of(1, 0, 128)) < 0);
+        assertEquals(63, PackedIPv6.commonPrefix(0, 0, 1, 0));
+        assertEquals(128, PackedIPv6.commonPrefix(5, 7, 5, 7));
+    }
+
+    @Test
+    public void testIncrement() {
+        assertEquals(PackedIPv6.of(1, 0, 64), PackedIPv6.of(0, -1L, 64).next());                       // Carry
+        assertEquals(PackedIPv6.of(0, 0, 128), PackedIPv6.of(-1L, -1L, 128).next());                   // Wraps around
+        assertEquals(7, PackedIPv6.addHigh(7, 1, -2L));
+        assertEquals(8, PackedIPv6.addHigh(7, 2, -2L));
+    }
+
+    @Test
+    public void testCanonicalText() {
+        assertEquals("::", PackedIPv6.toText(0, 0));
+        assertEquals("::1", PackedIPv6.toText(0, 1));
+        assertEquals("1::", PackedIPv6.toText(0x0001000000000000L, 0));
+        assertEquals("2001:db8::1", PackedIPv6.toText(0x20010DB800000000L, 1));
+        assertEquals("2001:db8:0:1:1:1:1:1", PackedIPv6.toText(0x20010DB800000001L, 0x0001000100010001L));   // Single zero group
+        assertEquals("2001:0:0:1::1", PackedIPv6.toText(0x2001000000000001L, 1));                            // The longer run
+        assertEquals("2001:db8::1:0:0:1", PackedIPv6.toText(0x20010DB800000000L, 0x0001000000000001L));       // The first run
+        assertEquals("::ffff:192.0.2.1", PackedIPv6.toText(0, 0x0000FFFFC0000201L));
+        assertEquals("1234:5678:9abc:def0:1234:5678:9abc:def0".length(), PackedIPv6.MAX_TEXT);
+    }
+
+    @Test
+    public void testFormatBytes() {
+        long[] addresses = {0x20010DB800000000L, 1, 0, 0x0000FFFF0A000001L, -1L, -1L, 0xFE80000000000000L, 0};
+        byte[] output = new byte[addresses.length / 2 * (PackedIPv6.MAX_TEXT + 1)];
+        int end = PackedIPv6.formatLines(addresses, 0, addresses.length / 2, output, 0);
+        assertEquals("2001:db8::1\n::ffff:10.0.0.1\nffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff\nfe80::\n",
+                new String(output, 0, end, StandardCharsets.US_ASCII));
+        for(int i = 0; i < addresses.length; i += 2)
+            assertEquals(PackedIPv6.toText(addresses[i], addresses[i + 1]).length(),
+                    PackedIPv6.format(addresses[i], addresses[i + 1], output, 0));
+    }
+}
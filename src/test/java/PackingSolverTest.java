@@ -0,0 +1,148 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+import ip.translation.subnet.PackingPlan;
+import ip.translation.subnet.PackingSolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class PackingSolverTest {
+
+    private static final long[] PARENTS = {PackedIPv4.pack(0x0A000000, 25), PackedIPv4.pack(0x0A000100, 26),
+            PackedIPv4.pack(0x0A000200, 24)};
+
+    @Test
+    public void testBestFitDecreasing() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        PackingPlan plan = new PackingSolver(0, pool).solve(PARENTS, new int[] {60, 60, 60});
+        pool.shutdown();
+        for(int i = 0; i < 3; i++)                                          // The only parent holding all the blocks
+            assertEquals(2, plan.assignment(i));
+        assertEquals(PackedIPv4.pack(0x0A000200, 26), plan.network(0));
+        assertEquals(PackedIPv4.pack(0x0A000240, 26), plan.network(1));
+        assertEquals(PackedIPv4.pack(0x0A000280, 26), plan.network(2));
+        assertEquals(1, plan.usedParents());
+        assertEquals(64, plan.wastedAddresses());
+        assertEquals(1, plan.freeBlocks());
+        assertEquals(1, plan.explored());
+    }
+
+    @Test
+    public void testSearchNoWorse() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PackingPlan greedy = new PackingSolver(0, pool).solve(PARENTS, new int[] {60, 60, 60});
+        PackingPlan plan = new PackingSolver(200, pool).solve(PARENTS, new int[] {60, 60, 60});
+        pool.shutdown();
+        assertTrue(plan.explored() > greedy.explored());                    // Every worker packs at least once
+        assertEquals(0, plan.unplaced());
+        assertTrue(plan.wastedAddresses() <= greedy.wastedAddresses());     // Whatever the search reached in time
+        assertEquals(192, plan.allocatedAddresses());
+        long[] placed = new long[3];
+        for(int i = 0; i < 3; i++) {
+            placed[i] = plan.network(i);
+            assertEquals(PackedIPv4.network(PARENTS[plan.assignment(i)]),
+                    PackedIPv4.address(placed[i]) & PackedIPv4.mask(PARENTS[plan.assignment(i)]));
+        }
+        assertEquals(192, CidrSet.of(placed).addressCount());               // No overlap
+    }
+
+    @Test
+    public void testUnplaced() {
+        PackingPlan plan = new PackingSolver(10, ForkJoinPool.commonPool())
+                .solve(new long[] {PackedIPv4.pack(0xC0A80000, 28)}, new int[] {20, 5, 5});
+        assertEquals(1, plan.unplaced());
+        assertEquals(-1, plan.network(0));
+        assertEquals(-1, plan.assignment(0));
+        assertEquals(PackedIPv4.pack(0xC0A80000, 29), plan.network(1));
+        assertEquals(PackedIPv4.pack(0xC0A80008, 29), plan.network(2));
+        assertEquals(16, plan.allocatedAddresses());
+        assertEquals(0, plan.wastedAddresses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingParents() {
+        new PackingSolver().solve(new long[] {PackedIPv4.pack(0x0A000000, 8), PackedIPv4.pack(0x0A010000, 16)}, new int[] {1});
+    }
+
+    @Test
+    public void testLarge() {
+        Random random = new Random(21);
+        long[] parents = new long[40];
+        for(int i = 0; i < parents.length; i++)
+            parents[i] = PackedIPv4.pack(0x0A000000 + (i << 16), 16 + random.nextInt(5));
+        int[] hosts = new int[1000];
+        for(int i = 0; i < hosts.length; i++)
+            hosts[i] = 1 + random.nextInt(random.nextBoolean() ? 30 : 1000);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PackingPlan baseline = new PackingSolver(0, pool).solve(parents, hosts);
+        PackingPlan plan = new PackingSolver(300, pool).solve(parents, hosts);
+        pool.shutdown();
+        assertTrue(plan.explored() > baseline.explored());
+        assertTrue(plan.unplaced() < baseline.unplaced() || plan.unplaced() == baseline.unplaced()
+                && plan.wastedAddresses() <= baseline.wastedAddresses());
+
+        long[] placed = new long[hosts.length - plan.unplaced()];
+        int count = 0;
+        long allocated = 0;
+        long[] used = new long[parents.length];
+        for(int i = 0; i < hosts.length; i++) {
+            long network = plan.network(i);
+            if(network < 0)
+                continue;
+            long parent = parents[plan.assignment(i)];
+            assertEquals(PackedIPv4.network(network), PackedIPv4.address(network));          // Aligned
+            assertTrue(PackedIPv4.usableHosts(network) >= hosts[i]);
+            assertEquals(PackedIPv4.network(parent), PackedIPv4.address(network) & PackedIPv4.mask(parent));
+            placed[count++] = network;
+            allocated += PackedIPv4.addressCount(network);
+            used[plan.assignment(i)] += PackedIPv4.addressCount(network);
+        }
+        assertEquals(allocated, CidrSet.of(placed).addressCount());          // No overlap
+        assertEquals(allocated, plan.allocatedAddresses());
+        long wasted = 0;
+        for(int i = 0; i < parents.length; i++)
+            if(used[i] > 0)
+                wasted += PackedIPv4.addressCount(parents[i]) - used[i];
+        assertEquals(wasted, plan.wastedAddresses());
+    }
+
+    @Test
+    public void testLoadAndReport() throws IOException {
+        long[] parents = PackingSolver.loadParents(new BufferedReader(new StringReader("10.0.0.0/24\n\n 10.0.1.0/25 \n")));
+        int[] hosts = PackingSolver.loadHosts(new BufferedReader(new StringReader("60\n120\n\n500\n")));
+        assertEquals(2, parents.length);
+        assertEquals(3, hosts.length);
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        StringWriter output = new StringWriter();
+        new PackingSolver(0, pool).solve(parents, hosts).report(output);
+        pool.shutdown();
+        String separator = System.lineSeparator();
+        assertEquals("60\t10.0.0.128/26\t10.0.0.0/24" + separator + "120\t10.0.0.0/25\t10.0.0.0/24" + separator
+                + "500\tunplaced" + separator, output.toString());
+
+        try {
+            PackingSolver.loadHosts(new BufferedReader(new StringReader("60\n-4\n")));
+            fail();
+        } catch (IOException exception) {
+            assertTrue(exception.getMessage().startsWith("line 2: \"-4\""));
+        }
+        try {
+            PackingSolver.loadParents(new BufferedReader(new StringReader("10.0.0.0/33\n")));
+            fail();
+        } catch (IOException exception) {
+            assertFalse(exception.getMessage().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.cidr.CidrAggregator;
+import ip.translation.cidr.RangeDecomposer;
+import ip.translation.core.PackedIPv4;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class RangeDecomposerTest {
+
+    @Test
+    public void testDecompose() {
+        long[] expected = {
+                PackedIPv4.pack(0x0A000001, 32), PackedIPv4.pack(0x0A000002, 31),
+                PackedIPv4.pack(0x0A000004, 31), PackedIPv4.pack(0x0A000006, 32)};
+        assertArrayEquals(expected, RangeDecomposer.decompose(0x0A000001, 0x0A000006));
+        assertArrayEquals(new long[] {PackedIPv4.pack(0, 0)}, RangeDecomposer.decompose(0, 0xFFFFFFFF));
+        assertArrayEquals(new long[] {PackedIPv4.pack(0xFFFFFFFF, 32)}, RangeDecomposer.decompose(0xFFFFFFFF, 0xFFFFFFFF));
+        assertEquals(RangeDecomposer.MAX_BLOCKS, RangeDecomposer.decompose(1, 0xFFFFFFFE).length);
+
+        try {
+            RangeDecomposer.decompose(0x0A000001, 0x0A000000);
+            fail();
+        } catch (IllegalArgumentException expectedException) {}
+    }
+
+    /** Blocks are aligned, contiguous, span the range exactly and cannot be aggregated any further */
+    @Test
+    public void testRandom() {
+        Random random = new Random(11);
+        for(int round = 0; round < 10000; round++) {
+            int first = random.nextInt();
+            int second = round % 2 == 0 ? first + random.nextInt(1 << 12) : random.nextInt();
+            int start = Integer.compareUnsigned(first, second) <= 0 ? first : second;
+            int end = start == first ? second : first;
+
+            long[] blocks = RangeDecomposer.decompose(start, end);
+            long next = start & 0xFFFFFFFFL;
+            for(long block : blocks) {
+                assertEquals(next, PackedIPv4.address(block) & 0xFFFFFFFFL);
+                assertEquals(PackedIPv4.network(block), PackedIPv4.address(block));
+                next += PackedIPv4.addressCount(block);
+            }
+            assertEquals((end & 0xFFFFFFFFL) + 1, next);
+            assertArrayEquals(blocks, new CidrAggregator().aggregate(blocks));
+        }
+    }
+
+    @Test
+    public void testText() throws IOException {
+        String input = "10.0.0.0 - 10.0.1.255\n\n192.168.0.1 192.168.0.2\n";
+        StringWriter output = new StringWriter();
+        assertEquals(2, RangeDecomposer.decompose(new BufferedReader(new StringReader(input)), output));
+        String separator = System.lineSeparator();
+        assertEquals("10.0.0.0/23" + separator + "192.168.0.1/32" + separator + "192.168.0.2/32" + separator,
+                output.toString());
+
+        for(String invalid : new String[] {"10.0.0.5 - 10.0.0.1", "10.0.0.1", "10.0.0.1 - 10.0.300.1"})
+            try {
+                RangeDecomposer.decompose(new BufferedReader(new StringReader("10.0.0.0-10.0.0.1\n" + invalid)), output);
+                fail();
+            } catch (IOException exception) {
+                assertTrue(exception.getMessage().startsWith("line 2: \"" + invalid + "\""));
+            }
+    }
+}
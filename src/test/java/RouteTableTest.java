@@ -0,0 +1,188 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+import ip.translation.lookup.ConcurrentRouteTable;
+import ip.translation.lookup.Dir24Table;
+import ip.translation.lookup.MappedRouteTable;
+import ip.translation.lookup.PathCompressedTrie;
+import ip.translation.lookup.RouteBatch;
+import ip.translation.lookup.RouteLoader;
+import ip.translation.lookup.RouteSnapshot;
+import ip.translation.lookup.RouteTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RouteTableTest {
+
+    /** Linear scan over the prefixes, the reference for the tables */
+    private static int expected(int[] networks, int[] prefixes, int[] values, boolean[] present, int address) {
+        int best = RouteTable.NO_ROUTE;
+        int bestPrefix = -1;
+        for(int i = 0; i < networks.length; i++)
+            if(present[i] && prefixes[i] > bestPrefix && (address & MaskTable.mask(prefixes[i])) == networks[i]) {
+                best = values[i];
+                bestPrefix = prefixes[i];
+            }
+        return best;
+    }
+
+    private static void verify(RouteTable table) {
+        Random random = new Random(7);
+        int count = 2000;
+        int[] networks = new int[count];
+        int[] prefixes = new int[count];
+        int[] values = new int[count];
+        boolean[] present = new boolean[count];
+        for(int i = 0; i < count; i++) {
+            prefixes[i] = random.nextInt(33);
+            networks[i] = (0x0A000000 | random.nextInt(1 << 20) << 4) & MaskTable.mask(prefixes[i]);
+            values[i] = i;
+        }
+        for(int i = 0; i < count; i++) {
+            table.insert(networks[i], prefixes[i], values[i]);
+            for(int j = 0; j < i; j++)      // Duplicates replace the value
+                if(present[j] && networks[j] == networks[i] && prefixes[j] == prefixes[i])
+                    present[j] = false;
+            present[i] = true;
+        }
+        for(int i = 0; i < count; i += 3)
+            if(present[i]) {
+                assertTrue(table.delete(networks[i], prefixes[i]));
+                assertFalse(table.delete(networks[i], prefixes[i]));
+                present[i] = false;
+            }
+
+        int[] addresses = new int[1001];
+        for(int i = 0; i < addresses.length; i++)
+            addresses[i] = i % 2 == 0 ? random.nextInt() : 0x0A000000 | random.nextInt(1 << 24);
+        int[] results = new int[addresses.length];
+        table.lookup(addresses, results);
+        for(int i = 0; i < addresses.length; i++) {
+            int reference = expected(networks, prefixes, values, present, addresses[i]);
+            assertEquals(reference, table.lookup(addresses[i]));
+            assertEquals(reference, results[i]);
+        }
+    }
+
+    @Test
+    public void testPathCompressedTrie() {
+        verify(new PathCompressedTrie(16));
+    }
+
+    @Test
+    public void testDir24Table() {
+        Dir24Table table = new Dir24Table();
+        verify(table);
+
+        int blocks = table.blocks();
+        table.insert(0xC0A80100, 26, 1);
+        table.insert(0xC0A80140, 26, 2);
+        assertEquals(blocks + 1, table.blocks());
+        assertTrue(table.delete(0xC0A80100, 26));
+        assertTrue(table.delete(0xC0A80140, 26));
+        assertEquals(blocks, table.blocks());   // Released, once no prefix longer than /24 is left
+    }
+
+    @Test
+    public void testConcurrentRouteTable() {
+        verify(new ConcurrentRouteTable());
+    }
+
+    @Test
+    public void testAtomicBatches() throws InterruptedException {
+        ConcurrentRouteTable table = new ConcurrentRouteTable();
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicInteger torn = new AtomicInteger();
+        Thread[] readers = new Thread[3];
+        for(int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                int[] addresses = {0x0A000001, 0x0B000001, 0xC0A80105};
+                int[] results = new int[addresses.length];
+                while(!finished.get()) {
+                    table.lookup(addresses, results);       // Single version, every batch changes all three
+                    if(results[0] != results[1] || results[1] != results[2])
+                        torn.incrementAndGet();
+                }
+            });
+            readers[i].start();
+        }
+        RouteBatch batch = new RouteBatch();
+        for(int value = 0; value < 2000; value++) {
+            batch.clear();
+            batch.insert(0x0A000000, 8, value).insert(0x0B000000, 16, value).insert(0xC0A80104, 30, value);
+            if(value % 2 == 1)
+                batch.delete(0xC0A80104, 30).insert(0xC0A80100, 24, value);
+            table.apply(batch);
+        }
+        finished.set(true);
+        for(Thread reader : readers)
+            reader.join();
+        assertEquals(0, torn.get());
+        assertEquals(1999, table.lookup(0xC0A80105));
+        assertEquals(2000, table.version().number());
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Dir24Table table = new Dir24Table();
+        table.insert(0x0A000000, 8, 1);
+        table.insert(0x0A010100, 28, 2);
+        table.insert(0, 0, 3);
+        Path file = Files.createTempFile("routes", ".snapshot");
+        try {
+            RouteSnapshot.write(table, file);
+            MappedRouteTable snapshot = RouteSnapshot.open(file);
+            assertEquals(3, snapshot.size());
+            assertEquals(1, snapshot.blocks());
+            for(int address : new int[] {0x0A000001, 0x0A010105, 0x0A010110, 0x0B000000})
+                assertEquals(table.lookup(address), snapshot.lookup(address));
+            assertEquals(PackedIPv4.pack(0, 0), snapshot.route(0));         // Ordered by network, then by prefix length
+            assertEquals(2, snapshot.value(2));
+
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {7}), 1000);
+            }
+            try {
+                RouteSnapshot.open(file);
+                fail();
+            } catch (IOException damaged) {
+                assertTrue(damaged.getMessage().contains("checksum"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLoader() throws IOException {
+        PathCompressedTrie trie = new PathCompressedTrie();
+        String routes = "10.0.0.0/8 1\n10.1.0.0 255.255.0.0 2\n\n10.1.2.3 3\n0.0.0.0/0 0\n";
+        assertEquals(4, RouteLoader.load(new BufferedReader(new StringReader(routes)), trie));
+        assertEquals(3, trie.lookup(0x0A010203));
+        assertEquals(2, trie.lookup(0x0A010204));
+        assertEquals(1, trie.lookup(0x0A020000));
+        assertEquals(0, trie.lookup(0x0B000000));
+        assertEquals(2, trie.get(0x0A01FFFF, 16));
+        assertEquals(RouteTable.NO_ROUTE, trie.get(0x0A010000, 24));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidRoute() throws IOException {
+        RouteLoader.load(new BufferedReader(new StringReader("10.0.0.0/33 1\n")), new PathCompressedTrie());
+    }
+}
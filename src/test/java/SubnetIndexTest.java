@@ -0,0 +1,132 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import ip.translation.cidr.SubnetIndex;
+import ip.translation.core.MaskTable;
+import ip.translation.core.PackedIPv4;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+public class SubnetIndexTest {
+
+    /** Every subnet lies within 10.0.0.0/16 */
+    private static final int BASE = 0x0A000000;
+
+    /** Every position of the index matching the predicate, in index order */
+    private static int[] expected(SubnetIndex index, IntPredicate predicate) {
+        List<Integer> positions = new ArrayList<>();
+        for(int i = 0; i < index.size(); i++)
+            if(predicate.test(i))
+                positions.add(i);
+        return positions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Concatenated pages of the query */
+    private static int[] paged(int pageSize, PagedQuery query) {
+        int[] page = new int[pageSize];
+        List<Integer> positions = new ArrayList<>();
+        int cursor = 0;
+        while(true) {
+            int count = query.page(cursor, page);
+            for(int i = 0; i < count; i++)
+                positions.add(page[i]);
+            if(count < page.length)
+                return positions.stream().mapToInt(Integer::intValue).toArray();
+            cursor = page[count - 1] + 1;
+        }
+    }
+
+    private interface PagedQuery {
+        int page(int cursor, int[] page);
+    }
+
+    private static long start(long network) {
+        return PackedIPv4.network(network) & 0xFFFFFFFFL;
+    }
+
+    private static long end(long network) {
+        return PackedIPv4.broadcast(network) & 0xFFFFFFFFL;
+    }
+
+    /** True, if any address of the block belongs to a subnet */
+    private static boolean occupied(BitSet addresses, long start, long size) {
+        long from = Math.max(start, BASE & 0xFFFFFFFFL) - BASE;
+        long to = Math.min(start + size, (BASE & 0xFFFFFFFFL) + (1 << 16)) - BASE;
+        return from < to && addresses.nextSetBit((int) from) >= 0 && addresses.nextSetBit((int) from) < to;
+    }
+
+    @Test
+    public void testQueries() {
+        Random random = new Random(19);
+        for(int round = 0; round < 20; round++) {
+            long[] networks = new long[1 + random.nextInt(2000)];
+            BitSet addresses = new BitSet(1 << 16);
+            for(int i = 0; i < networks.length; i++) {
+                int prefix = 20 + random.nextInt(13);
+                networks[i] = PackedIPv4.pack(BASE | random.nextInt(1 << 16), prefix);     // Host bits left on purpose
+                int from = PackedIPv4.network(networks[i]) - BASE;
+                addresses.set(from, from + (int) PackedIPv4.addressCount(networks[i]));
+            }
+            SubnetIndex index = SubnetIndex.of(networks);
+            assertEquals(networks.length, index.size());
+            for(int i = 0; i < index.size(); i++) {
+                long network = networks[index.id(i)];
+                assertEquals(PackedIPv4.pack(PackedIPv4.network(network), PackedIPv4.prefix(network)), index.network(i));
+                if(i > 0)
+                    assertEquals(true, start(index.network(i - 1)) <= start(index.network(i)));
+            }
+
+            for(int query = 0; query < 200; query++) {
+                int pageSize = 1 + random.nextInt(8);
+                int address = BASE | random.nextInt(1 << 16);
+                long address32 = address & 0xFFFFFFFFL;
+                assertArrayEquals(expected(index, i -> start(index.network(i)) <= address32 && address32 <= end(index.network(i))),
+                        paged(pageSize, (cursor, page) -> index.containing(address, cursor, page)));
+
+                int last = address + random.nextInt(2048);
+                long last32 = last & 0xFFFFFFFFL;
+                assertArrayEquals(expected(index, i -> start(index.network(i)) <= last32 && end(index.network(i)) >= address32),
+                        paged(pageSize, (cursor, page) -> index.overlapping(address, last, cursor, page)));
+
+                long parent = PackedIPv4.pack(address, 18 + random.nextInt(15));
+                assertArrayEquals(expected(index, i -> start(index.network(i)) >= start(parent) && end(index.network(i)) <= end(parent)),
+                        paged(pageSize, (cursor, page) -> index.within(parent, cursor, page)));
+
+                int prefix = 20 + random.nextInt(13);
+                long size = 1L << (32 - prefix);
+                long next = (address32 + size - 1) & -size;
+                while(occupied(addresses, next, size))
+                    next += size;
+                assertEquals(PackedIPv4.pack((int) next, prefix), index.nextFree(address, prefix));
+                long previous = address32 & MaskTable.mask(prefix) & 0xFFFFFFFFL;
+                while(occupied(addresses, previous, size))
+                    previous -= size;
+                assertEquals(PackedIPv4.pack((int) previous, prefix), index.previousFree(address, prefix));
+            }
+        }
+    }
+
+    @Test
+    public void testBoundaries() {
+        SubnetIndex whole = SubnetIndex.of(PackedIPv4.pack(0, 0));
+        assertEquals(-1, whole.nextFree(0, 32));
+        assertEquals(-1, whole.previousFree(0xFFFFFFFF, 32));
+        assertEquals(1, whole.containing(0xFFFFFFFF, 0, new int[4]));
+
+        SubnetIndex high = SubnetIndex.of(PackedIPv4.pack(0xFFFFFF00, 24), PackedIPv4.pack(0, 1));
+        assertEquals(-1, high.nextFree(0xFFFFFF00, 32));
+        assertEquals(PackedIPv4.pack(0x80000000, 2), high.nextFree(0x00000005, 2));
+        assertEquals(PackedIPv4.pack(0xFFFFFE00, 24), high.previousFree(0xFFFFFFFF, 24));
+        assertEquals(-1, high.previousFree(0x7FFFFFFF, 16));
+
+        SubnetIndex empty = SubnetIndex.of();
+        assertEquals(0, empty.containing(0, 0, new int[4]));
+        assertEquals(PackedIPv4.pack(0, 0), empty.nextFree(0, 0));
+        assertEquals(PackedIPv4.pack(0xFFFFFF00, 24), empty.previousFree(0xFFFFFFFF, 24));
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+import ip.translation.subnet.SubnetPlan;
+import ip.translation.subnet.VlsmPlanner;
+
+import java.util.Random;
+
+public class SubnetPlanTest {
+
+    private static final long PARENT = PackedIPv4.pack(0xC0A80100, 24);
+
+    @Test
+    public void testAdd() {
+        SubnetPlan plan = new SubnetPlan(PARENT);
+        assertEquals(0, plan.add(20));
+        assertEquals(0, plan.add(100));
+        assertEquals(1, plan.add(50));
+        assertEquals(3, plan.add(20));                                      // After the same quantity
+        assertEquals(-1, plan.add(100));                                    // No room left for a /25
+        assertEquals(4, plan.size());
+        assertArrayEquals(new int[] {100, 50, 20, 20}, new int[] {plan.hosts(0), plan.hosts(1), plan.hosts(2), plan.hosts(3)});
+
+        assertEquals(PackedIPv4.pack(0xC0A80100, 27), plan.network(2));     // Allocated first
+        assertEquals(PackedIPv4.pack(0xC0A80180, 25), plan.network(0));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 26), plan.network(1));
+        assertEquals(PackedIPv4.pack(0xC0A80120, 27), plan.network(3));
+        assertEquals(PackedIPv4.pack(0xC0A80100, 27), plan.subnet(0));
+        assertEquals(PackedIPv4.pack(0xC0A80120, 27), plan.subnet(1));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 26), plan.subnet(2));
+        assertEquals(PackedIPv4.pack(0xC0A80180, 25), plan.subnet(3));
+        assertEquals(190, plan.requestedHosts());
+        assertEquals(256, plan.allocatedAddresses());
+        assertEquals(0, plan.free().length);
+        assertEquals(0, plan.replans());
+    }
+
+    @Test
+    public void testRemoveReusesGap() {
+        SubnetPlan plan = new SubnetPlan(PARENT);
+        plan.add(60);
+        plan.add(60);
+        plan.add(60);
+        assertEquals(60, plan.remove(1));
+        assertArrayEquals(new long[] {PackedIPv4.pack(0xC0A80140, 26), PackedIPv4.pack(0xC0A801C0, 26)}, plan.free());
+        assertEquals(2, plan.add(30));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 27), plan.network(2));      // Within the gap
+        assertEquals(3, plan.add(30));
+        assertEquals(PackedIPv4.pack(0xC0A80160, 27), plan.network(3));
+        assertArrayEquals(new long[] {PackedIPv4.pack(0xC0A801C0, 26)}, plan.free());
+        assertEquals(PackedIPv4.pack(0xC0A801C0, 26), plan.largestFree());
+        assertEquals(0, plan.fragmentation(), 1e-9);
+    }
+
+    @Test
+    public void testResize() {
+        SubnetPlan plan = new SubnetPlan(PARENT);
+        plan.add(60);                                                       // .0/26
+        plan.add(10);                                                       // .64/28
+        assertEquals(1, plan.resize(0, 10));                                 // Shrinks in place, after the other 10
+        assertEquals(PackedIPv4.pack(0xC0A80100, 28), plan.network(1));
+        assertEquals(0, plan.resize(1, 25));                                 // Grows in place, the buddy is free
+        assertEquals(PackedIPv4.pack(0xC0A80100, 27), plan.network(0));
+        assertEquals(0, plan.resize(0, 100));                                // .0/25 holds the other one, so it moves
+        assertEquals(PackedIPv4.pack(0xC0A80180, 25), plan.network(0));
+        assertEquals(PackedIPv4.pack(0xC0A80140, 28), plan.network(1));
+        assertEquals(-1, plan.resize(1, 200));                               // Does not fit, nothing changes
+        assertEquals(PackedIPv4.pack(0xC0A80140, 28), plan.network(1));
+        assertEquals(10, plan.hosts(1));
+        assertEquals(128 + 16, plan.allocatedAddresses());
+        assertEquals(110, plan.requestedHosts());
+    }
+
+    @Test
+    public void testReplanWhenFragmented() {
+        SubnetPlan plan = new SubnetPlan(PARENT);
+        for(int i = 0; i < 4; i++)
+            plan.add(60);
+        plan.remove(3);                                                     // Frees .192/26
+        plan.remove(1);                                                     // Frees .64/26
+        assertEquals(0.5, plan.fragmentation(), 1e-9);
+        assertEquals(0, plan.add(100));                                      // 128 free addresses, no free /25
+        assertEquals(1, plan.replans());
+        assertEquals(PackedIPv4.pack(0xC0A80100, 25), plan.network(0));
+        assertEquals(PackedIPv4.pack(0xC0A80180, 26), plan.network(1));
+        assertEquals(PackedIPv4.pack(0xC0A801C0, 26), plan.network(2));
+        assertEquals(PackedIPv4.pack(0xC0A80100, 25), plan.subnet(0));
+        assertEquals(0, plan.freeAddresses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLargerThanParent() {
+        new SubnetPlan(PARENT).add(300);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRemoveOutOfBounds() {
+        new SubnetPlan(PARENT).remove(0);
+    }
+
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(22);
+        long parent = PackedIPv4.pack(0x0A000000, 12);
+        SubnetPlan plan = new SubnetPlan(parent);
+        for(int round = 0; round < 20000; round++) {
+            int operation = random.nextInt(4);
+            int hosts = 1 + random.nextInt(random.nextBoolean() ? 60 : 4000);
+            if(plan.size() == 0 || operation < 2)
+                plan.add(hosts);
+            else if(operation == 2)
+                plan.remove(random.nextInt(plan.size()));
+            else plan.resize(random.nextInt(plan.size()), hosts);
+        }
+
+        long[] subnets = new long[plan.size()];
+        long requested = 0;
+        long allocated = 0;
+        for(int i = 0; i < plan.size(); i++) {
+            if(i > 0)
+                assertTrue(plan.hosts(i - 1) >= plan.hosts(i));
+            assertEquals(VlsmPlanner.prefix(plan.hosts(i)), PackedIPv4.prefix(plan.network(i)));
+            requested += plan.hosts(i);
+            allocated += PackedIPv4.addressCount(plan.network(i));
+            subnets[i] = plan.subnet(i);
+            if(i > 0)
+                assertTrue((PackedIPv4.address(subnets[i - 1]) & 0xFFFFFFFFL) < (PackedIPv4.address(subnets[i]) & 0xFFFFFFFFL));
+        }
+        CidrSet occupied = CidrSet.of(subnets);
+        assertEquals(allocated, occupied.addressCount());                   // No overlap
+        assertEquals(requested, plan.requestedHosts());
+        assertEquals(allocated, plan.allocatedAddresses());
+        assertEquals(occupied.complement(parent), CidrSet.of(plan.free()));
+    }
+}
@@ -1,9 +1,18 @@
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
 
+import ip.translation.ToNumberSystemTest;
+
 public class TestRunner {
     public static void main(String[] args) {
-        Result result = JUnitCore.runClasses(InputModuleTest.class);
+        Result result = JUnitCore.runClasses(InputModuleTest.class, PackedIPv4Test.class, AddressAutomatonTest.class,
+                DatasetGeneratorTest.class, RouteTableTest.class, CidrAggregatorTest.class,
+                RangeDecomposerTest.class, CidrSetTest.class, OverlapAuditTest.class,
+                SubnetIndexTest.class, VlsmPlannerTest.class, BuddyAllocatorTest.class,
+                PackingSolverTest.class, SubnetPlanTest.class, PackedIPv6Test.class,
+                IPv6AutomatonTest.class, IPv6MultibitTrieTest.class, MaskTableTest.class,
+                BatchProcessorTest.class, MappedAddressReaderTest.class, BinarySegmentTest.class,
+                ToNumberSystemTest.class);
 
         System.out.println(result.wasSuccessful());
     }
@@ -0,0 +1,76 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ip.translation.cidr.CidrSet;
+import ip.translation.core.PackedIPv4;
+import ip.translation.subnet.VlsmPlan;
+import ip.translation.subnet.VlsmPlanner;
+
+import java.util.Random;
+
+public class VlsmPlannerTest {
+
+    @Test
+    public void testPrefix() {
+        assertEquals(30, VlsmPlanner.prefix(1));
+        assertEquals(30, VlsmPlanner.prefix(2));
+        assertEquals(29, VlsmPlanner.prefix(3));
+        assertEquals(25, VlsmPlanner.prefix(126));
+        assertEquals(24, VlsmPlanner.prefix(127));
+        assertEquals(0, VlsmPlanner.prefix(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPlan() {
+        long parent = PackedIPv4.pack(0xC0A80117, 24);      // Host bits ignored
+        VlsmPlan plan = VlsmPlanner.plan(parent, new int[] {20, 50, 300, 100, 2});
+        assertEquals(PackedIPv4.pack(0xC0A80100, 24), plan.parent());
+        assertEquals(PackedIPv4.pack(0xC0A801C0, 27), plan.network(0));
+        assertEquals(PackedIPv4.pack(0xC0A80180, 26), plan.network(1));
+        assertEquals(-1, plan.network(2));
+        assertEquals(PackedIPv4.pack(0xC0A80100, 25), plan.network(3));
+        assertEquals(PackedIPv4.pack(0xC0A801E0, 30), plan.network(4));
+
+        assertEquals(4, plan.placed());
+        assertArrayEquals(new int[] {3, 1, 0, 4}, new int[] {plan.requirement(0), plan.requirement(1), plan.requirement(2), plan.requirement(3)});
+        assertArrayEquals(new long[] {PackedIPv4.pack(0xC0A801E4, 30), PackedIPv4.pack(0xC0A801E8, 29),
+                PackedIPv4.pack(0xC0A801F0, 28)}, plan.free());
+        assertEquals(172, plan.requestedHosts());
+        assertEquals(228, plan.allocatedAddresses());
+        assertEquals(28, plan.freeAddresses());
+        assertEquals(228 / 256.0, plan.utilization(), 1e-9);
+    }
+
+    @Test
+    public void testLarge() {
+        Random random = new Random(23);
+        int[] hosts = new int[100000];
+        for(int i = 0; i < hosts.length; i++)
+            hosts[i] = 1 + random.nextInt(random.nextBoolean() ? 60 : 4000);
+        long parent = PackedIPv4.pack(0x0A000000, 8);
+        VlsmPlan plan = VlsmPlanner.plan(parent, hosts);
+
+        long[] subnets = new long[plan.placed()];
+        long previousEnd = PackedIPv4.network(parent) & 0xFFFFFFFFL;
+        for(int i = 0; i < plan.placed(); i++) {
+            int requirement = plan.requirement(i);
+            long network = plan.network(requirement);
+            assertEquals(PackedIPv4.network(network), PackedIPv4.address(network));      // Aligned
+            assertTrue(PackedIPv4.usableHosts(network) >= hosts[requirement]);
+            assertTrue(PackedIPv4.usableHosts(network) < 2L * hosts[requirement] + 2);    // The smallest one
+            assertEquals(previousEnd, PackedIPv4.address(network) & 0xFFFFFFFFL);          // Packed without gaps
+            previousEnd += PackedIPv4.addressCount(network);
+            subnets[i] = network;
+        }
+        for(int i = 0; i < hosts.length; i++)
+            if(plan.network(i) == -1)       // Only the ones exceeding the space left
+                assertTrue(1L << (32 - VlsmPlanner.prefix(hosts[i])) > plan.freeAddresses());
+
+        CidrSet allocated = CidrSet.of(subnets);
+        assertEquals(plan.allocatedAddresses(), allocated.addressCount());
+        assertEquals(CidrSet.of(parent), allocated.union(CidrSet.of(plan.free())));
+        assertTrue(allocated.intersection(CidrSet.of(plan.free())).isEmpty());
+    }
+}
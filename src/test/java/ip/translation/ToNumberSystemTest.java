@@ -0,0 +1,32 @@
+package ip.translation;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/** Lives in the package of {@link ToNumberSystem}, which is not public */
+public class ToNumberSystemTest {
+
+    @Test
+    public void testBinaryToDecimal() {
+        assertEquals(192, ToNumberSystem.binaryToDecimal("11000000"));
+        assertEquals(128, ToNumberSystem.binaryToDecimal("1"));            // Filled with zeros on the right
+        assertEquals(160, ToNumberSystem.binaryToDecimal("101"));
+        assertEquals(-1, ToNumberSystem.binaryToDecimal("12"));
+    }
+
+    @Test
+    public void testOperations() {
+        assertEquals("11000000", ToNumberSystem.IPv4SegmentBinaryAND("11010110", "11100000"));
+        assertEquals("11110110", ToNumberSystem.IPv4SegmentBinaryOR("11010110", "11100000"));
+        assertEquals("00101001", ToNumberSystem.IPv4SegmentBinaryNOT("11010110"));
+        assertEquals("00001010", ToNumberSystem.decimalToBinary(10));
+    }
+
+    @Test
+    public void testNonBinarySegments() {
+        assertEquals("", ToNumberSystem.IPv4SegmentBinaryAND("1101x110", "11100000"));
+        assertEquals("", ToNumberSystem.IPv4SegmentBinaryAND("11010110", "111000001"));
+        assertEquals("", ToNumberSystem.IPv4SegmentBinaryOR("", "11100000"));
+        assertEquals("", ToNumberSystem.IPv4SegmentBinaryNOT("2"));
+    }
+}